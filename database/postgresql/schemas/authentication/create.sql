@@ -19,5 +19,14 @@ CREATE TABLE authentication.user (
   created_at timestamp DEFAULT now_utc()
 );
 
+-- v2 user tokens issued at or before revoked_at are rejected; rows outlive their user so that the tokens of a removed
+-- user stay revoked until they expire
+CREATE TABLE authentication.user_token_revocation (
+  user_id bigint PRIMARY KEY,
+  revoked_at timestamp NOT NULL
+);
+CREATE INDEX user_token_revocation_revoked_at_idx ON authentication.user_token_revocation (revoked_at);
+
 -- --- --- --- --- --- --- --- --- --- --- --- --- --- ---
 
+\ir functions_post.sql
@@ -0,0 +1,79 @@
+--
+-- Authentication schema post creation functions (functions that rely on the
+-- users and authentication schemas)
+-- -------------------------------------------------------
+
+-- -------------------------------------------------------
+--   User Log In
+-- -------------------------------------------------------
+
+--
+-- Log in a user and load everything needed to finalize the log in, in one
+-- round trip: check the credentials, record the log in in users.user_log,
+-- rotate the user token key if it is older than _key_lifetime_ms and return
+-- a JSON document of the form:
+--   {"user": {...}, "userActivity": {...}, "loggedOutAt": <epoch ms>,
+--    "token": {"key": "...", "createdAt": <epoch ms>, "rotated": <bool>}}
+-- The user row excludes columns passw_hash and created_at. Returns NULL if
+-- the credentials are invalid.
+--
+-- _method: Log in method; one of 'name', 'phone_number' or 'email'
+--
+CREATE OR REPLACE FUNCTION log_in_and_load_user(_method text, _identity text,
+    _passw text, _key_lifetime_ms bigint)
+RETURNS json AS $$
+DECLARE
+  usr users.user;
+  prev_logged_out_at timestamp;
+  activity json;
+  tkn_key varchar;
+  tkn_created_at timestamp;
+  tkn_rotated boolean := FALSE;
+BEGIN
+  IF _method = 'name' THEN
+    SELECT * INTO usr FROM log_in_user_by_name(_identity, _passw) LIMIT 1;
+  ELSIF _method = 'phone_number' THEN
+    SELECT * INTO usr FROM log_in_user_by_phone_number(_identity, _passw) LIMIT 1;
+  ELSIF _method = 'email' THEN
+    SELECT * INTO usr FROM log_in_user_by_email(_identity, _passw) LIMIT 1;
+  ELSE
+    RAISE EXCEPTION 'Invalid log in method: %', _method;
+  END IF;
+
+  IF usr.id IS NULL THEN
+    RETURN NULL;
+  END IF;
+
+  -- The previous log out time is read in the same statement that records the
+  -- log in, so it is the value from before this log in
+  UPDATE users.user_log new SET logged_in_at = now_utc(),
+      times_logged_in = new.times_logged_in + 1
+    FROM users.user_log old
+    WHERE new.user_id = usr.id AND old.user_id = usr.id
+    RETURNING old.logged_out_at INTO prev_logged_out_at;
+
+  SELECT row_to_json(a) INTO activity FROM users.user_activity a
+    WHERE a.user_id = usr.id;
+
+  SELECT key, created_at INTO tkn_key, tkn_created_at FROM authentication.user
+    WHERE user_id = usr.id FOR UPDATE;
+
+  IF tkn_created_at IS NULL OR tkn_key IS NULL OR now_utc() - tkn_created_at >
+      _key_lifetime_ms * interval '1 millisecond' THEN
+    UPDATE authentication.user SET key = encode(gen_random_bytes(16), 'base64'),
+        created_at = now_utc()
+      WHERE user_id = usr.id
+      RETURNING key, created_at INTO tkn_key, tkn_created_at;
+    tkn_rotated := TRUE;
+  END IF;
+
+  RETURN json_build_object(
+    'user', to_jsonb(usr) - 'passw_hash' - 'created_at',
+    'userActivity', activity,
+    'loggedOutAt', (extract(epoch FROM prev_logged_out_at) * 1000)::bigint,
+    'token', json_build_object(
+      'key', tkn_key,
+      'createdAt', (extract(epoch FROM tkn_created_at) * 1000)::bigint,
+      'rotated', tkn_rotated));
+END;
+$$ LANGUAGE PLPGSQL;
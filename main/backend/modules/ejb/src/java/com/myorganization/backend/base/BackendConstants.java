@@ -9,4 +9,13 @@ public class BackendConstants {
         public static final boolean DISABLE_AUTHENTICATION = false;
     }
 
+    public static class Authentication {
+        /**
+         * Issue stateless v2 user tokens; v1 tokens are still accepted until they expire. v2 tokens are only issued if
+         * the user token keys are configured on every server (see UserTokenKeyRing). Both the war and the ejb endpoints
+         * validate them with the same authentication module, and the user token revocation table must exist.
+         */
+        public static final boolean ISSUE_USER_TOKEN_V2 = false;
+    }
+
 }
@@ -0,0 +1,145 @@
+package com.organization.backend.base;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A Count-Min Sketch: estimates the counts of keys in a fixed amount of memory, whatever the number of keys. An
+ * estimate is never lower than the real count, and with probability 1 - (1/2)^depth it is higher by at most
+ * 2 * total / width.
+ * <p>
+ * Counts are doubles so that they can be decayed with {@link #scale(double)}. Keys are hashed from their characters,
+ * so sketches of the same size built on different servers can be merged with {@link #merge(CountMinSketch)}.
+ * <p>
+ * Not thread-safe.
+ */
+public class CountMinSketch {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int mWidth;
+    private final int mDepth;
+    private final double[] mCounts; // Row i is [i * mWidth, (i + 1) * mWidth)
+    private double mTotal;
+
+    /**
+     * @param width Number of counters per row; the error is proportional to 1 / width
+     * @param depth Number of rows; the probability of exceeding the error is (1/2)^depth
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1 || (long) width * depth > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid sketch size " + width + "x" + depth);
+        }
+        mWidth = width;
+        mDepth = depth;
+        mCounts = new double[width * depth];
+    }
+
+    /**
+     * Add to the count of a key.
+     * @return The new count estimate of the key
+     */
+    public double add(String key, double count) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        double estimate = Double.MAX_VALUE;
+
+        for (int i = 0; i < mDepth; i++) {
+            int index = i * mWidth + index(h1 + i * h2);
+            mCounts[index] += count;
+            estimate = Math.min(estimate, mCounts[index]);
+        }
+        mTotal += count;
+        return estimate;
+    }
+
+    public double estimate(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        double estimate = Double.MAX_VALUE;
+
+        for (int i = 0; i < mDepth; i++) {
+            estimate = Math.min(estimate, mCounts[i * mWidth + index(h1 + i * h2)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Multiply all counts, e.g. by a factor below 1 to decay older counts.
+     */
+    public void scale(double factor) {
+        for (int i = 0; i < mCounts.length; i++) {
+            mCounts[i] *= factor;
+        }
+        mTotal *= factor;
+    }
+
+    /**
+     * Add the counts of another sketch of the same size.
+     */
+    public void merge(CountMinSketch other) {
+        if (other.mWidth != mWidth || other.mDepth != mDepth) {
+            throw new IllegalArgumentException("Cannot merge a " + other.mWidth + "x" + other.mDepth + " sketch" +
+                    " into a " + mWidth + "x" + mDepth + " sketch");
+        }
+        for (int i = 0; i < mCounts.length; i++) {
+            mCounts[i] += other.mCounts[i];
+        }
+        mTotal += other.mTotal;
+    }
+
+    public int getWidth() { return mWidth; }
+    public int getDepth() { return mDepth; }
+
+    /**
+     * Get the sum of all counts added.
+     */
+    public double getTotal() { return mTotal; }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(mWidth);
+        out.writeInt(mDepth);
+        out.writeDouble(mTotal);
+        for (double count : mCounts) {
+            out.writeDouble(count);
+        }
+    }
+
+    public static CountMinSketch readFrom(DataInput in) throws IOException {
+        int width = in.readInt();
+        int depth = in.readInt();
+        CountMinSketch sketch;
+        try {
+            sketch = new CountMinSketch(width, depth);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+        sketch.mTotal = in.readDouble();
+        for (int i = 0; i < sketch.mCounts.length; i++) {
+            sketch.mCounts[i] = in.readDouble();
+        }
+        return sketch;
+    }
+
+    private int index(int hash) {
+        return (hash & Integer.MAX_VALUE) % mWidth;
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the characters of a key, split into the two hashes combined for each row. It does not
+     * depend on a seed, so a key maps to the same counters on every server.
+     */
+    private static long hash(String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+}
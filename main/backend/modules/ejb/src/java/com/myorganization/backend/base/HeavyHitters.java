@@ -0,0 +1,224 @@
+package com.organization.backend.base;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The K keys with the highest counts in a stream, in a fixed amount of memory: counts are estimated by a
+ * {@link CountMinSketch} and the top K keys are kept in a min-heap, so that a key whose estimate exceeds the lowest
+ * top count replaces that key. Each entry knows its index in the heap, so the count of a top key is updated in place
+ * in O(log K).
+ * <p>
+ * Not thread-safe.
+ */
+public class HeavyHitters {
+    private static final Comparator<Entry> ASCENDING_COUNT = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry e1, Entry e2) {
+            return Double.compare(e1.mCount, e2.mCount);
+        }
+    };
+
+    private final int mK;
+    private final CountMinSketch mSketch;
+    private final Entry[] mHeap;
+    private int mSize;
+    private final Map<String, Entry> mEntries;
+
+    public HeavyHitters(int k, int width, int depth) {
+        this(k, new CountMinSketch(width, depth));
+    }
+
+    private HeavyHitters(int k, CountMinSketch sketch) {
+        if (k < 1) {
+            throw new IllegalArgumentException("Invalid number of heavy hitters " + k);
+        }
+        mK = k;
+        mSketch = sketch;
+        mHeap = new Entry[k];
+        mEntries = new HashMap<>(k * 2);
+    }
+
+    /**
+     * Add to the count of a key. O(log K).
+     */
+    public void add(String key, double count) {
+        offer(key, mSketch.add(key, count));
+    }
+
+    /**
+     * Multiply all counts, e.g. by a factor below 1 to decay older counts. The order of the top keys is unchanged.
+     */
+    public void scale(double factor) {
+        mSketch.scale(factor);
+        for (Entry entry : mEntries.values()) {
+            entry.mCount *= factor;
+        }
+    }
+
+    /**
+     * Add the counts of another instance with a sketch of the same size, e.g. built on another server. Keys in the top
+     * K of either instance are candidates for the merged top K.
+     * <p>
+     * Merging the same instance again adds its counts again, so instances of other servers should not be merged into
+     * a live instance periodically; combine them in a fresh instance instead (see {@link #merged(List)}).
+     * @throws IllegalArgumentException If the sketch sizes differ
+     */
+    public void merge(HeavyHitters other) {
+        mSketch.merge(other.mSketch);
+
+        List<String> candidates = new ArrayList<>(mEntries.keySet());
+        candidates.addAll(other.mEntries.keySet());
+        Arrays.fill(mHeap, 0, mSize, null);
+        mSize = 0;
+        mEntries.clear();
+        for (String key : candidates) {
+            offer(key, mSketch.estimate(key));
+        }
+    }
+
+    /**
+     * Create a new instance with the combined counts of instances with sketches of the same size, which are not
+     * changed. Its K is that of the first instance.
+     * @throws IllegalArgumentException If there are no instances or their sketch sizes differ
+     */
+    public static HeavyHitters merged(List<HeavyHitters> instances) {
+        if (instances.isEmpty()) {
+            throw new IllegalArgumentException("No heavy hitters to merge");
+        }
+
+        HeavyHitters first = instances.get(0);
+        HeavyHitters merged = new HeavyHitters(first.mK, first.getWidth(), first.getDepth());
+        for (HeavyHitters instance : instances) {
+            merged.merge(instance);
+        }
+        return merged;
+    }
+
+    /**
+     * Get the top keys and their estimated counts, highest count first.
+     */
+    public List<Map.Entry<String, Double>> getTop() {
+        List<Entry> entries = new ArrayList<>(Arrays.asList(mHeap).subList(0, mSize));
+        Collections.sort(entries, Collections.reverseOrder(ASCENDING_COUNT));
+
+        List<Map.Entry<String, Double>> top = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            top.add(new AbstractMap.SimpleImmutableEntry<>(entry.mKey, entry.mCount));
+        }
+        return top;
+    }
+
+    public int getK() { return mK; }
+    public int getWidth() { return mSketch.getWidth(); }
+    public int getDepth() { return mSketch.getDepth(); }
+
+    /**
+     * Get the sum of all counts added.
+     */
+    public double getTotal() { return mSketch.getTotal(); }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(mK);
+        mSketch.writeTo(out);
+        out.writeInt(mEntries.size());
+        for (String key : mEntries.keySet()) {
+            out.writeUTF(key);
+        }
+    }
+
+    public static HeavyHitters readFrom(DataInput in) throws IOException {
+        int k = in.readInt();
+        if (k < 1) {
+            throw new IOException("Invalid number of heavy hitters " + k);
+        }
+
+        HeavyHitters heavyHitters = new HeavyHitters(k, CountMinSketch.readFrom(in));
+        int numKeys = in.readInt();
+        for (int i = 0; i < numKeys; i++) {
+            String key = in.readUTF();
+            heavyHitters.offer(key, heavyHitters.mSketch.estimate(key));
+        }
+        return heavyHitters;
+    }
+
+    private void offer(String key, double count) {
+        Entry entry = mEntries.get(key);
+
+        if (entry != null) {
+            double previous = entry.mCount;
+            entry.mCount = count;
+            if (count < previous) {
+                siftUp(entry.mIndex);
+            } else {
+                siftDown(entry.mIndex);
+            }
+        } else if (mSize < mK) {
+            entry = new Entry(key, count);
+            mEntries.put(key, entry);
+            entry.mIndex = mSize;
+            mHeap[mSize++] = entry;
+            siftUp(entry.mIndex);
+        } else if (count > mHeap[0].mCount) {
+            // Replace the lowest top key in place
+            mEntries.remove(mHeap[0].mKey);
+            entry = new Entry(key, count);
+            mEntries.put(key, entry);
+            entry.mIndex = 0;
+            mHeap[0] = entry;
+            siftDown(0);
+        }
+    }
+
+    private void siftUp(int index) {
+        Entry entry = mHeap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (mHeap[parent].mCount <= entry.mCount) break;
+            place(mHeap[parent], index);
+            index = parent;
+        }
+        place(entry, index);
+    }
+
+    private void siftDown(int index) {
+        Entry entry = mHeap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= mSize) break;
+            if (child + 1 < mSize && mHeap[child + 1].mCount < mHeap[child].mCount) {
+                child++;
+            }
+            if (entry.mCount <= mHeap[child].mCount) break;
+            place(mHeap[child], index);
+            index = child;
+        }
+        place(entry, index);
+    }
+
+    private void place(Entry entry, int index) {
+        mHeap[index] = entry;
+        entry.mIndex = index;
+    }
+
+    private static class Entry {
+        final String mKey;
+        double mCount;
+        int mIndex; // In the heap
+
+        Entry(String key, double count) {
+            mKey = key;
+            mCount = count;
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.organization.backend.base;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations in microseconds with power of 2 buckets. Element i of the histogram is the number
+ * of durations that were less than 2^i microseconds (and at least 2^(i-1)); the last element also counts all longer
+ * durations.
+ */
+public class MicrosHistogram {
+    public static final int NUM_BUCKETS = 26; // Up to 2^25 us (~33 s)
+
+    private final AtomicLongArray mBuckets = new AtomicLongArray(NUM_BUCKETS);
+    private final AtomicLong mCount = new AtomicLong();
+    private final AtomicLong mMaxMicros = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = nanos / 1000;
+        int bucket = Math.min(64 - Long.numberOfLeadingZeros(micros), NUM_BUCKETS - 1);
+
+        mBuckets.incrementAndGet(bucket);
+        mCount.incrementAndGet();
+
+        long max = mMaxMicros.get();
+        while (micros > max && !mMaxMicros.compareAndSet(max, micros)) {
+            max = mMaxMicros.get();
+        }
+    }
+
+    public long getCount() {
+        return mCount.get();
+    }
+
+    public long getMaxMicros() {
+        return mMaxMicros.get();
+    }
+
+    public long[] getBuckets() {
+        long[] buckets = new long[NUM_BUCKETS];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = mBuckets.get(i);
+        }
+        return buckets;
+    }
+
+    /**
+     * Get an approximate percentile (the upper bound of the bucket it falls in).
+     * @param percentile Percentile between 0 and 100
+     */
+    public long getPercentileMicros(double percentile) {
+        long[] buckets = getBuckets();
+        long total = 0;
+        for (long count : buckets) {
+            total += count;
+        }
+        if (total == 0) return 0;
+
+        long rank = (long) Math.ceil(total * Math.max(0, Math.min(100, percentile)) / 100);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        return 1L << (NUM_BUCKETS - 1);
+    }
+
+}
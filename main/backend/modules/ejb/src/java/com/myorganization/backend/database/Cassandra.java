@@ -1,46 +1,50 @@
 package com.organization.backend.database;
 
 import com.datastax.driver.core.*;
-import com.datastax.driver.core.exceptions.InvalidQueryException;
 import com.datastax.driver.core.exceptions.NoHostAvailableException;
 import com.datastax.driver.core.exceptions.QueryExecutionException;
 import com.datastax.driver.core.exceptions.QueryValidationException;
+import com.datastax.driver.core.policies.ConstantSpeculativeExecutionPolicy;
+import com.datastax.driver.core.policies.DCAwareRoundRobinPolicy;
+import com.datastax.driver.core.policies.TokenAwarePolicy;
+import com.organization.backend.base.MicrosHistogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.Map;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Cassandra connection manager
+ * Cassandra connection manager. One session is connected on first use, with the settings of
+ * {@link CassandraConfig#current()}, and shared until {@link #close()}.
  */
 public class Cassandra {
     private static final Logger LOG = LoggerFactory.getLogger(Cassandra.class);
+    private static final long CLOSE_TIMEOUT = 10000;
 
-    public enum Node {
-        NODE_1("127.0.0.1", 0),
-        NODE_2("127.0.0.2", 0);
-        public final String address;
-        public final int port;
-        Node(String address, int port) {
-            this.address = address;
-            this.port = port;
-        }
-    }
-
-    private static Cluster sCluster;
-    private static Session sSession;
+    private static final Object sLock = new Object();
+    private static volatile Cluster sCluster;
+    private static volatile Session sSession;
+    private static boolean sIsClosed;
 
     /**
-     * Execute a statement directly to a Cassandra node.
+     * Execute a statement.
      * Note: It is currently not in use and saved for all the exception catching in case it is needed in the future.
      * @return ResultSet of the executed query; null if failed
      */
-    public static ResultSet execute(Node node, Statement statement) {
+    public static ResultSet execute(Statement statement) {
         ResultSet rs = null;
 
         try {
-            rs = getSession(node).execute(statement);
+            rs = getSession().execute(statement);
         } catch (NoHostAvailableException e) {
             LOG.error("Failed to execute statement: No host in the cluster can be contacted: {}", e.getMessage());
         } catch (QueryExecutionException e) {
@@ -55,61 +59,243 @@ public class Cassandra {
     }
 
     /**
-     * Provide a Cassandra cluster session
+     * Provide the Cassandra cluster session, connecting it if needed.
+     * @throws NoHostAvailableException If no contact point could be connected to; the next call tries again
+     * @throws IllegalStateException If Cassandra has been closed
      */
-    public static Session getSession(Node node) {
-        if (sSession == null || sSession.isClosed()) {
-            sSession = connect(node, DbConstants.CQL.KEYSPACE);
-            return sSession;
+    public static Session getSession() {
+        Session session = sSession;
+
+        if (session == null) {
+            synchronized (sLock) {
+                if (sIsClosed) {
+                    throw new IllegalStateException("Cassandra has been closed");
+                }
+
+                session = sSession;
+                if (session == null) {
+                    session = connect(CassandraConfig.current());
+                    sSession = session;
+                }
+            }
         }
-        return sSession;
+        return session;
     }
 
     /**
-     * Close Cassandra cluster
+     * Close the Cassandra cluster. Requests in flight are completed first, waiting at most {@link #CLOSE_TIMEOUT}
+     * ms; the session cannot be used afterwards.
      */
-    public static void close()
-    {
-        sCluster.close();
+    public static void close() {
+        Cluster cluster;
+
+        synchronized (sLock) {
+            sIsClosed = true;
+            cluster = sCluster;
+            sCluster = null;
+            sSession = null;
+        }
+        if (cluster == null) return;
+
+        CloseFuture closeFutr = cluster.closeAsync();
+        try {
+            closeFutr.get(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS);
+            LOG.info("Cassandra closed");
+        } catch (TimeoutException e) {
+            LOG.warn("Cassandra requests still in flight after {} ms; closing anyway", CLOSE_TIMEOUT);
+            closeFutr.force();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            closeFutr.force();
+        } catch (ExecutionException e) {
+            LOG.warn("Failed to close Cassandra: {}", e.getCause().toString());
+        }
     }
 
     /**
-     * Connect to Cassandra cluster
-     * @return Session of connected cluster; null if connection failed.
-     * @param node Cluster node IP address
+     * Connect to the Cassandra cluster.
+     * <p>
+     * Requests are routed to a replica of their partition (token aware) in the local datacenter (DC aware). Statements
+     * are prepared on all hosts and re-prepared on a host when it comes back up, before it is used, so that requests
+     * do not wait on a prepare after a node restarts. Idempotent statements are also sent to another host if the
+     * first has not replied within the speculative execution delay.
      */
-    public static Session connect(Node node, String keyspace) {
-        sCluster = Cluster.builder().addContactPoint(node.address).build();
-        //sCluster = Cluster.builder().addContactPoint(node.address).withPort(node.port).build();
-        Metadata metadata = sCluster.getMetadata();
+    private static Session connect(CassandraConfig config) {
+        LOG.info("Connecting to Cassandra: {}", config);
+
+        DCAwareRoundRobinPolicy.Builder dcAwarePolicyBuilder = DCAwareRoundRobinPolicy.builder();
+        if (!config.getLocalDatacenter().isEmpty()) {
+            dcAwarePolicyBuilder.withLocalDc(config.getLocalDatacenter());
+        }
+
+        Cluster.Builder builder = Cluster.builder()
+                .addContactPoints(config.getContactPoints().toArray(new String[0]))
+                .withPort(config.getPort())
+                .withLoadBalancingPolicy(new TokenAwarePolicy(dcAwarePolicyBuilder.build()))
+                .withPoolingOptions(new PoolingOptions()
+                        .setConnectionsPerHost(HostDistance.LOCAL, config.getCoreConnectionsPerHost(),
+                                config.getMaxConnectionsPerHost())
+                        .setMaxRequestsPerConnection(HostDistance.LOCAL, config.getMaxRequestsPerConnection())
+                        .setPoolTimeoutMillis(config.getPoolTimeout()))
+                .withSocketOptions(new SocketOptions()
+                        .setConnectTimeoutMillis(config.getConnectTimeout())
+                        .setReadTimeoutMillis(config.getReadTimeout()))
+                .withQueryOptions(new QueryOptions()
+                        .setPrepareOnAllHosts(true)
+                        .setReprepareOnUp(true));
+
+        if (config.getMaxSpeculativeExecutions() > 0) {
+            builder.withSpeculativeExecutionPolicy(new ConstantSpeculativeExecutionPolicy(
+                    config.getSpeculativeExecutionDelay(), config.getMaxSpeculativeExecutions()));
+        }
+
+        Cluster cluster = builder.build();
+        Session session;
+
+        try {
+            session = cluster.connect(DbConstants.CQL.KEYSPACE);
+        } catch (RuntimeException e) {
+            LOG.error("Cassandra failed to connect: {}", e.toString());
+            cluster.close();
+            throw e;
+        }
 
+        Metadata metadata = cluster.getMetadata();
         LOG.debug("Connected to cluster: {}", metadata.getClusterName());
         for (Host host : metadata.getAllHosts()) {
             LOG.debug("Datacenter: {}; Host: {}; Rack: {}", host.getDatacenter(), host.getAddress(), host.getRack());
         }
 
-        try {
-            sSession = sCluster.connect(keyspace);
-        } catch (InvalidQueryException e) {
-            LOG.error("Cassandra failed to connect: {}", e.getMessage());
-        }
-        return sSession;
+        sCluster = cluster;
+        return session;
     }
 
     /**
-     * A cache to hold prepared statements
+     * A cache to hold prepared statements. Each CQL string is prepared only once; threads that request a statement
+     * while it is being prepared wait for that prepare instead of preparing it again.
+     * <p>
+     * Statements are prepared on all hosts and re-prepared by the driver when a host comes back up, before requests
+     * are sent to it (see {@link #connect(CassandraConfig)}). Statements that only read (SELECT) are marked
+     * idempotent so that they may be executed speculatively.
      */
     public static class StatementCache {
-        private static Map<String, PreparedStatement> sIdPreparedStatementMap = new HashMap<>();
+        public static final String OBJECT_NAME = "com.organization.backend:type=CassandraStatementCache";
+        public static final String PREPARE_AT_STARTUP_PROPERTY = "organization.cassandra.prepareAtStartup";
+
+        private static final ConcurrentMap<String, FutureTask<PreparedStatement>> sCqlPreparedStatementMap =
+                new ConcurrentHashMap<>();
+        private static final CacheMetrics sMetrics = new CacheMetrics();
+
+        static {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(sMetrics, new ObjectName(OBJECT_NAME));
+            } catch (Exception e) {
+                LOG.warn("Failed to register Cassandra statement cache metrics MBean: {}", e.toString());
+            }
+        }
 
         public static BoundStatement getStatement(String cql) {
-            PreparedStatement prepStmt = sIdPreparedStatementMap.get(cql);
+            return getPreparedStatement(cql).bind();
+        }
+
+        /**
+         * Prepare statements ahead of their first use, e.g. at startup. Failures are logged; the statements are then
+         * prepared on first use.
+         * @return Number of statements prepared
+         */
+        public static int prepareAll(String... cqls) {
+            int numPrepared = 0;
+            for (String cql : cqls) {
+                try {
+                    getPreparedStatement(cql);
+                    numPrepared++;
+                } catch (RuntimeException e) {
+                    LOG.warn("Failed to prepare statement \"{}\": {}", cql, e.toString());
+                }
+            }
+            return numPrepared;
+        }
+
+        /**
+         * Prepare {@link DbConstants.CQL.Statements#ALL} if system property {@value #PREPARE_AT_STARTUP_PROPERTY}
+         * is true (the default).
+         */
+        public static void prepareAllAtStartup() {
+            if (Boolean.parseBoolean(System.getProperty(PREPARE_AT_STARTUP_PROPERTY, "true"))) {
+                int numPrepared = prepareAll(DbConstants.CQL.Statements.ALL);
+                LOG.info("Prepared {} of {} Cassandra statements", numPrepared, DbConstants.CQL.Statements.ALL.length);
+            }
+        }
+
+        private static PreparedStatement getPreparedStatement(final String cql) {
+            FutureTask<PreparedStatement> prepTask = sCqlPreparedStatementMap.get(cql);
+
+            if (prepTask == null) {
+                FutureTask<PreparedStatement> newPrepTask = new FutureTask<>(new Callable<PreparedStatement>() {
+                    @Override
+                    public PreparedStatement call() {
+                        long start = System.nanoTime();
+                        PreparedStatement prepStmt = getSession().prepare(cql);
+                        prepStmt.setIdempotent(cql.regionMatches(true, 0, "SELECT", 0, 6));
+                        sMetrics.mPrepareMicros.record(System.nanoTime() - start);
+                        return prepStmt;
+                    }
+                });
+
+                prepTask = sCqlPreparedStatementMap.putIfAbsent(cql, newPrepTask);
+                if (prepTask == null) {
+                    prepTask = newPrepTask;
+                    prepTask.run();
+                }
+                sMetrics.mMissCount.incrementAndGet();
+            } else {
+                sMetrics.mHitCount.incrementAndGet();
+            }
+
+            try {
+                return prepTask.get();
+            } catch (ExecutionException e) {
+                // Remove the failed prepare so that the next request retries it
+                sCqlPreparedStatementMap.remove(cql, prepTask);
+                sMetrics.mPrepareFailureCount.incrementAndGet();
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException("Failed to prepare statement: " + e.getCause(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for statement to be prepared", e);
+            }
+        }
+
+        private static class CacheMetrics implements CassandraStatementCacheMXBean {
+            private final AtomicLong mHitCount = new AtomicLong();
+            private final AtomicLong mMissCount = new AtomicLong();
+            private final AtomicLong mPrepareFailureCount = new AtomicLong();
+            private final MicrosHistogram mPrepareMicros = new MicrosHistogram();
+
+            @Override
+            public int getSize() { return sCqlPreparedStatementMap.size(); }
+
+            @Override
+            public long getHitCount() { return mHitCount.get(); }
+
+            @Override
+            public long getMissCount() { return mMissCount.get(); }
+
+            @Override
+            public long getPrepareFailureCount() { return mPrepareFailureCount.get(); }
+
+            @Override
+            public long getMaxPrepareMicros() { return mPrepareMicros.getMaxMicros(); }
+
+            @Override
+            public long[] getPrepareMicrosHistogram() { return mPrepareMicros.getBuckets(); }
 
-            if (prepStmt == null) {
-                prepStmt = getSession(Node.NODE_1).prepare(cql);
-                sIdPreparedStatementMap.put(cql, prepStmt);
+            @Override
+            public long getPrepareMicrosPercentile(double percentile) {
+                return mPrepareMicros.getPercentileMicros(percentile);
             }
-            return prepStmt.bind();
         }
     }
 
@@ -0,0 +1,321 @@
+package com.organization.backend.database;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Asynchronous execution of Cassandra statements on the session of {@link Cassandra}, or on a given session. Unlike
+ * {@link Cassandra#execute(Statement)}, failures are not swallowed; the returned futures complete exceptionally.
+ * <p>
+ * A prepared statement may only be executed on a session of the cluster it was prepared on, as its ID is unknown to
+ * other clusters; statements of {@link Cassandra.StatementCache} must be executed on the session of {@link Cassandra}.
+ */
+public class CassandraAsync {
+
+    /**
+     * Execute a statement. Cancelling the returned future cancels the query.
+     */
+    public static CompletableFuture<ResultSet> executeAsync(Statement statement) {
+        return executeAsyncOn(null, statement);
+    }
+
+    /**
+     * Execute a statement on a given session, e.g. of a legacy cluster. Cancelling the returned future cancels the
+     * query.
+     */
+    public static CompletableFuture<ResultSet> executeAsync(Session session, Statement statement) {
+        if (session == null) {
+            throw new IllegalArgumentException("Session must not be null");
+        }
+        return executeAsyncOn(session, statement);
+    }
+
+    /**
+     * @param session Session to execute on; null for the session of {@link Cassandra}
+     */
+    private static CompletableFuture<ResultSet> executeAsyncOn(Session session, Statement statement) {
+        final CompletableFuture<ResultSet> future = new CompletableFuture<>();
+        final ResultSetFuture rsFuture;
+
+        try {
+            rsFuture = (session != null ? session : Cassandra.getSession()).executeAsync(statement);
+        } catch (RuntimeException e) {
+            // E.g. no host available or Cassandra closed
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        Futures.addCallback(rsFuture, new FutureCallback<ResultSet>() {
+            @Override
+            public void onSuccess(ResultSet rs) {
+                future.complete(rs);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        future.whenComplete(new BiConsumer<ResultSet, Throwable>() {
+            @Override
+            public void accept(ResultSet rs, Throwable t) {
+                if (future.isCancelled()) {
+                    rsFuture.cancel(true);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Execute independent statements in parallel, with at most {@link CassandraConfig#getMaxParallelStatements()}
+     * in flight at a time.
+     * @see #executeAllAsync(List, int)
+     */
+    public static CompletableFuture<List<ResultSet>> executeAllAsync(List<? extends Statement> statements) {
+        return executeAllAsync(statements, CassandraConfig.current().getMaxParallelStatements());
+    }
+
+    /**
+     * Execute independent statements in parallel. A statement is started whenever one in flight completes; no thread
+     * waits in between.
+     * @param maxInFlight Maximum number of statements in flight at a time
+     * @return Future of the result sets, in the order of the statements. It completes exceptionally with the first
+     * failure, after which no more statements are started; statements already in flight are not rolled back.
+     */
+    public static CompletableFuture<List<ResultSet>> executeAllAsync(List<? extends Statement> statements,
+                                                                     int maxInFlight) {
+        return executeAllAsyncOn(null, statements, maxInFlight);
+    }
+
+    /**
+     * Execute independent statements in parallel on a given session, e.g. of a legacy cluster.
+     * @see #executeAllAsync(List, int)
+     */
+    public static CompletableFuture<List<ResultSet>> executeAllAsync(Session session,
+                                                                     List<? extends Statement> statements,
+                                                                     int maxInFlight) {
+        if (session == null) {
+            throw new IllegalArgumentException("Session must not be null");
+        }
+        return executeAllAsyncOn(session, statements, maxInFlight);
+    }
+
+    /**
+     * @param session Session to execute on; null for the session of {@link Cassandra}
+     */
+    private static CompletableFuture<List<ResultSet>> executeAllAsyncOn(final Session session,
+                                                                        final List<? extends Statement> statements,
+                                                                        int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1: " + maxInFlight);
+        }
+
+        final CompletableFuture<List<ResultSet>> future = new CompletableFuture<>();
+        if (statements.isEmpty()) {
+            future.complete(Collections.<ResultSet>emptyList());
+            return future;
+        }
+
+        final ResultSet[] results = new ResultSet[statements.size()];
+        final AtomicInteger nextIndex = new AtomicInteger();
+        final AtomicInteger numRemaining = new AtomicInteger(statements.size());
+
+        Runnable executeNext = new Runnable() {
+            @Override
+            public void run() {
+                final int i = nextIndex.getAndIncrement();
+                if (i >= statements.size() || future.isDone()) return;
+
+                final Runnable executeNext = this;
+                executeAsyncOn(session, statements.get(i)).whenComplete(new BiConsumer<ResultSet, Throwable>() {
+                    @Override
+                    public void accept(ResultSet rs, Throwable t) {
+                        if (t != null) {
+                            future.completeExceptionally(t);
+                            return;
+                        }
+
+                        results[i] = rs;
+                        if (numRemaining.decrementAndGet() == 0) {
+                            future.complete(Arrays.asList(results));
+                        } else {
+                            executeNext.run();
+                        }
+                    }
+                });
+            }
+        };
+
+        for (int i = 0; i < Math.min(maxInFlight, statements.size()); i++) {
+            executeNext.run();
+        }
+        return future;
+    }
+
+    /**
+     * Execute independent statements in parallel, each with its own outcome: unlike
+     * {@link #executeAllAsync(List, int)}, a failure does not stop the other statements. A statement is started
+     * whenever one in flight completes; no thread waits in between. Cancelling the future of a statement that has not
+     * been started yet skips it.
+     * @param maxInFlight Maximum number of statements in flight at a time
+     * @return Futures of the result sets, in the order of the statements
+     */
+    public static List<CompletableFuture<ResultSet>> executeEachAsync(List<? extends Statement> statements,
+                                                                     int maxInFlight) {
+        return executeEachAsyncOn(null, statements, maxInFlight);
+    }
+
+    /**
+     * Execute independent statements in parallel on a given session, e.g. of a legacy cluster, each with its own
+     * outcome.
+     * @see #executeEachAsync(List, int)
+     */
+    public static List<CompletableFuture<ResultSet>> executeEachAsync(Session session,
+                                                                     List<? extends Statement> statements,
+                                                                     int maxInFlight) {
+        if (session == null) {
+            throw new IllegalArgumentException("Session must not be null");
+        }
+        return executeEachAsyncOn(session, statements, maxInFlight);
+    }
+
+    /**
+     * @param session Session to execute on; null for the session of {@link Cassandra}
+     */
+    private static List<CompletableFuture<ResultSet>> executeEachAsyncOn(final Session session,
+                                                                        final List<? extends Statement> statements,
+                                                                        int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1: " + maxInFlight);
+        }
+
+        final List<CompletableFuture<ResultSet>> futures = new ArrayList<>(statements.size());
+        for (int i = 0; i < statements.size(); i++) {
+            futures.add(new CompletableFuture<ResultSet>());
+        }
+        final AtomicInteger nextIndex = new AtomicInteger();
+
+        Runnable executeNext = new Runnable() {
+            @Override
+            public void run() {
+                int i;
+                while ((i = nextIndex.getAndIncrement()) < statements.size()) {
+                    final CompletableFuture<ResultSet> future = futures.get(i);
+                    if (future.isDone()) continue; // Cancelled before it was started
+
+                    final CompletableFuture<ResultSet> stmtFuture = executeAsyncOn(session, statements.get(i));
+                    if (stmtFuture.isDone()) {
+                        // Failed to start (e.g. no host available); continue in this loop rather than recursing
+                        copy(stmtFuture, future);
+                        continue;
+                    }
+
+                    final Runnable executeNext = this;
+                    stmtFuture.whenComplete(new BiConsumer<ResultSet, Throwable>() {
+                        @Override
+                        public void accept(ResultSet rs, Throwable t) {
+                            copy(stmtFuture, future);
+                            executeNext.run();
+                        }
+                    });
+                    future.whenComplete(new BiConsumer<ResultSet, Throwable>() {
+                        @Override
+                        public void accept(ResultSet rs, Throwable t) {
+                            if (future.isCancelled()) {
+                                stmtFuture.cancel(true);
+                            }
+                        }
+                    });
+                    return;
+                }
+            }
+        };
+
+        for (int i = 0; i < Math.min(maxInFlight, statements.size()); i++) {
+            executeNext.run();
+        }
+        return futures;
+    }
+
+    private static void copy(CompletableFuture<ResultSet> from, CompletableFuture<ResultSet> to) {
+        try {
+            to.complete(from.join());
+        } catch (CompletionException | CancellationException e) {
+            to.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    /**
+     * Execute statements that write to the same partition key in one unlogged batch, which is sent in a single request
+     * to the replicas of the partition and applied atomically on each. The statements may write to different tables
+     * of a keyspace that share the partition key (e.g. user_id), as the partition key decides the replicas. Statements
+     * are compared by keyspace and routing key.
+     * @throws IllegalArgumentException If there are no statements or they do not share a partition; batches across
+     * partitions load the coordinator and are not atomic without the batch log
+     */
+    public static CompletableFuture<ResultSet> executeUnloggedBatchAsync(List<? extends Statement> statements) {
+        Session session;
+        try {
+            session = Cassandra.getSession();
+        } catch (RuntimeException e) {
+            CompletableFuture<ResultSet> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        return executeUnloggedBatchAsync(session, statements);
+    }
+
+    /**
+     * Execute statements that write to the same partition key in one unlogged batch on a given session, e.g. of a
+     * legacy cluster.
+     * @see #executeUnloggedBatchAsync(List)
+     */
+    public static CompletableFuture<ResultSet> executeUnloggedBatchAsync(Session session,
+                                                                         List<? extends Statement> statements) {
+        if (session == null) {
+            throw new IllegalArgumentException("Session must not be null");
+        } else if (statements.isEmpty()) {
+            throw new IllegalArgumentException("No statements to batch");
+        }
+
+        BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+        ByteBuffer routingKey = null;
+        String keyspace = null;
+
+        for (Statement statement : statements) {
+            ByteBuffer stmtRoutingKey = statement.getRoutingKey(
+                    session.getCluster().getConfiguration().getProtocolOptions().getProtocolVersion(),
+                    session.getCluster().getConfiguration().getCodecRegistry());
+
+            if (stmtRoutingKey == null) {
+                throw new IllegalArgumentException("Statement has no routing key: " + statement);
+            } else if (routingKey == null) {
+                routingKey = stmtRoutingKey;
+                keyspace = statement.getKeyspace();
+            } else if (!routingKey.equals(stmtRoutingKey) || (keyspace != null &&
+                    !keyspace.equals(statement.getKeyspace()))) {
+                throw new IllegalArgumentException("Statements of an unlogged batch must share a partition");
+            }
+            batch.add(statement);
+        }
+        return executeAsyncOn(session, batch);
+    }
+
+}
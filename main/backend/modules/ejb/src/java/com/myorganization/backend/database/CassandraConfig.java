@@ -0,0 +1,127 @@
+package com.organization.backend.database;
+
+import com.organization.commons.internal.CommonsConstants;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cassandra cluster connection settings of each server environment.
+ * <p>
+ * Every setting can be overridden with a system property named {@value #PROPERTY_PREFIX} followed by the setting
+ * name, e.g. {@code -Dorganization.cassandra.contactPoints=10.0.0.1,10.0.0.2}. Times are in milliseconds.
+ */
+public enum CassandraConfig {
+    DEVELOPMENT ("127.0.0.1,127.0.0.2", 9042, "", 1, 2, 1024, 5000, 5000, 12000, 0, 0, 8),
+    PRODUCTION ("127.0.0.1,127.0.0.2", 9042, "", 2, 8, 2048, 1000, 5000, 2000, 50, 1, 32);
+
+    public static final String PROPERTY_PREFIX = "organization.cassandra.";
+
+    private final String mContactPoints;
+    private final int mPort;
+    private final String mLocalDatacenter;
+    private final int mCoreConnectionsPerHost;
+    private final int mMaxConnectionsPerHost;
+    private final int mMaxRequestsPerConnection;
+    private final int mPoolTimeout;
+    private final int mConnectTimeout;
+    private final int mReadTimeout;
+    private final long mSpeculativeExecutionDelay;
+    private final int mMaxSpeculativeExecutions;
+    private final int mMaxParallelStatements;
+
+    CassandraConfig(String contactPoints, int port, String localDatacenter, int coreConnectionsPerHost,
+                    int maxConnectionsPerHost, int maxRequestsPerConnection, int poolTimeout, int connectTimeout,
+                    int readTimeout, long speculativeExecutionDelay, int maxSpeculativeExecutions,
+                    int maxParallelStatements) {
+        mContactPoints = contactPoints;
+        mPort = port;
+        mLocalDatacenter = localDatacenter;
+        mCoreConnectionsPerHost = coreConnectionsPerHost;
+        mMaxConnectionsPerHost = maxConnectionsPerHost;
+        mMaxRequestsPerConnection = maxRequestsPerConnection;
+        mPoolTimeout = poolTimeout;
+        mConnectTimeout = connectTimeout;
+        mReadTimeout = readTimeout;
+        mSpeculativeExecutionDelay = speculativeExecutionDelay;
+        mMaxSpeculativeExecutions = maxSpeculativeExecutions;
+        mMaxParallelStatements = maxParallelStatements;
+    }
+
+    /**
+     * Get the settings of the environment the server is running in.
+     */
+    public static CassandraConfig current() {
+        return CommonsConstants.SERVER_URL == CommonsConstants.Server.PRODUCTION ? PRODUCTION : DEVELOPMENT;
+    }
+
+    /**
+     * Get the addresses of the nodes to discover the cluster from, from the comma separated "contactPoints" setting.
+     */
+    public List<String> getContactPoints() {
+        List<String> contactPoints = new ArrayList<>();
+        for (String address : System.getProperty(PROPERTY_PREFIX + "contactPoints", mContactPoints).split(",")) {
+            address = address.trim();
+            if (!address.isEmpty()) {
+                contactPoints.add(address);
+            }
+        }
+        return contactPoints;
+    }
+
+    public int getPort() { return getInt("port", mPort); }
+
+    /**
+     * Name of the datacenter the server is in, whose nodes are queried first; empty to use the datacenter of the
+     * contact points.
+     */
+    public String getLocalDatacenter() {
+        return System.getProperty(PROPERTY_PREFIX + "localDatacenter", mLocalDatacenter);
+    }
+
+    public int getCoreConnectionsPerHost() { return getInt("coreConnectionsPerHost", mCoreConnectionsPerHost); }
+    public int getMaxConnectionsPerHost() { return getInt("maxConnectionsPerHost", mMaxConnectionsPerHost); }
+
+    /**
+     * Maximum number of requests in flight on one connection to a host in the local datacenter.
+     */
+    public int getMaxRequestsPerConnection() { return getInt("maxRequestsPerConnection", mMaxRequestsPerConnection); }
+
+    /**
+     * Time a request waits for a connection when all connections to a host are busy.
+     */
+    public int getPoolTimeout() { return getInt("poolTimeout", mPoolTimeout); }
+
+    public int getConnectTimeout() { return getInt("connectTimeout", mConnectTimeout); }
+    public int getReadTimeout() { return getInt("readTimeout", mReadTimeout); }
+
+    /**
+     * Time after which an idempotent statement is also sent to the next host if the first has not replied.
+     */
+    public long getSpeculativeExecutionDelay() {
+        return Long.getLong(PROPERTY_PREFIX + "speculativeExecutionDelay", mSpeculativeExecutionDelay);
+    }
+
+    /**
+     * Maximum number of speculative executions of an idempotent statement; 0 to disable speculative execution.
+     */
+    public int getMaxSpeculativeExecutions() { return getInt("maxSpeculativeExecutions", mMaxSpeculativeExecutions); }
+
+    /**
+     * Default maximum number of statements of one {@link CassandraAsync#executeAllAsync} or
+     * {@link CassandraAsync#executeEachAsync} call in flight at a time.
+     */
+    public int getMaxParallelStatements() { return getInt("maxParallelStatements", mMaxParallelStatements); }
+
+    private static int getInt(String name, int defaultValue) {
+        return Integer.getInteger(PROPERTY_PREFIX + name, defaultValue);
+    }
+
+    @Override
+    public String toString() {
+        return name() + "{contactPoints=" + getContactPoints() + ", localDatacenter=" + getLocalDatacenter() +
+                ", connectionsPerHost=" + getCoreConnectionsPerHost() + "-" + getMaxConnectionsPerHost() +
+                ", maxRequestsPerConnection=" + getMaxRequestsPerConnection() + "}";
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.organization.backend.database;
+
+/**
+ * Live Cassandra prepared statement cache metrics, registered with JMX as
+ * {@value Cassandra.StatementCache#OBJECT_NAME}.
+ */
+public interface CassandraStatementCacheMXBean {
+
+    int getSize();
+
+    long getHitCount();
+
+    /**
+     * Number of lookups that prepared the statement or waited for another thread preparing it.
+     */
+    long getMissCount();
+
+    long getPrepareFailureCount();
+
+    long getMaxPrepareMicros();
+
+    /**
+     * Prepare time histogram; element i is the number of statements that took less than 2^i microseconds (and at
+     * least 2^(i-1)) to prepare. The last element also counts all longer prepares.
+     */
+    long[] getPrepareMicrosHistogram();
+
+    /**
+     * Approximate prepare time percentile (the upper bound of the histogram bucket it falls in).
+     * @param percentile Percentile between 0 and 100
+     */
+    long getPrepareMicrosPercentile(double percentile);
+
+}
@@ -12,6 +12,7 @@ public class DbConstants {
             private static final String SCHEMA = "authentication";
             public static final String TBL_SESSION = SCHEMA + ".session";
             public static final String TBL_USER = SCHEMA + ".user";
+            public static final String TBL_USER_TOKEN_REVOCATION = SCHEMA + ".user_token_revocation";
         }
 
         public static class USERS {
@@ -29,6 +30,29 @@ public class DbConstants {
 
         public static final String TBL_USER_VOTES = "user_votes";
         public static final String TBL_VOTES = "votes";
+        public static final String TBL_TRENDING_SECTION_WINDOWS = "trending_section_windows";
+
+        /**
+         * Statements prepared at startup when {@link Cassandra.StatementCache#PREPARE_AT_STARTUP_PROPERTY} is set.
+         */
+        public static final class Statements {
+            public static final String SELECT_USER_VOTES = "SELECT section_id,voted_at FROM " + TBL_USER_VOTES +
+                    " WHERE user_id = ?";
+            public static final String DELETE_USER_VOTES = "DELETE FROM " + TBL_USER_VOTES + " WHERE user_id = ?";
+            public static final String INSERT_USER_VOTE = "INSERT INTO " + TBL_USER_VOTES +
+                    " (user_id, section_id, voted_at) VALUES (?, ?, ?) IF NOT EXISTS";
+            public static final String DELETE_USER_VOTE = "DELETE FROM " + TBL_USER_VOTES +
+                    " WHERE user_id = ? AND section_id = ?";
+            public static final String UPDATE_VOTES = "UPDATE " + TBL_VOTES + " SET up = up + ?, down = down + ?" +
+                    " WHERE section_id = ?";
+            public static final String SELECT_TRENDING_SECTION_WINDOWS = "SELECT server_id,sections FROM " +
+                    TBL_TRENDING_SECTION_WINDOWS + " WHERE window_name = ?";
+            public static final String INSERT_TRENDING_SECTION_WINDOW = "INSERT INTO " + TBL_TRENDING_SECTION_WINDOWS +
+                    " (window_name, server_id, sections) VALUES (?, ?, ?) USING TTL ?";
+
+            public static final String[] ALL = { SELECT_USER_VOTES, DELETE_USER_VOTES, INSERT_USER_VOTE,
+                    DELETE_USER_VOTE, UPDATE_VOTES, SELECT_TRENDING_SECTION_WINDOWS, INSERT_TRENDING_SECTION_WINDOW };
+        }
     }
 
 }
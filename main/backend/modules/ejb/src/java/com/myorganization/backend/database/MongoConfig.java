@@ -0,0 +1,110 @@
+package com.organization.backend.database;
+
+import com.mongodb.ReadPreference;
+import com.organization.commons.internal.CommonsConstants;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MongoDB connection settings of each server environment.
+ * <p>
+ * Every setting can be overridden with a system property named {@value #PROPERTY_PREFIX} followed by the setting
+ * name, e.g. {@code -Dorganization.mongo.maxConnectionsPerHost=50}. Times are in milliseconds.
+ */
+public enum MongoConfig {
+    DEVELOPMENT ("127.0.0.1:27017", "primary", 10, 0, 10000, 10000, 30000, 10000, 0),
+    PRODUCTION ("127.0.0.1:27017", "primaryPreferred", 50, 5, 2000, 5000, 10000, 5000, 600000);
+
+    public static final String PROPERTY_PREFIX = "organization.mongo.";
+
+    private final String mHosts;
+    private final String mReadPreference;
+    private final int mMaxConnectionsPerHost;
+    private final int mMinConnectionsPerHost;
+    private final int mMaxWaitTime;
+    private final int mConnectTimeout;
+    private final int mSocketTimeout;
+    private final int mServerSelectionTimeout;
+    private final int mMaxConnectionIdleTime;
+
+    MongoConfig(String hosts, String readPreference, int maxConnectionsPerHost, int minConnectionsPerHost,
+                int maxWaitTime, int connectTimeout, int socketTimeout, int serverSelectionTimeout,
+                int maxConnectionIdleTime) {
+        mHosts = hosts;
+        mReadPreference = readPreference;
+        mMaxConnectionsPerHost = maxConnectionsPerHost;
+        mMinConnectionsPerHost = minConnectionsPerHost;
+        mMaxWaitTime = maxWaitTime;
+        mConnectTimeout = connectTimeout;
+        mSocketTimeout = socketTimeout;
+        mServerSelectionTimeout = serverSelectionTimeout;
+        mMaxConnectionIdleTime = maxConnectionIdleTime;
+    }
+
+    /**
+     * Get the settings of the environment the server is running in.
+     */
+    public static MongoConfig current() {
+        return CommonsConstants.SERVER_URL == CommonsConstants.Server.PRODUCTION ? PRODUCTION : DEVELOPMENT;
+    }
+
+    /**
+     * Get the addresses (host:port) of the servers to discover the deployment from, from the comma separated "hosts"
+     * setting.
+     */
+    public List<String> getHosts() {
+        List<String> hosts = new ArrayList<>();
+        for (String host : System.getProperty(PROPERTY_PREFIX + "hosts", mHosts).split(",")) {
+            host = host.trim();
+            if (!host.isEmpty()) {
+                hosts.add(host);
+            }
+        }
+        return hosts;
+    }
+
+    /**
+     * Read preference of queries, by name (e.g. "primary", "primaryPreferred", "secondaryPreferred").
+     * @throws IllegalArgumentException If the name is not a read preference
+     */
+    public ReadPreference getReadPreference() {
+        return ReadPreference.valueOf(System.getProperty(PROPERTY_PREFIX + "readPreference", mReadPreference));
+    }
+
+    public int getMaxConnectionsPerHost() { return getInt("maxConnectionsPerHost", mMaxConnectionsPerHost); }
+    public int getMinConnectionsPerHost() { return getInt("minConnectionsPerHost", mMinConnectionsPerHost); }
+
+    /**
+     * Time a request waits for a connection when all connections to a server are in use.
+     */
+    public int getMaxWaitTime() { return getInt("maxWaitTime", mMaxWaitTime); }
+
+    public int getConnectTimeout() { return getInt("connectTimeout", mConnectTimeout); }
+
+    /**
+     * Time a request waits for the reply of a server; 0 to wait indefinitely.
+     */
+    public int getSocketTimeout() { return getInt("socketTimeout", mSocketTimeout); }
+
+    /**
+     * Time a request waits for a server matching its read preference to be available.
+     */
+    public int getServerSelectionTimeout() { return getInt("serverSelectionTimeout", mServerSelectionTimeout); }
+
+    /**
+     * Time after which an idle connection is closed; 0 to keep idle connections.
+     */
+    public int getMaxConnectionIdleTime() { return getInt("maxConnectionIdleTime", mMaxConnectionIdleTime); }
+
+    private static int getInt(String name, int defaultValue) {
+        return Integer.getInteger(PROPERTY_PREFIX + name, defaultValue);
+    }
+
+    @Override
+    public String toString() {
+        return name() + "{hosts=" + getHosts() + ", readPreference=" + getReadPreference().getName() +
+                ", connectionsPerHost=" + getMinConnectionsPerHost() + "-" + getMaxConnectionsPerHost() + "}";
+    }
+
+}
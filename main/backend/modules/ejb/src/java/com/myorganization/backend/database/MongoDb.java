@@ -3,6 +3,8 @@ package com.organization.backend.database;
 import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
 import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.ServerAddress;
 import com.mongodb.WriteConcern;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
@@ -17,17 +19,89 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * MongoDb connection manager and utility class.
+ * MongoDb connection manager and utility class. One client, which pools connections to each server, is created on
+ * first use with the settings of {@link MongoConfig#current()} and shared until {@link #close()}.
  */
 public class MongoDb {
     private static final Logger LOG = LoggerFactory.getLogger(MongoDb.class);
     public static final String COLL_CONFIGURATIONS = "configurations";
 
+    private static final Object sLock = new Object();
+    private static final MongoDbMetrics sMetrics = new MongoDbMetrics();
+    private static volatile MongoClient sClient;
+    private static boolean sIsClosed;
+
     // TODO: Some methods have been commented as they use Java 8 which is not supported.
 
     public static MongoDatabase getDb() {
-        MongoClient mongoClient = new MongoClient();
-        return mongoClient.getDatabase(DbConstants.SQL.ORG_MAIN_DATABASE).withWriteConcern(WriteConcern.ACKNOWLEDGED);
+        return getClient().getDatabase(DbConstants.SQL.ORG_MAIN_DATABASE).withWriteConcern(WriteConcern.ACKNOWLEDGED);
+    }
+
+    /**
+     * Provide the MongoDB client, creating it if needed. The client connects in the background; requests wait at
+     * most the server selection timeout for a server.
+     * @throws IllegalStateException If MongoDB has been closed
+     */
+    public static MongoClient getClient() {
+        MongoClient client = sClient;
+
+        if (client == null) {
+            synchronized (sLock) {
+                if (sIsClosed) {
+                    throw new IllegalStateException("MongoDB has been closed");
+                }
+                client = sClient;
+                if (client == null) {
+                    client = connect(MongoConfig.current());
+                    sClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Close the MongoDB client and its connections; it cannot be used afterwards.
+     */
+    public static void close() {
+        MongoClient client;
+
+        synchronized (sLock) {
+            sIsClosed = true;
+            client = sClient;
+            sClient = null;
+        }
+
+        if (client != null) {
+            client.close();
+            LOG.info("MongoDB closed");
+        }
+    }
+
+    private static MongoClient connect(MongoConfig config) {
+        LOG.info("Connecting to MongoDB: {}", config);
+
+        List<ServerAddress> addresses = new ArrayList<>();
+        for (String host : config.getHosts()) {
+            addresses.add(new ServerAddress(host));
+        }
+
+        MongoClientOptions options = MongoClientOptions.builder()
+                .connectionsPerHost(config.getMaxConnectionsPerHost())
+                .minConnectionsPerHost(config.getMinConnectionsPerHost())
+                .maxWaitTime(config.getMaxWaitTime())
+                .connectTimeout(config.getConnectTimeout())
+                .socketTimeout(config.getSocketTimeout())
+                .serverSelectionTimeout(config.getServerSelectionTimeout())
+                .maxConnectionIdleTime(config.getMaxConnectionIdleTime())
+                .readPreference(config.getReadPreference())
+                .addConnectionPoolListener(sMetrics)
+                .addCommandListener(sMetrics)
+                .build();
+
+        MongoClient client = new MongoClient(addresses, options);
+        sMetrics.register();
+        return client;
     }
 
     public static MongoCollection<Document> configsCollection() {
@@ -37,7 +111,7 @@ public class MongoDb {
     public static class Insert {
 
         public static ObjectId one(Document document, String collection) {
-            MongoDb.mainCollection().insertOne(document);
+            getDb().getCollection(collection).insertOne(document);
             ObjectId objectId = (ObjectId) document.get("_id");
             if (objectId == null) {
                 LOG.error("Failed to insert document into collection \"" + collection + "\"");
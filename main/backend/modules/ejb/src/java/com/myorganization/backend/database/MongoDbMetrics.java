@@ -0,0 +1,112 @@
+package com.organization.backend.database;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.event.ConnectionAddedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListenerAdapter;
+import com.mongodb.event.ConnectionPoolWaitQueueEnteredEvent;
+import com.mongodb.event.ConnectionPoolWaitQueueExitedEvent;
+import com.mongodb.event.ConnectionRemovedEvent;
+import com.organization.backend.base.MicrosHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of the MongoDB client, recorded from the driver's connection pool and command events (see
+ * {@link MongoDb#getClient()}).
+ */
+public class MongoDbMetrics extends ConnectionPoolListenerAdapter implements CommandListener, MongoDbMetricsMXBean {
+    private static final Logger LOG = LoggerFactory.getLogger(MongoDbMetrics.class);
+    public static final String OBJECT_NAME = "com.organization.backend:type=MongoDb";
+
+    private final AtomicInteger mOpenConnections = new AtomicInteger();
+    private final AtomicInteger mCheckedOutConnections = new AtomicInteger();
+    private final AtomicInteger mPendingThreads = new AtomicInteger();
+    private final AtomicLong mFailedCommandCount = new AtomicLong();
+    private final MicrosHistogram mCommandMicros = new MicrosHistogram();
+
+    /**
+     * Register with the platform MBean server; failures are logged as metrics are not essential.
+     */
+    void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            LOG.warn("Failed to register MongoDB metrics MBean: {}", e.toString());
+        }
+    }
+
+    @Override
+    public void connectionAdded(ConnectionAddedEvent event) { mOpenConnections.incrementAndGet(); }
+
+    @Override
+    public void connectionRemoved(ConnectionRemovedEvent event) { mOpenConnections.decrementAndGet(); }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) { mCheckedOutConnections.incrementAndGet(); }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) { mCheckedOutConnections.decrementAndGet(); }
+
+    @Override
+    public void waitQueueEntered(ConnectionPoolWaitQueueEnteredEvent event) { mPendingThreads.incrementAndGet(); }
+
+    @Override
+    public void waitQueueExited(ConnectionPoolWaitQueueExitedEvent event) { mPendingThreads.decrementAndGet(); }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) { }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        mCommandMicros.record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        mFailedCommandCount.incrementAndGet();
+        mCommandMicros.record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public int getOpenConnections() { return mOpenConnections.get(); }
+
+    @Override
+    public int getCheckedOutConnections() { return mCheckedOutConnections.get(); }
+
+    @Override
+    public int getPendingThreads() { return mPendingThreads.get(); }
+
+    @Override
+    public long getCommandCount() { return mCommandMicros.getCount(); }
+
+    @Override
+    public long getFailedCommandCount() { return mFailedCommandCount.get(); }
+
+    @Override
+    public long getMaxCommandMicros() { return mCommandMicros.getMaxMicros(); }
+
+    @Override
+    public long[] getCommandMicrosHistogram() { return mCommandMicros.getBuckets(); }
+
+    @Override
+    public long getCommandMicrosPercentile(double percentile) { return mCommandMicros.getPercentileMicros(percentile); }
+
+    @Override
+    public String toString() {
+        return "MongoDB: open=" + getOpenConnections() + ", checkedOut=" + getCheckedOutConnections() + ", pending=" +
+                getPendingThreads() + ", commands=" + getCommandCount() + ", failed=" + getFailedCommandCount() +
+                ", p50=" + getCommandMicrosPercentile(50) + "us, p99=" + getCommandMicrosPercentile(99) + "us";
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.organization.backend.database;
+
+/**
+ * Live MongoDB connection pool and command metrics, registered with JMX as {@value MongoDbMetrics#OBJECT_NAME}.
+ */
+public interface MongoDbMetricsMXBean {
+
+    /**
+     * Number of open connections, over all servers.
+     */
+    int getOpenConnections();
+
+    /**
+     * Number of connections in use, over all servers.
+     */
+    int getCheckedOutConnections();
+
+    /**
+     * Number of threads waiting for a connection.
+     */
+    int getPendingThreads();
+
+    long getCommandCount();
+
+    long getFailedCommandCount();
+
+    long getMaxCommandMicros();
+
+    /**
+     * Command time histogram; element i is the number of commands that took less than 2^i microseconds (and at least
+     * 2^(i-1)). The last element also counts all longer commands.
+     */
+    long[] getCommandMicrosHistogram();
+
+    /**
+     * Approximate command time percentile (the upper bound of the histogram bucket it falls in).
+     * @param percentile Percentile between 0 and 100
+     */
+    long getCommandMicrosPercentile(double percentile);
+
+}
@@ -1,8 +1,5 @@
 package com.organization.backend.database;
 
-import com.organization.commons.internal.CommonsConstants;
-import com.zaxxer.hikari.HikariConfig;
-import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -10,15 +7,30 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * SQL manager
+ * <p>
+ * Manages a connection pool to the primary server and one to each replica (see
+ * {@link SQLPoolConfig#getReplicaUrls()}). Connections are routed by declared intent: reads that may be slightly
+ * stale go to a replica whose replication lag is under {@link SQLPoolConfig#getMaxReplicationLag()}, everything else
+ * goes to the primary. Reads fall back to the primary if no replica is usable.
  */
 public class SQLManager {
     private static final Logger LOG = LoggerFactory.getLogger(SQLManager.class);
 
-    private static HikariDataSource sDataSource = null;
-    private static final int MAX_CONNECTION_POOL_SIZE = 5;
+    private static SQLPool sPrimary = null;
+    private static final List<SQLPool> sReplicas = new ArrayList<>();
+    private static final AtomicInteger sNextReplica = new AtomicInteger();
+    private static long sMaxReplicationLag;
+    private static ScheduledExecutorService sReplicationLagChecker;
 
     static {
         boolean initializationError = false;
@@ -34,23 +46,46 @@ public class SQLManager {
         }
 
         if (!initializationError) {
-            LOG.debug("Creating SQL connection pool");
+            SQLPoolConfig poolConfig = SQLPoolConfig.current();
+            sMaxReplicationLag = poolConfig.getMaxReplicationLag();
+
+            LOG.debug("Creating SQL connection pools: {}", poolConfig);
             try {
-                HikariConfig config = new HikariConfig();
-                config.setJdbcUrl(getUrl());
-                config.setMaximumPoolSize(MAX_CONNECTION_POOL_SIZE);
-                config.addDataSourceProperty("cachePrepStmts", "true");
-                config.addDataSourceProperty("prepStmtCacheSize", "250");
-                config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-                config.addDataSourceProperty("leakDetectionThreshold", "5");
-                // setConnectionTestQuery needed to fix the following bug:
-                // "Failed to initialize pool: Method org.postgresql.jdbc4.Jdbc4Connection.isValid(int) is not yet implemented"
-                //config.setConnectionTestQuery("SELECT * FROM " + DbConstants.SQL.USERS.TBL_USER);
-                sDataSource = new HikariDataSource(config);
+                sPrimary = new SQLPool("primary", poolConfig.getUrl(), false, poolConfig);
             } catch (Exception e) {
                 LOG.error("Failed to create SQL connection pool: {}", e.toString());
                 initializationError = true;
             }
+
+            List<String> replicaUrls = poolConfig.getReplicaUrls();
+            for (int i = 0; i < replicaUrls.size(); i++) {
+                try {
+                    sReplicas.add(new SQLPool("replica-" + (i + 1), replicaUrls.get(i), true, poolConfig));
+                } catch (Exception e) {
+                    // Reads fall back to the primary, so a missing replica is not an initialization error
+                    LOG.error("Failed to create SQL replica connection pool {}: {}", replicaUrls.get(i),
+                            e.toString());
+                }
+            }
+
+            if (!sReplicas.isEmpty()) {
+                sReplicationLagChecker = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "sql-replication-lag-checker");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+                sReplicationLagChecker.scheduleWithFixedDelay(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (SQLPool replica : sReplicas) {
+                            replica.updateReplicationLag();
+                        }
+                    }
+                }, 0, poolConfig.getReplicationLagCheckInterval(), TimeUnit.MILLISECONDS);
+            }
         }
 
         if (!initializationError) {
@@ -61,41 +96,76 @@ public class SQLManager {
     }
 
     /**
-     * Create and return a connection to the PostgreSQL database.
+     * Create and return a connection to the primary PostgreSQL database. Same as
+     * {@link #getWriteConnection(boolean)}.
      * @param autoCommit Whether or not to commit each individual statement in its own transaction
      * @return SQL Connection
      * @throws SQLException if connection fails
      */
     public static Connection getConnection(boolean autoCommit) throws SQLException {
-        Connection connection = null;
-        try {
-            connection = sDataSource.getConnection();
-            connection.setAutoCommit(autoCommit);
-        } catch (SQLException e) {
-            LOG.error("Failed to get SQL connection: {}", e.toString());
-            throw e;
-        }
+        return getWriteConnection(autoCommit);
+    }
 
-        return connection;
+    /**
+     * Create and return a connection to the primary PostgreSQL database, for writes and for reads that must see the
+     * latest writes.
+     * @param autoCommit Whether or not to commit each individual statement in its own transaction
+     * @return SQL Connection
+     * @throws SQLException if connection fails
+     */
+    public static Connection getWriteConnection(boolean autoCommit) throws SQLException {
+        if (sPrimary == null) {
+            throw new SQLException("SQL connection pool not initialized");
+        }
+        return sPrimary.getConnection(autoCommit);
     }
 
     /**
-     * Get the PostgreSQL connection URL
+     * Create and return an auto-commit connection for read-only queries. The connection is to a replica if one is
+     * within the maximum replication lag, otherwise to the primary; the data read may therefore be slightly stale.
+     * A busy replica is given up on after {@link SQLPoolConfig#getReplicaConnectionTimeout()} rather than the full
+     * connection timeout, so falling back to the primary adds little latency.
+     * @return SQL Connection
+     * @throws SQLException if connection fails
      */
-    private static String getUrl() {
-        String URL;
-        String configParameters = "&useUnicode=true&characterEncoding=UTF-8&autoReconnect=true&failOverReadOnly=false" +
-                "&maxReconnects=5";
-
-        if (CommonsConstants.SERVER_URL == CommonsConstants.Server.PRODUCTION) {
-            URL = "jdbc:postgresql://127.0.0.1:5432/" + DbConstants.SQL.ORG_MAIN_DATABASE +
-                    "?user=" + DbConstants.SQL.ADMIN_DATABASE_USER + configParameters;
-        } else {
-            URL = "jdbc:postgresql://127.0.0.1:5432/" + DbConstants.SQL.ORG_MAIN_DATABASE +
-                    "?user=" + DbConstants.SQL.ADMIN_DATABASE_USER + configParameters;
+    public static Connection getReadConnection() throws SQLException {
+        int numReplicas = sReplicas.size();
+        int first = numReplicas > 0 ? (sNextReplica.getAndIncrement() & Integer.MAX_VALUE) % numReplicas : 0;
+
+        for (int i = 0; i < numReplicas; i++) {
+            SQLPool replica = sReplicas.get((first + i) % numReplicas);
+            if (replica.getReplicationLag() > sMaxReplicationLag) {
+                continue;
+            }
+
+            try {
+                return replica.getConnection(true);
+            } catch (SQLException ignored) {
+                // Logged by the pool; try the next replica or the primary
+            }
         }
+        return getWriteConnection(true);
+    }
 
-        return URL;
+    /**
+     * Get the metrics of the primary connection pool.
+     */
+    public static SQLPoolMetricsMXBean getMetrics() {
+        return sPrimary == null ? null : sPrimary.getMetrics();
+    }
+
+    /**
+     * Get the metrics of every connection pool, the primary first.
+     */
+    public static List<SQLPoolMetricsMXBean> getAllMetrics() {
+        List<SQLPoolMetricsMXBean> metrics = new ArrayList<>();
+        if (sPrimary != null) {
+            metrics.add(sPrimary.getMetrics());
+        }
+        for (SQLPool replica : sReplicas) {
+            metrics.add(replica.getMetrics());
+        }
+        return metrics;
     }
 
     public static void closeQuietly(ResultSet resultSet) {
@@ -0,0 +1,121 @@
+package com.organization.backend.database;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+
+/**
+ * A connection pool to one PostgreSQL server (the primary or a replica) and its metrics.
+ */
+class SQLPool {
+    private static final Logger LOG = LoggerFactory.getLogger(SQLPool.class);
+    static final long UNKNOWN_LAG = Long.MAX_VALUE;
+
+    private static final String REPLICA_LAG_QUERY = "SELECT CASE WHEN pg_is_in_recovery() THEN COALESCE(" +
+            "EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) ELSE 0 END";
+
+    private final String mName;
+    private final HikariDataSource mDataSource;
+    private final SQLPoolMetrics mMetrics;
+    private volatile long mReplicationLag;
+
+    /**
+     * @param name Name of the pool; used for the pool thread names and metrics
+     * @param url JDBC URL of the server
+     * @param isReadOnly Whether connections of the pool are read only
+     */
+    SQLPool(String name, String url, boolean isReadOnly, SQLPoolConfig poolConfig) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("organization-sql-" + name);
+        config.setJdbcUrl(url);
+        config.setUsername(poolConfig.getUser());
+        config.setReadOnly(isReadOnly);
+        config.setMaximumPoolSize(poolConfig.getMaximumPoolSize());
+        config.setMinimumIdle(poolConfig.getMinimumIdle());
+        // Reads fall back to the primary, so they should not wait long for a busy replica
+        config.setConnectionTimeout(isReadOnly ? poolConfig.getReplicaConnectionTimeout() :
+                poolConfig.getConnectionTimeout());
+        config.setIdleTimeout(poolConfig.getIdleTimeout());
+        config.setMaxLifetime(poolConfig.getMaxLifetime());
+        config.setLeakDetectionThreshold(poolConfig.getLeakDetectionThreshold());
+        config.setRegisterMbeans(true);
+        // PostgreSQL driver properties; the driver caches server-side prepared statements per connection
+        config.addDataSourceProperty("prepareThreshold", poolConfig.getPrepareThreshold());
+        config.addDataSourceProperty("preparedStatementCacheQueries", poolConfig.getPreparedStatementCacheQueries());
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB", poolConfig.getPreparedStatementCacheSizeMiB());
+        config.addDataSourceProperty("ApplicationName", "organization-backend");
+        // setConnectionTestQuery needed to fix the following bug:
+        // "Failed to initialize pool: Method org.postgresql.jdbc4.Jdbc4Connection.isValid(int) is not yet implemented"
+        //config.setConnectionTestQuery("SELECT * FROM " + DbConstants.SQL.USERS.TBL_USER);
+
+        mName = name;
+        mDataSource = new HikariDataSource(config);
+        mMetrics = new SQLPoolMetrics(name, mDataSource.getHikariPoolMXBean(), this);
+        mMetrics.register();
+        mReplicationLag = isReadOnly ? UNKNOWN_LAG : 0;
+    }
+
+    Connection getConnection(boolean autoCommit) throws SQLException {
+        Connection connection = null;
+        long start = System.nanoTime();
+        try {
+            connection = mDataSource.getConnection();
+            mMetrics.recordAcquire(System.nanoTime() - start);
+            connection.setAutoCommit(autoCommit);
+        } catch (SQLTransientConnectionException e) {
+            // Thrown by the pool when no connection became available within the connection timeout
+            mMetrics.recordTimeout();
+            LOG.error("Failed to get SQL connection from pool {}: Pool exhausted ({}): {}", mName, mMetrics,
+                    e.toString());
+            SQLManager.closeQuietly(connection);
+            throw e;
+        } catch (SQLException e) {
+            LOG.error("Failed to get SQL connection from pool {}: {}", mName, e.toString());
+            SQLManager.closeQuietly(connection);
+            throw e;
+        }
+
+        return connection;
+    }
+
+    /**
+     * Query how far the server replays behind the primary and store it. If the query fails the lag is set to
+     * {@link #UNKNOWN_LAG}.
+     * <p>
+     * The lag is the time since the last replayed transaction, so it overstates the lag while the primary is idle;
+     * this only causes reads to go to the primary.
+     */
+    void updateReplicationLag() {
+        try (Connection conn = mDataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet reslSet = stmt.executeQuery(REPLICA_LAG_QUERY)) {
+            mReplicationLag = reslSet.next() ? reslSet.getLong(1) : UNKNOWN_LAG;
+        } catch (SQLException e) {
+            LOG.warn("Failed to query replication lag of pool {}: {}", mName, e.toString());
+            mReplicationLag = UNKNOWN_LAG;
+        }
+    }
+
+    /**
+     * Get the replication lag in milliseconds, as of the last check.
+     */
+    long getReplicationLag() {
+        return mReplicationLag;
+    }
+
+    String getName() {
+        return mName;
+    }
+
+    SQLPoolMetrics getMetrics() {
+        return mMetrics;
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.organization.backend.database;
+
+import com.organization.commons.internal.CommonsConstants;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL connection pool settings of each server environment.
+ * <p>
+ * Every setting can be overridden with a system property named {@value #PROPERTY_PREFIX} followed by the setting
+ * name, e.g. {@code -Dorganization.sql.maximumPoolSize=20}. Times are in milliseconds.
+ */
+public enum SQLPoolConfig {
+    DEVELOPMENT ("127.0.0.1", "", 5432, 5, 1, 10000, 250, 600000, 1800000, 20000, 256, 5, 5, 10000, 5000),
+    PRODUCTION ("127.0.0.1", "", 5432, 20, 5, 5000, 250, 600000, 1800000, 0, 256, 5, 5, 2000, 1000);
+
+    public static final String PROPERTY_PREFIX = "organization.sql.";
+
+    private final String mHost;
+    private final String mReplicaHosts;
+    private final int mPort;
+    private final int mMaximumPoolSize;
+    private final int mMinimumIdle;
+    private final long mConnectionTimeout;
+    private final long mReplicaConnectionTimeout;
+    private final long mIdleTimeout;
+    private final long mMaxLifetime;
+    private final long mLeakDetectionThreshold;
+    private final int mPreparedStatementCacheQueries;
+    private final int mPreparedStatementCacheSizeMiB;
+    private final int mPrepareThreshold;
+    private final long mMaxReplicationLag;
+    private final long mReplicationLagCheckInterval;
+
+    SQLPoolConfig(String host, String replicaHosts, int port, int maximumPoolSize, int minimumIdle,
+                  long connectionTimeout, long replicaConnectionTimeout, long idleTimeout, long maxLifetime,
+                  long leakDetectionThreshold, int preparedStatementCacheQueries, int preparedStatementCacheSizeMiB,
+                  int prepareThreshold, long maxReplicationLag, long replicationLagCheckInterval) {
+        mHost = host;
+        mReplicaHosts = replicaHosts;
+        mPort = port;
+        mMaximumPoolSize = maximumPoolSize;
+        mMinimumIdle = minimumIdle;
+        mConnectionTimeout = connectionTimeout;
+        mReplicaConnectionTimeout = replicaConnectionTimeout;
+        mIdleTimeout = idleTimeout;
+        mMaxLifetime = maxLifetime;
+        mLeakDetectionThreshold = leakDetectionThreshold;
+        mPreparedStatementCacheQueries = preparedStatementCacheQueries;
+        mPreparedStatementCacheSizeMiB = preparedStatementCacheSizeMiB;
+        mPrepareThreshold = prepareThreshold;
+        mMaxReplicationLag = maxReplicationLag;
+        mReplicationLagCheckInterval = replicationLagCheckInterval;
+    }
+
+    /**
+     * Get the settings of the environment the server is running in.
+     */
+    public static SQLPoolConfig current() {
+        return CommonsConstants.SERVER_URL == CommonsConstants.Server.PRODUCTION ? PRODUCTION : DEVELOPMENT;
+    }
+
+    /**
+     * Get the PostgreSQL JDBC URL of the main database, without credentials.
+     */
+    public String getUrl() {
+        return System.getProperty(PROPERTY_PREFIX + "url", "jdbc:postgresql://" +
+                System.getProperty(PROPERTY_PREFIX + "host", mHost) + ":" + getInt("port", mPort) + "/" +
+                DbConstants.SQL.ORG_MAIN_DATABASE);
+    }
+
+    /**
+     * Get the JDBC URLs of the replicas of the main database, from the comma separated "replicaHosts" setting
+     * (host or host:port); empty if there are none.
+     */
+    public List<String> getReplicaUrls() {
+        List<String> urls = new ArrayList<>();
+        for (String host : System.getProperty(PROPERTY_PREFIX + "replicaHosts", mReplicaHosts).split(",")) {
+            host = host.trim();
+            if (!host.isEmpty()) {
+                urls.add("jdbc:postgresql://" + (host.contains(":") ? host : host + ":" + getInt("port", mPort)) +
+                        "/" + DbConstants.SQL.ORG_MAIN_DATABASE);
+            }
+        }
+        return urls;
+    }
+
+    public String getUser() {
+        return System.getProperty(PROPERTY_PREFIX + "user", DbConstants.SQL.ADMIN_DATABASE_USER);
+    }
+
+    public int getMaximumPoolSize() { return getInt("maximumPoolSize", mMaximumPoolSize); }
+    public int getMinimumIdle() { return getInt("minimumIdle", mMinimumIdle); }
+    public long getConnectionTimeout() { return getLong("connectionTimeout", mConnectionTimeout); }
+
+    /**
+     * Time to wait for a replica connection before the read falls back to the primary; at least 250.
+     */
+    public long getReplicaConnectionTimeout() {
+        return getLong("replicaConnectionTimeout", mReplicaConnectionTimeout);
+    }
+
+    public long getIdleTimeout() { return getLong("idleTimeout", mIdleTimeout); }
+    public long getMaxLifetime() { return getLong("maxLifetime", mMaxLifetime); }
+
+    /**
+     * Time a connection may be out of the pool before it is logged as a possible leak; 0 to disable.
+     */
+    public long getLeakDetectionThreshold() { return getLong("leakDetectionThreshold", mLeakDetectionThreshold); }
+
+    /**
+     * Number of queries whose server-side prepared statements each connection caches.
+     */
+    public int getPreparedStatementCacheQueries() {
+        return getInt("preparedStatementCacheQueries", mPreparedStatementCacheQueries);
+    }
+
+    public int getPreparedStatementCacheSizeMiB() {
+        return getInt("preparedStatementCacheSizeMiB", mPreparedStatementCacheSizeMiB);
+    }
+
+    /**
+     * Number of executions of a prepared statement after which the driver switches to a server-side prepared statement.
+     */
+    public int getPrepareThreshold() { return getInt("prepareThreshold", mPrepareThreshold); }
+
+    /**
+     * Replication lag above which reads are sent to the primary instead of a replica.
+     */
+    public long getMaxReplicationLag() { return getLong("maxReplicationLag", mMaxReplicationLag); }
+
+    public long getReplicationLagCheckInterval() {
+        return getLong("replicationLagCheckInterval", mReplicationLagCheckInterval);
+    }
+
+    private static int getInt(String name, int defaultValue) {
+        return Integer.getInteger(PROPERTY_PREFIX + name, defaultValue);
+    }
+
+    private static long getLong(String name, long defaultValue) {
+        return Long.getLong(PROPERTY_PREFIX + name, defaultValue);
+    }
+
+    @Override
+    public String toString() {
+        return name() + "{url=" + getUrl() + ", replicaUrls=" + getReplicaUrls() + ", maximumPoolSize=" +
+                getMaximumPoolSize() + ", minimumIdle=" + getMinimumIdle() + ", connectionTimeout=" +
+                getConnectionTimeout() + ", replicaConnectionTimeout=" + getReplicaConnectionTimeout() + "}";
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.organization.backend.database;
+
+import com.organization.backend.base.MicrosHistogram;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of the SQL connection pool. Connection counts are read live from the pool; acquire times and timeouts are
+ * recorded by {@link SQLPool#getConnection(boolean)}.
+ */
+public class SQLPoolMetrics implements SQLPoolMetricsMXBean {
+    private static final Logger LOG = LoggerFactory.getLogger(SQLPoolMetrics.class);
+    public static final String OBJECT_NAME_PREFIX = "com.organization.backend:type=SQLPool,name=";
+
+    private final String mName;
+    private final HikariPoolMXBean mPool;
+    private final SQLPool mSqlPool;
+    private final MicrosHistogram mAcquireMicros = new MicrosHistogram();
+    private final AtomicLong mTimeoutCount = new AtomicLong();
+
+    SQLPoolMetrics(String name, HikariPoolMXBean pool, SQLPool sqlPool) {
+        mName = name;
+        mPool = pool;
+        mSqlPool = sqlPool;
+    }
+
+    /**
+     * Register with the platform MBean server; failures are logged as metrics are not essential.
+     */
+    void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME_PREFIX + mName));
+        } catch (Exception e) {
+            LOG.warn("Failed to register SQL pool metrics MBean: {}", e.toString());
+        }
+    }
+
+    void recordAcquire(long nanos) {
+        mAcquireMicros.record(nanos);
+    }
+
+    void recordTimeout() {
+        mTimeoutCount.incrementAndGet();
+    }
+
+    @Override
+    public String getName() { return mName; }
+
+    @Override
+    public long getReplicationLag() { return mSqlPool.getReplicationLag(); }
+
+    @Override
+    public int getActiveConnections() { return mPool.getActiveConnections(); }
+
+    @Override
+    public int getIdleConnections() { return mPool.getIdleConnections(); }
+
+    @Override
+    public int getTotalConnections() { return mPool.getTotalConnections(); }
+
+    @Override
+    public int getPendingThreads() { return mPool.getThreadsAwaitingConnection(); }
+
+    @Override
+    public long getAcquireCount() { return mAcquireMicros.getCount(); }
+
+    @Override
+    public long getTimeoutCount() { return mTimeoutCount.get(); }
+
+    @Override
+    public long getMaxAcquireMicros() { return mAcquireMicros.getMaxMicros(); }
+
+    @Override
+    public long[] getAcquireMicrosHistogram() { return mAcquireMicros.getBuckets(); }
+
+    @Override
+    public long getAcquireMicrosPercentile(double percentile) { return mAcquireMicros.getPercentileMicros(percentile); }
+
+    @Override
+    public String toString() {
+        return mName + ": active=" + getActiveConnections() + ", idle=" + getIdleConnections() + ", pending=" +
+                getPendingThreads() + ", acquired=" + getAcquireCount() + ", timeouts=" + getTimeoutCount() +
+                ", p50=" + getAcquireMicrosPercentile(50) + "us, p99=" + getAcquireMicrosPercentile(99) + "us";
+    }
+
+}
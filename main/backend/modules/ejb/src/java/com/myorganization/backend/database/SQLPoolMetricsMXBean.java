@@ -0,0 +1,51 @@
+package com.organization.backend.database;
+
+/**
+ * Live SQL connection pool metrics, registered with JMX as
+ * {@value SQLPoolMetrics#OBJECT_NAME_PREFIX} followed by the pool name.
+ */
+public interface SQLPoolMetricsMXBean {
+
+    /**
+     * Name of the pool: "primary" or "replica-[n]".
+     */
+    String getName();
+
+    /**
+     * Replication lag in milliseconds as of the last check; 0 for the primary, {@link Long#MAX_VALUE} if unknown.
+     */
+    long getReplicationLag();
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    int getTotalConnections();
+
+    /**
+     * Number of threads waiting for a connection.
+     */
+    int getPendingThreads();
+
+    long getAcquireCount();
+
+    /**
+     * Number of acquisitions that failed because no connection became available within the connection timeout.
+     */
+    long getTimeoutCount();
+
+    long getMaxAcquireMicros();
+
+    /**
+     * Acquire time histogram; element i is the number of acquisitions that took less than 2^i microseconds (and at
+     * least 2^(i-1)). The last element also counts all longer acquisitions.
+     */
+    long[] getAcquireMicrosHistogram();
+
+    /**
+     * Approximate acquire time percentile (the upper bound of the histogram bucket it falls in).
+     * @param percentile Percentile between 0 and 100
+     */
+    long getAcquireMicrosPercentile(double percentile);
+
+}
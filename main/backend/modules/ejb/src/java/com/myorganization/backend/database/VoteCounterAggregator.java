@@ -0,0 +1,295 @@
+package com.organization.backend.database;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Statement;
+import com.organization.backend.base.MicrosHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A write-behind aggregator of the vote counters of table {@value DbConstants.CQL#TBL_VOTES}. Votes are added to
+ * in-process per-section {@link LongAdder}s, which spread concurrent votes on a popular section over cells, and the
+ * combined deltas are flushed to Cassandra every flush interval or after the flush threshold of votes, with one
+ * counter update per section, with at most {@link CassandraConfig#getMaxParallelStatements()} updates in flight. Counts
+ * in Cassandra are therefore eventually consistent.
+ * <p>
+ * When the buffer is full, votes are rejected instead of buffered, see {@link #addVote(String, boolean)}. A counter
+ * update that fails is added back to be flushed again; as counter updates are not idempotent, an update that timed
+ * out but was applied is then counted twice.
+ * <p>
+ * Settings can be overridden with system properties named {@value #PROPERTY_PREFIX} followed by the setting name.
+ */
+public class VoteCounterAggregator implements VoteCounterAggregatorMXBean {
+    private static final Logger LOG = LoggerFactory.getLogger(VoteCounterAggregator.class);
+    public static final String OBJECT_NAME = "com.organization.backend:type=VoteCounterAggregator";
+    public static final String PROPERTY_PREFIX = "organization.votes.";
+
+    private static final long FLUSH_INTERVAL = Long.getLong(PROPERTY_PREFIX + "flushInterval", 1000);
+    private static final long FLUSH_THRESHOLD = Long.getLong(PROPERTY_PREFIX + "flushThreshold", 10000);
+    private static final int MAX_PENDING_SECTIONS = Integer.getInteger(PROPERTY_PREFIX + "maxPendingSections",
+            100000);
+    private static final long MAX_PENDING_VOTES = Long.getLong(PROPERTY_PREFIX + "maxPendingVotes", 1000000);
+    private static final long FLUSH_TIMEOUT = 10000;
+
+    private static final VoteCounterAggregator sInstance = new VoteCounterAggregator();
+
+    private final ConcurrentHashMap<String, SectionDeltas> mPending = new ConcurrentHashMap<>();
+    // Sections removed from mPending in the last flush; votes added by threads that got them just before they were
+    // removed are flushed in the next flush
+    private List<Map.Entry<String, SectionDeltas>> mRemoved = new ArrayList<>();
+    private final LongAdder mPendingVotes = new LongAdder();
+    private final AtomicLong mRejectedVotes = new AtomicLong();
+    private final AtomicLong mFlushCount = new AtomicLong();
+    private final AtomicLong mFailedUpdateCount = new AtomicLong();
+    private final MicrosHistogram mFlushMicros = new MicrosHistogram();
+    private final AtomicBoolean mIsThresholdFlushQueued = new AtomicBoolean();
+    private final ScheduledExecutorService mFlusher;
+    private final Runnable mFlushTask = new Runnable() {
+        @Override
+        public void run() {
+            mIsThresholdFlushQueued.set(false);
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                LOG.error("Failed to flush vote counters: {}", e.toString());
+            }
+        }
+    };
+    private volatile boolean mIsClosed;
+
+    private VoteCounterAggregator() {
+        mFlusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "vote-counter-flusher");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        mFlusher.scheduleWithFixedDelay(mFlushTask, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            LOG.warn("Failed to register vote counter aggregator metrics MBean: {}", e.toString());
+        }
+    }
+
+    public static VoteCounterAggregator get() {
+        return sInstance;
+    }
+
+    /**
+     * Add a vote to be flushed.
+     * @param isUp Whether it is an up vote; otherwise it is a down vote
+     * @return False if the vote was rejected because the buffer is full (too many votes or sections pending) or the
+     * aggregator has been closed; the caller should then ask the client to retry later
+     */
+    public boolean addVote(String sectionId, boolean isUp) {
+        if (mIsClosed || mPendingVotes.sum() >= MAX_PENDING_VOTES) {
+            mRejectedVotes.incrementAndGet();
+            return false;
+        }
+
+        SectionDeltas deltas = mPending.get(sectionId);
+        if (deltas == null) {
+            if (mPending.size() >= MAX_PENDING_SECTIONS) {
+                mRejectedVotes.incrementAndGet();
+                return false;
+            }
+            SectionDeltas newDeltas = new SectionDeltas();
+            deltas = mPending.putIfAbsent(sectionId, newDeltas);
+            if (deltas == null) {
+                deltas = newDeltas;
+            }
+        }
+
+        (isUp ? deltas.mUp : deltas.mDown).increment();
+        mPendingVotes.increment();
+
+        if (mPendingVotes.sum() >= FLUSH_THRESHOLD && mIsThresholdFlushQueued.compareAndSet(false, true)) {
+            try {
+                mFlusher.execute(mFlushTask);
+            } catch (RejectedExecutionException e) {
+                // Closed; the final flush includes this vote
+                mIsThresholdFlushQueued.set(false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stop flushing periodically and flush all pending votes, waiting for the counter updates to complete. Votes
+     * added afterwards are rejected.
+     */
+    public void close() {
+        mIsClosed = true;
+        mFlusher.shutdown();
+        try {
+            if (!mFlusher.awaitTermination(FLUSH_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                LOG.warn("Vote counter flush still running after {} ms", FLUSH_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Twice, so that votes added to sections removed in the first flush are also flushed
+        flush();
+        flush();
+        LOG.info("Vote counter aggregator closed; {} votes not flushed", mPendingVotes.sum());
+    }
+
+    /**
+     * Flush the pending deltas. Only called by the flusher thread, or once it has terminated.
+     */
+    private synchronized void flush() {
+        long start = System.nanoTime();
+        List<String> sectionIds = new ArrayList<>();
+        List<long[]> sectionDeltas = new ArrayList<>();
+
+        for (Map.Entry<String, SectionDeltas> entry : mRemoved) {
+            drain(entry.getKey(), entry.getValue(), sectionIds, sectionDeltas);
+        }
+        mRemoved = new ArrayList<>();
+
+        Iterator<Map.Entry<String, SectionDeltas>> it = mPending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, SectionDeltas> entry = it.next();
+
+            if (!drain(entry.getKey(), entry.getValue(), sectionIds, sectionDeltas) &&
+                    ++entry.getValue().mNumIdleFlushes >= 2) {
+                // Remove sections without votes for two flushes to bound the memory used
+                it.remove();
+                mRemoved.add(entry);
+            }
+        }
+
+        if (sectionIds.isEmpty()) return;
+
+        List<Statement> stmts = new ArrayList<>(sectionIds.size());
+        try {
+            for (int i = 0; i < sectionIds.size(); i++) {
+                long[] deltas = sectionDeltas.get(i);
+                stmts.add(Cassandra.StatementCache.getStatement(DbConstants.CQL.Statements.UPDATE_VOTES).bind(
+                        deltas[0], deltas[1], sectionIds.get(i)));
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Failed to prepare vote counter update: {}", e.toString());
+            addBack(sectionIds, sectionDeltas, 0, sectionIds.size());
+            return;
+        }
+
+        // At most maxParallelStatements updates are in flight, so that a flush of many sections does not exhaust the
+        // connection pool; each update has its own outcome so that only failed updates are added back
+        List<CompletableFuture<ResultSet>> futures = CassandraAsync.executeEachAsync(stmts,
+                CassandraConfig.current().getMaxParallelStatements());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_TIMEOUT);
+
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                // Updates not started yet are skipped; an update in flight may still be applied
+                futures.get(i).cancel(true);
+                mFailedUpdateCount.incrementAndGet();
+                LOG.warn("Failed to update vote counters of section {}: {}", sectionIds.get(i), e.toString());
+                addBack(sectionIds, sectionDeltas, i, i + 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (int j = i; j < futures.size(); j++) {
+                    futures.get(j).cancel(true);
+                }
+                addBack(sectionIds, sectionDeltas, i, sectionIds.size());
+                break;
+            }
+        }
+
+        mFlushCount.incrementAndGet();
+        mFlushMicros.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Take the votes of a section, leaving votes added concurrently for the next flush.
+     * @return Whether the section had votes
+     */
+    private boolean drain(String sectionId, SectionDeltas deltas, List<String> sectionIds,
+                          List<long[]> sectionDeltas) {
+        long up = deltas.mUp.sum();
+        long down = deltas.mDown.sum();
+        if (up == 0 && down == 0) return false;
+
+        deltas.mUp.add(-up);
+        deltas.mDown.add(-down);
+        deltas.mNumIdleFlushes = 0;
+        mPendingVotes.add(-(up + down));
+
+        sectionIds.add(sectionId);
+        sectionDeltas.add(new long[] { up, down });
+        return true;
+    }
+
+    private void addBack(List<String> sectionIds, List<long[]> sectionDeltas, int from, int to) {
+        for (int i = from; i < to; i++) {
+            SectionDeltas newDeltas = new SectionDeltas();
+            SectionDeltas deltas = mPending.putIfAbsent(sectionIds.get(i), newDeltas);
+            if (deltas == null) {
+                deltas = newDeltas;
+            }
+
+            long[] failedDeltas = sectionDeltas.get(i);
+            deltas.mUp.add(failedDeltas[0]);
+            deltas.mDown.add(failedDeltas[1]);
+            mPendingVotes.add(failedDeltas[0] + failedDeltas[1]);
+        }
+    }
+
+    @Override
+    public int getPendingSections() { return mPending.size(); }
+
+    @Override
+    public long getPendingVotes() { return mPendingVotes.sum(); }
+
+    @Override
+    public long getRejectedVotes() { return mRejectedVotes.get(); }
+
+    @Override
+    public long getFlushCount() { return mFlushCount.get(); }
+
+    @Override
+    public long getFailedUpdateCount() { return mFailedUpdateCount.get(); }
+
+    @Override
+    public long getMaxFlushMicros() { return mFlushMicros.getMaxMicros(); }
+
+    @Override
+    public long[] getFlushMicrosHistogram() { return mFlushMicros.getBuckets(); }
+
+    @Override
+    public long getFlushMicrosPercentile(double percentile) { return mFlushMicros.getPercentileMicros(percentile); }
+
+    private static class SectionDeltas {
+        final LongAdder mUp = new LongAdder();
+        final LongAdder mDown = new LongAdder();
+        int mNumIdleFlushes; // Only accessed while flushing
+    }
+
+}
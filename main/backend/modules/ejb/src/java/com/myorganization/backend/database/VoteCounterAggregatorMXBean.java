@@ -0,0 +1,45 @@
+package com.organization.backend.database;
+
+/**
+ * Live vote counter aggregator metrics, registered with JMX as {@value VoteCounterAggregator#OBJECT_NAME}.
+ */
+public interface VoteCounterAggregatorMXBean {
+
+    /**
+     * Number of sections with votes that have not been flushed (or were flushed with no votes recently).
+     */
+    int getPendingSections();
+
+    /**
+     * Number of votes recorded that have not been flushed.
+     */
+    long getPendingVotes();
+
+    /**
+     * Number of votes rejected because the buffer was full.
+     */
+    long getRejectedVotes();
+
+    long getFlushCount();
+
+    /**
+     * Number of counter updates that failed; their deltas are added back to be flushed again.
+     */
+    long getFailedUpdateCount();
+
+    long getMaxFlushMicros();
+
+    /**
+     * Flush time histogram; element i is the number of flushes that took less than 2^i microseconds (and at least
+     * 2^(i-1)), including the time until all counter updates completed. The last element also counts all longer
+     * flushes.
+     */
+    long[] getFlushMicrosHistogram();
+
+    /**
+     * Approximate flush time percentile (the upper bound of the histogram bucket it falls in).
+     * @param percentile Percentile between 0 and 100
+     */
+    long getFlushMicrosPercentile(double percentile);
+
+}
@@ -3,9 +3,10 @@ package com.fencedin.backend.rest;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.exceptions.NoHostAvailableException;
-import com.fencedin.backend.authentication.EndpointAuthenticationUtils;
-import com.fencedin.backend.authentication.UserAuthentication;
+import com.organization.backend.authentication.EndpointAuthenticationUtils;
+import com.organization.backend.authentication.UserAuthentication;
 import com.fencedin.backend.database.CQLManager;
+import com.organization.backend.database.CassandraAsync;
 import com.fencedin.backend.database.DbConstants;
 import com.fencedin.backend.database.SQLManager;
 import com.fencedin.commons.base.*;
@@ -27,8 +28,15 @@ import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 import static com.fencedin.backend.rest.ClientFatalEndpointsRequestError.TYPE.*;
 import static com.fencedin.backend.rest.ServerFatalEndpointsRequestError.TYPE.DATABASE_TRANSACTION;
@@ -44,6 +52,8 @@ public class UsersEndpoint {
      * The user minimum log out-log in interval
      */
     private static final int USER_MINIMUM_LOG_OUT_LOG_IN_INTERVAL = 6500;
+    private static final long USER_LOG_IN_DATA_CQL_TIMEOUT = 5000;
+    private static final long REMOVE_USER_CQL_TIMEOUT = 10000;
 
     /**
      * A type of a user identity entity.
@@ -309,12 +319,34 @@ public class UsersEndpoint {
     private static JSONObject executeUserLogInDataQueriesAndCreateUserLogInDataJson(Connection connection,
                                                                                     JSONObject userJsonObject)
             throws SQLException, NoHostAvailableException, IllegalStateException {
-        long userId = userJsonObject.getLong("id");
+        final long userId = userJsonObject.getLong("id");
 
         PreparedStatement prepStmt = null;
         ResultSet reslSet = null;
         JSONObject newRootJsonObje = new JSONObject();
 
+        // The CQL queries do not depend on the SQL queries; start them first so both run at the same time. The votes
+        // query needs the suite IDs, so it is started as soon as they are read, while the SQL queries may still run.
+        final Session sess = CQLManager.getSession();
+        final CompletableFuture<com.datastax.driver.core.ResultSet> suiteIdsFutr = CassandraAsync.executeAsync(sess,
+                CQLManager.StatementCache.getStatement("SELECT suite_id FROM " +
+                        DbConstants.CQL.Tables.USER_RECENT_SUITE_VOTES + " WHERE user_id = ?").bind(userId));
+        // Reading the rows may fetch more pages, which must not be done on a driver I/O thread
+        CompletableFuture<com.datastax.driver.core.ResultSet> votesFutr = suiteIdsFutr.thenComposeAsync(
+                new Function<com.datastax.driver.core.ResultSet,
+                        CompletionStage<com.datastax.driver.core.ResultSet>>() {
+                    @Override
+                    public CompletionStage<com.datastax.driver.core.ResultSet> apply(
+                            com.datastax.driver.core.ResultSet suiteIdsReslSet) {
+                        List<String> suiteIdList = CQLUtils.RowUtils.extractColumnUniqueValuesFromRows("suite_id",
+                                String.class, suiteIdsReslSet.all());
+                        return CassandraAsync.executeAsync(sess, CQLManager.StatementCache.getStatement(
+                                "SELECT suite_id,voted_at FROM " + DbConstants.CQL.Tables.USER_RECENT_SUITE_VOTES +
+                                " WHERE user_id = ? AND suite_id IN ? AND voted_at > ?").bind(userId, suiteIdList,
+                                new Timestamp(System.currentTimeMillis() - (Times.TWENTY_FOUR_HOURS * 365L))));
+                    }
+                });
+
         try {
             prepStmt = connection.prepareStatement("UPDATE " + DbConstants.SQL.USERS.TBL_USER_LOG +
                     " SET logged_in_at = '" + DateUtils.toIso8601(new Date()) +
@@ -333,24 +365,16 @@ public class UsersEndpoint {
             JsonUtils.FormattingUtils.formatKeysToCamelCase(userActvJsonObje); // TODO: make function return json
 
             newRootJsonObje.put("userActivity", userActvJsonObje);
+        } catch (SQLException e) {
+            suiteIdsFutr.cancel(true);
+            votesFutr.cancel(true);
+            throw e;
         } finally {
             SQLManager.closeQuietly(reslSet);
             SQLManager.closeQuietly(prepStmt);
         }
 
-        Session sess = CQLManager.getSession();
-
-        com.datastax.driver.core.ResultSet cqlReslSet = sess.execute(CQLManager.StatementCache.getStatement(
-                "SELECT suite_id FROM " + DbConstants.CQL.Tables.USER_RECENT_SUITE_VOTES +
-                        " WHERE user_id = ?").bind(userId));
-
-        List<String> suiteIdList = CQLUtils.RowUtils.extractColumnUniqueValuesFromRows("suite_id",
-                String.class, cqlReslSet.all());
-
-        cqlReslSet = sess.execute(CQLManager.StatementCache.getStatement("SELECT suite_id,voted_at FROM " +
-                DbConstants.CQL.Tables.USER_RECENT_SUITE_VOTES +
-                " WHERE user_id = ? AND suite_id IN ? AND voted_at > ?").bind(userId, suiteIdList, new Timestamp(
-                        System.currentTimeMillis() - (Times.TWENTY_FOUR_HOURS * 365L))));
+        com.datastax.driver.core.ResultSet cqlReslSet = getCqlResultSet(suiteIdsFutr, votesFutr);
         if (cqlReslSet == null) {
             throw new IllegalStateException(
                     "Failed to execute query in executeUserLogInDataQueriesAndCreateUserLogInDataJson(): ResultSet" +
@@ -370,6 +394,37 @@ public class UsersEndpoint {
         return newRootJsonObje;
     }
 
+    /**
+     * Wait for the CQL queries of the user log in data queries; they are cancelled if they do not complete within
+     * {@link #USER_LOG_IN_DATA_CQL_TIMEOUT}.
+     * @param firstFuture Future of the first query, which the result depends on
+     * @param future Future of the result
+     * @throws NoHostAvailableException If no Cassandra host could be connected to
+     * @throws IllegalStateException If a query failed or timed out
+     */
+    private static com.datastax.driver.core.ResultSet getCqlResultSet(
+            CompletableFuture<com.datastax.driver.core.ResultSet> firstFuture,
+            CompletableFuture<com.datastax.driver.core.ResultSet> future) {
+        try {
+            return future.get(USER_LOG_IN_DATA_CQL_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            firstFuture.cancel(true);
+            future.cancel(true);
+            throw new IllegalStateException("CQL query of user log in data timed out after " +
+                    USER_LOG_IN_DATA_CQL_TIMEOUT + " ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof NoHostAvailableException) {
+                throw (NoHostAvailableException) e.getCause();
+            }
+            throw new IllegalStateException("CQL query of user log in data failed: " + e.getCause(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            firstFuture.cancel(true);
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while waiting for CQL query of user log in data");
+        }
+    }
+
     /**
      * Finalize the log in query JSON.
      * @param userJsonObje Row JSON of user account.
@@ -394,7 +449,7 @@ public class UsersEndpoint {
         ResultSet reslSet = null;
 
         if (connection == null) {
-            usedConn = SQLManager.getConnection(true);
+            usedConn = SQLManager.getReadConnection();
         }
 
         String selcClauseColms;
@@ -439,7 +494,7 @@ public class UsersEndpoint {
         ResultSet reslSet = null;
 
         if (connection == null) {
-            usedConn = SQLManager.getConnection(true);
+            usedConn = SQLManager.getReadConnection();
         }
 
         try (PreparedStatement prepStmt = usedConn.prepareStatement("SELECT row_to_json(sq) FROM (SELECT * FROM " +
@@ -489,6 +544,7 @@ public class UsersEndpoint {
                     " SET logged_out_at = '" + DateUtils.toIso8601(new Date()) + "' WHERE user_id = ?");
             prepStmt.setLong(1, userId);
             prepStmt.executeUpdate();
+            UserAuthentication.revokeTokens(userId, conn);
         } catch (SQLException e) {
             return EndpointsResponseProcessor.createResponseFromCommonResponseBody(
                     EndpointsResponseProcessor.processAndCreateCommonResponseBodyForServerFatalEndpointsRequestError(
@@ -1165,6 +1221,7 @@ public class UsersEndpoint {
                     " WHERE id = ?");
             prepStmt.setLong(1, userId);
             prepStmt.executeUpdate();
+            UserAuthentication.revokeTokens(userId, conn);
 
             conn.commit();
         } catch (SQLException e) {
@@ -1177,35 +1234,48 @@ public class UsersEndpoint {
         }
 
         try {
+            // Statements of CQLManager are prepared on its own session, so they must be executed on it
             Session sess = CQLManager.getSession();
 
-            sess.execute(CQLManager.StatementCache.getStatement("DELETE FROM " +
-                    DbConstants.CQL.Tables.USER_AUTHENTICATION_KEYS + " WHERE user_id = ?").bind(userId));
-
-            sess.execute(CQLManager.StatementCache.getStatement("DELETE FROM " +
-                    DbConstants.CQL.Tables.USER_RECENT_SUITE_VOTES + " WHERE user_id = ?").bind(userId));
-
-            com.datastax.driver.core.ResultSet cqlReslSet = sess.execute(CQLManager.StatementCache.getStatement(
-                    "SELECT suite_id FROM " + DbConstants.CQL.Tables.USER_VOTED_SUITES + " WHERE user_id = ?").bind(
-                    userId));
+            com.datastax.driver.core.ResultSet cqlReslSet = CassandraAsync.executeAsync(sess,
+                    CQLManager.StatementCache.getStatement("SELECT suite_id FROM " +
+                            DbConstants.CQL.Tables.USER_VOTED_SUITES + " WHERE user_id = ?").bind(userId))
+                    .get(REMOVE_USER_CQL_TIMEOUT, TimeUnit.MILLISECONDS);
 
             List<String> suiteIdList = CQLUtils.RowUtils.extractColumnUniqueValuesFromRows("suite_id",
                     String.class, cqlReslSet.all());
 
-            sess.execute(CQLManager.StatementCache.getStatement("DELETE FROM " +
-                    DbConstants.CQL.Tables.SUITE_VOTED_USERS + " WHERE suite_id IN ? AND user_id = ?").bind(suiteIdList,
-                    userId));
-
-            sess.execute(CQLManager.StatementCache.getStatement("DELETE FROM " +
-                    DbConstants.CQL.Tables.USER_VOTED_SUITES + " WHERE user_id = ?").bind(userId));
-
-            sess.execute(CQLManager.StatementCache.getStatement("DELETE FROM " +
-                    DbConstants.CQL.Tables.USER_RECENT_SUITE_CONNECTIONS + " WHERE user_id = ?").bind(userId));
-        } catch (NoHostAvailableException e) {
+            // The tables partitioned by user ID are deleted from in one unlogged batch, a single request to the
+            // replicas of the user; the suite partitions the user voted in are deleted from at the same time
+            List<com.datastax.driver.core.Statement> userDels = Arrays.<com.datastax.driver.core.Statement>asList(
+                    CQLManager.StatementCache.getStatement("DELETE FROM " +
+                            DbConstants.CQL.Tables.USER_AUTHENTICATION_KEYS + " WHERE user_id = ?").bind(userId),
+                    CQLManager.StatementCache.getStatement("DELETE FROM " +
+                            DbConstants.CQL.Tables.USER_RECENT_SUITE_VOTES + " WHERE user_id = ?").bind(userId),
+                    CQLManager.StatementCache.getStatement("DELETE FROM " +
+                            DbConstants.CQL.Tables.USER_RECENT_SUITE_CONNECTIONS + " WHERE user_id = ?").bind(userId),
+                    CQLManager.StatementCache.getStatement("DELETE FROM " +
+                            DbConstants.CQL.Tables.USER_VOTED_SUITES + " WHERE user_id = ?").bind(userId));
+            CompletableFuture<com.datastax.driver.core.ResultSet> userDelsFutr =
+                    CassandraAsync.executeUnloggedBatchAsync(sess, userDels);
+
+            if (!suiteIdList.isEmpty()) {
+                CassandraAsync.executeAsync(sess, CQLManager.StatementCache.getStatement("DELETE FROM " +
+                        DbConstants.CQL.Tables.SUITE_VOTED_USERS + " WHERE suite_id IN ? AND user_id = ?").bind(
+                        suiteIdList, userId)).get(REMOVE_USER_CQL_TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+            userDelsFutr.get(REMOVE_USER_CQL_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException | NoHostAvailableException e) {
             return EndpointsResponseProcessor.createResponseFromCommonResponseBody(
                     EndpointsResponseProcessor.processAndCreateCommonResponseBodyForServerFatalEndpointsRequestError(
                             new ServerFatalEndpointsRequestError(DATABASE_TRANSACTION,
                                     "Failed to execute query in removeUserRequest(): {}", e.toString())));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EndpointsResponseProcessor.createResponseFromCommonResponseBody(
+                    EndpointsResponseProcessor.processAndCreateCommonResponseBodyForServerFatalEndpointsRequestError(
+                            new ServerFatalEndpointsRequestError(ILLEGAL_STATE,
+                                    "Interrupted in removeUserRequest()")));
         }
         return EndpointsResponseProcessor.createResponseWithEmptyBodyAndStatusOk();
     }
@@ -1424,7 +1494,7 @@ public class UsersEndpoint {
         PreparedStatement prepStmt = null;
         ResultSet reslSet = null;
 
-        try (Connection conn = SQLManager.getConnection(true)) {
+        try (Connection conn = SQLManager.getReadConnection()) {
             prepStmt = conn.prepareStatement("SELECT id FROM " + DbConstants.SQL.USERS.TBL_USER +
                     " WHERE country_code = ? AND phone_number = ?");
             prepStmt.setInt(1, countryCode);
@@ -1478,7 +1548,7 @@ public class UsersEndpoint {
         PreparedStatement prepStmt = null;
         ResultSet reslSet = null;
 
-        try (Connection conn = SQLManager.getConnection(true)) {
+        try (Connection conn = SQLManager.getReadConnection()) {
             prepStmt = conn.prepareStatement("SELECT id FROM " + DbConstants.SQL.USERS.TBL_USER + " WHERE " +
                     column + " = ?");
             prepStmt.setString(1, value);
@@ -18,6 +18,8 @@ import java.util.List;
 
 public class BsonUtil {
     private static final Logger LOG = LoggerFactory.getLogger(BsonUtil.class);
+    private static final ObjectMapper BSON_OBJECT_MAPPER = new ObjectMapper(new BsonFactory())
+            .registerModule(new BsonModule());
 
     // TODO: This class is not fully finished; implementations need to still use binary
     // TODO: instead of, e.g., looping through a list and parsing to a BsonArray
@@ -56,10 +58,8 @@ public class BsonUtil {
      */
     private static byte[] createRawByteArray(List list) {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ObjectMapper mapper = new ObjectMapper(new BsonFactory());
-        mapper.registerModule(new BsonModule());
         try {
-            mapper.writeValue(baos, list);
+            BSON_OBJECT_MAPPER.writeValue(baos, list);
         } catch (IOException e) {
             LOG.error("Failed to create raw byte array from list: {}", e.toString());
         }
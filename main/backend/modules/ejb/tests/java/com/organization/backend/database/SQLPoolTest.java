@@ -0,0 +1,264 @@
+package com.organization.backend.database;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Pool starvation tests of {@link SQLPool}, run against an in-process JDBC driver whose connections do nothing, so no
+ * database is needed.
+ */
+public class SQLPoolTest {
+    private static final String URL = "jdbc:organization-test:pool";
+    private static final int MAXIMUM_POOL_SIZE = 2;
+    private static final long CONNECTION_TIMEOUT = 250; // Minimum allowed by the pool
+    private static final AtomicInteger sPoolCount = new AtomicInteger();
+    private static final Driver sDriver = new NoOpDriver();
+
+    private final List<Connection> mConnections = new ArrayList<>();
+
+    @BeforeClass
+    public static void registerDriver() throws SQLException {
+        DriverManager.registerDriver(sDriver);
+    }
+
+    @AfterClass
+    public static void deregisterDriver() throws SQLException {
+        DriverManager.deregisterDriver(sDriver);
+    }
+
+    @Before
+    public void setUp() {
+        System.setProperty(SQLPoolConfig.PROPERTY_PREFIX + "maximumPoolSize", String.valueOf(MAXIMUM_POOL_SIZE));
+        System.setProperty(SQLPoolConfig.PROPERTY_PREFIX + "minimumIdle", "0");
+        System.setProperty(SQLPoolConfig.PROPERTY_PREFIX + "connectionTimeout", String.valueOf(CONNECTION_TIMEOUT));
+    }
+
+    @After
+    public void tearDown() {
+        for (Connection connection : mConnections) {
+            SQLManager.closeQuietly(connection);
+        }
+        System.clearProperty(SQLPoolConfig.PROPERTY_PREFIX + "maximumPoolSize");
+        System.clearProperty(SQLPoolConfig.PROPERTY_PREFIX + "minimumIdle");
+        System.clearProperty(SQLPoolConfig.PROPERTY_PREFIX + "connectionTimeout");
+        System.clearProperty(SQLPoolConfig.PROPERTY_PREFIX + "replicaConnectionTimeout");
+    }
+
+    @Test
+    public void shouldTimeOutWhenPoolExhausted() throws SQLException {
+        SQLPool pool = createPool();
+        borrowAll(pool);
+
+        long start = System.nanoTime();
+        try {
+            pool.getConnection(true);
+            Assert.fail("Connection borrowed from an exhausted pool");
+        } catch (SQLTransientConnectionException expected) {
+            long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Assert.assertTrue("Waited " + waitedMillis + " ms", waitedMillis >= CONNECTION_TIMEOUT - 10);
+            Assert.assertTrue("Waited " + waitedMillis + " ms", waitedMillis < CONNECTION_TIMEOUT * 8);
+        }
+
+        Assert.assertEquals(1, pool.getMetrics().getTimeoutCount());
+        Assert.assertEquals(MAXIMUM_POOL_SIZE, pool.getMetrics().getAcquireCount());
+        Assert.assertEquals(MAXIMUM_POOL_SIZE, pool.getMetrics().getActiveConnections());
+    }
+
+    @Test
+    public void shouldTimeOutReplicaAfterReplicaConnectionTimeout() throws SQLException {
+        System.setProperty(SQLPoolConfig.PROPERTY_PREFIX + "connectionTimeout", "5000");
+        System.setProperty(SQLPoolConfig.PROPERTY_PREFIX + "replicaConnectionTimeout", String.valueOf(
+                CONNECTION_TIMEOUT));
+        SQLPool replica = createPool(true);
+        borrowAll(replica);
+
+        long start = System.nanoTime();
+        try {
+            replica.getConnection(true);
+            Assert.fail("Connection borrowed from an exhausted pool");
+        } catch (SQLTransientConnectionException expected) {
+            long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Assert.assertTrue("Waited " + waitedMillis + " ms", waitedMillis < CONNECTION_TIMEOUT * 8);
+        }
+    }
+
+    @Test
+    public void shouldServeWaitingThreadWhenConnectionReturned() throws Exception {
+        System.setProperty(SQLPoolConfig.PROPERTY_PREFIX + "connectionTimeout", "5000");
+        final SQLPool pool = createPool();
+        borrowAll(pool);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Connection> waiting = executor.submit(new Callable<Connection>() {
+                @Override
+                public Connection call() throws SQLException {
+                    return pool.getConnection(true);
+                }
+            });
+
+            Thread.sleep(100);
+            Assert.assertFalse(waiting.isDone());
+            mConnections.remove(0).close();
+
+            mConnections.add(waiting.get(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(0, pool.getMetrics().getTimeoutCount());
+        Assert.assertEquals(MAXIMUM_POOL_SIZE + 1, pool.getMetrics().getAcquireCount());
+    }
+
+    @Test
+    public void shouldNotLeakConnectionsUnderContention() throws Exception {
+        final SQLPool pool = createPool();
+        int numThreads = MAXIMUM_POOL_SIZE * 8;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < numThreads; i++) {
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() {
+                        int timeouts = 0;
+                        for (int j = 0; j < 50; j++) {
+                            try (Connection ignored = pool.getConnection(true)) {
+                                Thread.sleep(1);
+                            } catch (SQLTransientConnectionException e) {
+                                timeouts++;
+                            } catch (SQLException | InterruptedException e) {
+                                throw new IllegalStateException(e);
+                            }
+                        }
+                        return timeouts;
+                    }
+                }));
+            }
+
+            long timeouts = 0;
+            for (Future<Integer> future : futures) {
+                timeouts += future.get(60, TimeUnit.SECONDS);
+            }
+            Assert.assertEquals(timeouts, pool.getMetrics().getTimeoutCount());
+            Assert.assertEquals(numThreads * 50 - timeouts, pool.getMetrics().getAcquireCount());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(0, pool.getMetrics().getActiveConnections());
+        Assert.assertEquals(0, pool.getMetrics().getPendingThreads());
+    }
+
+    private SQLPool createPool() {
+        return createPool(false);
+    }
+
+    private SQLPool createPool(boolean isReadOnly) {
+        return new SQLPool("test-" + sPoolCount.incrementAndGet(), URL, isReadOnly, SQLPoolConfig.DEVELOPMENT);
+    }
+
+    private void borrowAll(SQLPool pool) throws SQLException {
+        for (int i = 0; i < MAXIMUM_POOL_SIZE; i++) {
+            mConnections.add(pool.getConnection(true));
+        }
+    }
+
+    /**
+     * JDBC driver for {@link #URL} whose connections are always valid and ignore every call.
+     */
+    private static final class NoOpDriver implements Driver {
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new InvocationHandler() {
+                        private boolean mAutoCommit = true;
+                        private boolean mClosed;
+
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            switch (method.getName()) {
+                                case "isValid": return !mClosed;
+                                case "isClosed": return mClosed;
+                                case "close": mClosed = true; return null;
+                                case "getAutoCommit": return mAutoCommit;
+                                case "setAutoCommit": mAutoCommit = (Boolean) args[0]; return null;
+                                case "getTransactionIsolation": return Connection.TRANSACTION_READ_COMMITTED;
+                                case "isWrapperFor": return false;
+                                case "hashCode": return System.identityHashCode(proxy);
+                                case "equals": return proxy == args[0];
+                                case "toString": return "NoOpConnection";
+                            }
+
+                            Class<?> type = method.getReturnType();
+                            if (type == boolean.class) return false;
+                            if (type == int.class) return 0;
+                            if (type == long.class) return 0L;
+                            return null;
+                        }
+                    });
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url != null && url.startsWith(URL);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+
+}
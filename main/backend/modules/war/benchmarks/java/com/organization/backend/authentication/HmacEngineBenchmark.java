@@ -0,0 +1,65 @@
+package com.organization.backend.authentication;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Session token validations per second at 1, 8 and 32 threads, and the HMAC alone.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HmacEngineBenchmark {
+    private static final String IP_ADDRESS = "203.0.113.7";
+
+    private String mToken;
+    private byte[] mKey;
+    private byte[] mMessage;
+    private byte[] mMac;
+
+    @Setup
+    public void setUp() {
+        JSONObject respJson = SessionAuthentication.createInitialTokenSessionDataResponseJson();
+        mToken = respJson.getString("session");
+        mKey = SessionAuthentication.extractKeyFromClientSessionToken(mToken);
+        mMessage = "{\"tknHashCookie\":\"AAECAwQFBgc=\"}".getBytes(StandardCharsets.US_ASCII);
+        mMac = HmacEngine.get().init(mKey).update(mMessage, 0, mMessage.length).doFinal();
+    }
+
+    @Benchmark @Threads(1)
+    public boolean validateSessionToken1Thread() {
+        return SessionAuthentication.isClientInitialTokenAndIpValid(mToken, IP_ADDRESS);
+    }
+
+    @Benchmark @Threads(8)
+    public boolean validateSessionToken8Threads() {
+        return SessionAuthentication.isClientInitialTokenAndIpValid(mToken, IP_ADDRESS);
+    }
+
+    @Benchmark @Threads(32)
+    public boolean validateSessionToken32Threads() {
+        return SessionAuthentication.isClientInitialTokenAndIpValid(mToken, IP_ADDRESS);
+    }
+
+    @Benchmark @Threads(8)
+    public boolean verifyMac8Threads() {
+        return HmacEngine.get().init(mKey).update(mMessage, 0, mMessage.length).verify(mMac, 0, HmacEngine.MAC_LENGTH);
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.organization.backend.authentication;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replay checks per second with the store holding the live tokens of 10 million sessions an hour, i.e. a token
+ * lifetime of them, a fifth of which were presented from a second address. 10 million sessions an hour is about 2,800
+ * new tokens a second; the store must sustain that with no tokens rejected as the table is full.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionNonceStoreBenchmark {
+    private static final long TOKENS_PER_HOUR = 10000000;
+    private static final int LIVE_TOKENS = (int) (TOKENS_PER_HOUR * SessionAuthentication.TOKEN_LIFETIME / 3600000);
+    private static final String IP_ADDRESS = "203.0.113.7";
+    private static final String OTHER_IP_ADDRESS = "198.51.100.23";
+
+    private final AtomicLong mNextTokenId = new AtomicLong(LIVE_TOKENS);
+    private long mExpiresAt;
+
+    @Setup
+    public void setUp() {
+        long now = System.currentTimeMillis();
+        mExpiresAt = now + SessionAuthentication.TOKEN_LIFETIME;
+
+        // Issue times spread over the last token lifetime, as in steady state
+        for (int i = 0; i < LIVE_TOKENS; i++) {
+            long expiresAt = now + SessionAuthentication.TOKEN_LIFETIME * (i + 1) / LIVE_TOKENS;
+            SessionNonceStore.checkAndRecord(i, expiresAt, IP_ADDRESS);
+            if (i % 5 == 0) {
+                SessionNonceStore.checkAndRecord(i, expiresAt, OTHER_IP_ADDRESS);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.println("Rejected as full: " + SessionNonceStore.getFullCount() + "; rejected as replays: " +
+                SessionNonceStore.getReplayCount());
+    }
+
+    @Benchmark @Threads(8)
+    public boolean recordNewToken8Threads() {
+        return SessionNonceStore.checkAndRecord(mNextTokenId.getAndIncrement(), mExpiresAt, IP_ADDRESS);
+    }
+
+    @Benchmark @Threads(8)
+    public boolean checkLiveToken8Threads() {
+        return SessionNonceStore.checkAndRecord(ThreadLocalRandom.current().nextInt(LIVE_TOKENS), mExpiresAt,
+                IP_ADDRESS);
+    }
+
+    @Benchmark @Threads(32)
+    public boolean checkLiveToken32Threads() {
+        return SessionNonceStore.checkAndRecord(ThreadLocalRandom.current().nextInt(LIVE_TOKENS), mExpiresAt,
+                IP_ADDRESS);
+    }
+
+}
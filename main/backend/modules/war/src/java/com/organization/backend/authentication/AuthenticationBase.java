@@ -4,14 +4,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.crypto.KeyGenerator;
-import javax.crypto.Mac;
 import java.security.NoSuchAlgorithmException;
 
+/**
+ * Key generators shared by the authentication types. MACs are computed with the per-thread {@link HmacEngine};
+ * a single shared {@link javax.crypto.Mac} is not safe to use from concurrent requests.
+ */
 public abstract class AuthenticationBase {
     private static final Logger LOG = LoggerFactory.getLogger(UserAuthentication.class);
     protected static KeyGenerator s128BitKeyGenerator;
     protected static KeyGenerator s64BitKeyGenerator;
-    protected static Mac sMac;
 
     static {
         try {
@@ -19,7 +21,6 @@ public abstract class AuthenticationBase {
             s128BitKeyGenerator.init(128);
             s64BitKeyGenerator = KeyGenerator.getInstance("HmacSHA256");
             s64BitKeyGenerator.init(64);
-            sMac = Mac.getInstance("HmacSHA256");
         } catch (NoSuchAlgorithmException e) {
             e.printStackTrace();
         }
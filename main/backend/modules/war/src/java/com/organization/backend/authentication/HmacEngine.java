@@ -0,0 +1,128 @@
+package com.organization.backend.authentication;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * HMAC-SHA256 engine safe for use by concurrent request threads.
+ * <p>
+ * Each thread owns one engine (see {@link #get()}) holding its own {@link Mac}, so MACs computed on different threads
+ * never share state and no {@code Mac} is created per request. Computing or verifying a MAC into a caller-supplied
+ * buffer allocates nothing beyond what {@code Mac.init()} does.
+ */
+public final class HmacEngine {
+    public static final int MAC_LENGTH = 32;
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final ThreadLocal<HmacEngine> ENGINES = new ThreadLocal<HmacEngine>() {
+        @Override
+        protected HmacEngine initialValue() {
+            return new HmacEngine();
+        }
+    };
+
+    private final Mac mMac;
+    private final byte[] mResult = new byte[MAC_LENGTH];
+
+    private HmacEngine() {
+        try {
+            mMac = Mac.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // HmacSHA256 is a required algorithm of every Java platform
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+
+    /**
+     * Get the engine of the current thread.
+     */
+    public static HmacEngine get() {
+        return ENGINES.get();
+    }
+
+    /**
+     * Start a new MAC using a raw key.
+     * @param key Key bytes; keys longer than the block length are hashed first as described by RFC 2104
+     */
+    public HmacEngine init(byte[] key, int offset, int length) {
+        return init(new SecretKeySpec(key, offset, length, ALGORITHM));
+    }
+
+    public HmacEngine init(byte[] key) {
+        return init(key, 0, key.length);
+    }
+
+    /**
+     * Start a new MAC using a key that is used for many MACs.
+     */
+    public HmacEngine init(PreparedKey key) {
+        return init(key.mKey);
+    }
+
+    public HmacEngine update(byte b) {
+        mMac.update(b);
+        return this;
+    }
+
+    public HmacEngine update(byte[] bytes, int offset, int length) {
+        mMac.update(bytes, offset, length);
+        return this;
+    }
+
+    /**
+     * Finish the MAC and write it to a buffer.
+     * @param out Buffer with at least {@link #MAC_LENGTH} bytes available from offset
+     */
+    public void doFinal(byte[] out, int offset) {
+        try {
+            mMac.doFinal(out, offset);
+        } catch (ShortBufferException e) {
+            throw new IllegalArgumentException("Output buffer too small for MAC", e);
+        }
+    }
+
+    /**
+     * Finish the MAC and return it in a new array.
+     */
+    public byte[] doFinal() {
+        byte[] mac = new byte[MAC_LENGTH];
+        doFinal(mac, 0);
+        return mac;
+    }
+
+    /**
+     * Finish the MAC and compare it to an expected MAC in constant time.
+     * @param length Length of the expected MAC; a MAC of any other length than {@link #MAC_LENGTH}, e.g. truncated,
+     *               is rejected
+     * @return True if the expected bytes equal the MAC
+     */
+    public boolean verify(byte[] expected, int offset, int length) {
+        doFinal(mResult, 0);
+        return length == MAC_LENGTH && TokenCodecUtils.constantTimeEquals(mResult, 0, expected, offset, MAC_LENGTH);
+    }
+
+    private HmacEngine init(SecretKeySpec key) {
+        try {
+            mMac.init(key);
+        } catch (InvalidKeyException e) {
+            throw new IllegalArgumentException("Invalid HMAC key", e);
+        }
+        return this;
+    }
+
+    /**
+     * An immutable key for keys that are used for many MACs (e.g. server keys), so that its key spec is created once.
+     * Instances may be shared across threads.
+     */
+    public static final class PreparedKey {
+        private final SecretKeySpec mKey;
+
+        public PreparedKey(byte[] key) {
+            mKey = new SecretKeySpec(key, ALGORITHM);
+        }
+    }
+
+}
@@ -1,15 +1,10 @@
 package com.organization.backend.authentication;
 
-import com.organization.commons.base.ByteUtils;
 import org.apache.commons.codec.binary.Base64;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.crypto.spec.SecretKeySpec;
-import java.security.InvalidKeyException;
-import java.util.Arrays;
-
 /**
  * InputRequest authentication will not be used for AuthenticationBase V1 as it does not really provided any
  * added security. The class is only saved in case it is needed.
@@ -25,14 +20,8 @@ public class InputRequestAuthentication extends AuthenticationBase {
         byte[] ssnTknHashSubbytes = new byte[14];
         System.arraycopy(sessionTokenHash, 12, ssnTknHashSubbytes, 0, ssnTknHashSubbytes.length);
 
-        try {
-            sMac.reset();
-            sMac.init(new SecretKeySpec(sessionTokenKey, "HmacSHA256"));
-        } catch (InvalidKeyException e) {
-            log.error("Failed to create request token: {}", e.toString());
-            return null;
-        }
-        byte[] hash = sMac.doFinal(ssnTknHashSubbytes);
+        byte[] hash = HmacEngine.get().init(sessionTokenKey).update(ssnTknHashSubbytes, 0,
+                ssnTknHashSubbytes.length).doFinal();
 
         return Base64.encodeBase64String(hash);
     }
@@ -54,16 +43,12 @@ public class InputRequestAuthentication extends AuthenticationBase {
             byte[] srvrHmcTknSubbytes = new byte[16];
             System.arraycopy(srvrHmcTkn, 14, srvrHmcTknSubbytes, 0, srvrHmcTknSubbytes.length);
 
-            try {
-                sMac.reset();
-                sMac.init(new SecretKeySpec(clnSsnTknHash, "HmacSHA256"));
-            } catch (InvalidKeyException e) {
-                log.error("Failed to validate client request hmac token: {}", e.toString());
-                return false;
-            }
-            byte[] vldtrHash = sMac.doFinal(ByteUtils.concatenateArrays(clnSsnTknCookieSubbytes, clntSsnTknHashSubbytes));
+            byte[] hmacTokenBytes = Base64.decodeBase64(hmacToken);
 
-            return Arrays.equals(vldtrHash, Base64.decodeBase64(hmacToken));
+            return hmacTokenBytes.length == HmacEngine.MAC_LENGTH && HmacEngine.get().init(clnSsnTknHash)
+                    .update(clnSsnTknCookieSubbytes, 0, clnSsnTknCookieSubbytes.length)
+                    .update(clntSsnTknHashSubbytes, 0, clntSsnTknHashSubbytes.length)
+                    .verify(hmacTokenBytes, 0, HmacEngine.MAC_LENGTH);
         } else {
             return false;
         }
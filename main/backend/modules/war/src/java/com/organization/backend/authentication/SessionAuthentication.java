@@ -1,87 +1,131 @@
 package com.organization.backend.authentication;
 
 import com.organization.commons.base.ByteUtils;
+import com.organization.commons.internal.CommonsConstants;
 import org.apache.commons.codec.binary.Base64;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.crypto.spec.SecretKeySpec;
-import java.security.InvalidKeyException;
+import java.nio.charset.StandardCharsets;
 
+/**
+ * Session tokens identify a client installation before a user logs in. The first 4 bytes of the cookie of a token are
+ * its issue time in seconds and the rest is random; a token is valid for {@link #TOKEN_LIFETIME} after it was issued,
+ * and from at most {@link SessionNonceStore#MAX_ADDRESSES} IP addresses.
+ */
 public class SessionAuthentication extends AuthenticationBase {
     private static final Logger LOG = LoggerFactory.getLogger(SessionAuthentication.class);
 
+    public static final long TOKEN_LIFETIME = CommonsConstants.Time.FIFTEEN_MINUTES * 2;
+    // Tokens issued by a server whose clock is ahead are accepted up to this long before their issue time
+    public static final long MAX_CLOCK_SKEW = CommonsConstants.Time.ONE_MINUTE;
+
+    private static final int KEY_LENGTH = 16;
+    private static final int COOKIE_LENGTH = 8;
+    private static final int MAX_TOKEN_LENGTH = 512;
+    private static final int ENCODED_HASH_LENGTH = 44;
+    private static final int INITIAL_HASH_SUBBYTES_OFFSET = 6;
+    private static final int INITIAL_HASH_SUBBYTES_LENGTH = 16;
+
+    private static final byte[] KEY_NAME = "key".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] COOKIE_NAME = "cookie".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HASH_COOKIE_PREFIX = "{\"tknHashCookie\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HASH_COOKIE_SUFFIX = "\"}".getBytes(StandardCharsets.US_ASCII);
+
+    private static final String ERR_NOT_LENGTH_OF_2 = "JSON not length of 2";
+    private static final String ERR_MALFORMED_JSON = "Malformed JSON";
+    private static final String ERR_MALFORMED_BASE64 = "Malformed Base64";
+
+    private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch();
+        }
+    };
+
     public static JSONObject createInitialTokenSessionDataResponseJson() {
         JSONObject respJsonObje = new JSONObject();
 
         byte[] key = s128BitKeyGenerator.generateKey().getEncoded();
         byte[] cookieBytes = s64BitKeyGenerator.generateKey().getEncoded();
-        long cookieLong = ByteUtils.bytesToLong(cookieBytes);
+        TokenCodecUtils.writeInt((int) (System.currentTimeMillis() / 1000), cookieBytes, 0);
 
         JSONObject sessDataJsonObje = new JSONObject();
         sessDataJsonObje.put("key", Base64.encodeBase64String(key));
         sessDataJsonObje.put("cookie", Base64.encodeBase64String(cookieBytes));
 
+        byte[] tknIntlHash = new byte[HmacEngine.MAC_LENGTH];
+        computeTokenInitialHash(key, cookieBytes, SCRATCH.get(), tknIntlHash);
+
         respJsonObje.put("session", Base64.encodeBase64String(sessDataJsonObje.toString().getBytes()) + "." +
-                Base64.encodeBase64String(createTokenInitialHash(key, cookieLong)));
+                Base64.encodeBase64String(tknIntlHash));
         return respJsonObje;
     }
 
+    /**
+     * Determine if a client session token is valid. The token is checked in per-thread buffers; nothing is allocated
+     * unless the token is rejected and logged.
+     */
     public static boolean isClientInitialTokenAndIpValid(String token, String ipAddress) {
-        String[] tknSplit = token.split("\\.");
-
-        if (tknSplit.length == 2 && tknSplit[0].length() > 0 && tknSplit[1].length() > 0) {
-            String tknJsonStr = new String(Base64.decodeBase64(tknSplit[0]));
-            JSONObject tknJson;
-            byte[] key;
-            byte[] cookie;
-            String tknHash = tknSplit[1];
-
-            try {
-                tknJson = new JSONObject(tknJsonStr);
-                if (tknJson.length() != 2) {
-                    logTampering(tknJsonStr + "." + tknHash, ipAddress, "JSON not length of 2");
-                    return false;
-                }
-                key = Base64.decodeBase64(tknJson.getString("key"));
-                cookie = Base64.decodeBase64(tknJson.getString("cookie"));
-                if (key.length != 16 || cookie.length != 8) {
-                    logTampering(tknJsonStr + "." + tknHash, ipAddress, "Key or cookie incorrect length: " +
-                            key.length + " and " + cookie.length);
-                    return false;
-                }
-            } catch (JSONException | IllegalArgumentException e) {
-                logTampering(tknJsonStr + "." + tknHash, ipAddress, e.toString());
-                return false;
-            }
+        if (token == null || token.length() > MAX_TOKEN_LENGTH) {
+            if (token != null) logTampering(token, ipAddress, "Token too long");
+            return false;
+        }
+
+        Scratch s = SCRATCH.get();
+        int tknLength = TokenCodecUtils.copyAscii(token, 0, token.length(), s.mToken, 0);
+        if (tknLength < 0) {
+            logTampering(token, ipAddress, "Non-ASCII characters");
+            return false;
+        }
 
-            long cookieLong = ByteUtils.bytesToLong(cookie);
+        int sep = TokenCodecUtils.indexOf(s.mToken, 0, tknLength, (byte) '.');
+        if (sep <= 0 || sep == tknLength - 1 || TokenCodecUtils.indexOf(s.mToken, sep + 1, tknLength,
+                (byte) '.') >= 0) {
+            return false;
+        }
 
-            byte[] tknIntlHash = createTokenInitialHash(key, cookieLong);
-            byte[] tknIntlHashSubbytes = new byte[16];
+        int jsonLength = TokenCodecUtils.decodeBase64(s.mToken, 0, sep, s.mJson, 0);
+        if (jsonLength < 0) {
+            logTampering(token, ipAddress, ERR_MALFORMED_BASE64);
+            return false;
+        }
 
-            System.arraycopy(tknIntlHash, 6, tknIntlHashSubbytes, 0, tknIntlHashSubbytes.length);
-            try {
-                sMac.reset();
-                sMac.init(new SecretKeySpec(key, "HmacSHA256"));
-            } catch (InvalidKeyException e) {
-                LOG.error("Failed to validate client initial token: {}", e.toString());
-                return false;
-            }
-            byte[] validatorHash = sMac.doFinal(tknIntlHashSubbytes);
+        String err = parseTokenJson(s, jsonLength);
+        if (err != null) {
+            logTampering(new String(s.mJson, 0, jsonLength, StandardCharsets.UTF_8) + "." +
+                    token.substring(sep + 1), ipAddress, err);
+            return false;
+        }
 
-            return Base64.encodeBase64String(validatorHash).equals(tknHash);
+        computeTokenInitialHash(s.mKey, s.mCookie, s, s.mHash);
 
-            // TODO: Implement database technique to prevent replay attacks by checking ip validity; This should
-            // TODO:   be done after validating a session token because it is the first primarily method of defense anyways
-            // TODO:   and will save db lookups. Also do this using a memory based database. There should also be different
-            // TODO:   tables, such as one for ip that should be blocked and received a "blocked" messaged and another for
-            // TODO:   ips that should be blocked and receive simply the same message as an invalid token, "not authorized".
-        } else {
+        HmacEngine.get().init(s.mKey, 0, KEY_LENGTH)
+                .update(s.mHash, INITIAL_HASH_SUBBYTES_OFFSET, INITIAL_HASH_SUBBYTES_LENGTH)
+                .doFinal(s.mHash, 0);
+        TokenCodecUtils.encodeBase64(s.mHash, 0, HmacEngine.MAC_LENGTH, s.mEncodedHash, 0);
+
+        int tknHashLength = tknLength - sep - 1;
+        if (tknHashLength != ENCODED_HASH_LENGTH || !TokenCodecUtils.constantTimeEquals(s.mEncodedHash, 0,
+                s.mToken, sep + 1, ENCODED_HASH_LENGTH)) {
             return false;
         }
+
+        long now = System.currentTimeMillis();
+        long issuedAt = (TokenCodecUtils.readInt(s.mCookie, 0) & 0xffffffffL) * 1000;
+        if (now < issuedAt - MAX_CLOCK_SKEW || now >= issuedAt + TOKEN_LIFETIME) {
+            return false;
+        }
+
+        // Replay protection is checked after the token is validated, which is cheaper and rejects most attempts
+        if (!SessionNonceStore.checkAndRecord(TokenCodecUtils.readLong(s.mCookie, 0) ^
+                TokenCodecUtils.readLong(s.mKey, 0), issuedAt + TOKEN_LIFETIME, ipAddress)) {
+            logTampering(token, ipAddress, "Presented from too many addresses");
+            return false;
+        }
+        return true;
     }
 
     public static byte[] extractKeyFromClientSessionToken(String token) {
@@ -94,18 +138,99 @@ public class SessionAuthentication extends AuthenticationBase {
         return null;
     }
 
-    private static byte[] createTokenInitialHash(byte[] key, long cookieLong) {
-        JSONObject json = new JSONObject();
-        String tknHashCookie = Base64.encodeBase64String(ByteUtils.longToBytes(cookieLong >> 4));
-        json.put("tknHashCookie", tknHashCookie);
-        try {
-            sMac.reset();
-            sMac.init(new SecretKeySpec(key, "HmacSHA256"));
-        } catch (InvalidKeyException e) {
-            LOG.error("Failed to create initial token: {}", e.toString());
-            return null;
+    /**
+     * Compute the initial hash, HMAC(key, {"tknHashCookie":"[Base64 of (cookie >> 4)]"}), into a buffer. The message
+     * is the exact serialization of the JSON object the hash was originally computed over.
+     */
+    private static void computeTokenInitialHash(byte[] key, byte[] cookie, Scratch s, byte[] out) {
+        long cookieLong = ByteUtils.bytesToLong(cookie);
+        TokenCodecUtils.writeLong(cookieLong >> 4, s.mDecoded, 0);
+
+        byte[] msg = s.mMessage;
+        int msgLength = HASH_COOKIE_PREFIX.length;
+        System.arraycopy(HASH_COOKIE_PREFIX, 0, msg, 0, msgLength);
+        msgLength += TokenCodecUtils.encodeBase64(s.mDecoded, 0, COOKIE_LENGTH, msg, msgLength);
+        System.arraycopy(HASH_COOKIE_SUFFIX, 0, msg, msgLength, HASH_COOKIE_SUFFIX.length);
+        msgLength += HASH_COOKIE_SUFFIX.length;
+
+        HmacEngine.get().init(key, 0, KEY_LENGTH).update(msg, 0, msgLength).doFinal(out, 0);
+    }
+
+    /**
+     * Read the "key" and "cookie" members of a decoded token JSON object into the scratch buffers. The object must
+     * have exactly these two string members, in any order.
+     * @return Null if valid; otherwise a message describing why the JSON is invalid
+     */
+    private static String parseTokenJson(Scratch s, int end) {
+        byte[] json = s.mJson;
+        boolean hasKey = false;
+        boolean hasCookie = false;
+
+        int p = skipWhitespace(json, 0, end);
+        if (p >= end || json[p] != '{') return ERR_MALFORMED_JSON;
+
+        for (int i = 0; i < 2; i++) {
+            p = skipWhitespace(json, p + 1, end);
+            if (p >= end || json[p] != '"') return (i == 0 && p < end && json[p] == '}') ? ERR_NOT_LENGTH_OF_2 :
+                    ERR_MALFORMED_JSON;
+
+            int nameStart = p + 1;
+            int nameEnd = TokenCodecUtils.indexOf(json, nameStart, end, (byte) '"');
+            if (nameEnd < 0) return ERR_MALFORMED_JSON;
+
+            p = skipWhitespace(json, nameEnd + 1, end);
+            if (p >= end || json[p] != ':') return ERR_MALFORMED_JSON;
+            p = skipWhitespace(json, p + 1, end);
+            if (p >= end || json[p] != '"') return ERR_MALFORMED_JSON;
+
+            // Copy the string value, unescaping "\/" which some JSON writers emit
+            int valueLength = 0;
+            for (p = p + 1; p < end && json[p] != '"'; p++) {
+                if (json[p] == '\\') {
+                    if (p + 1 >= end || json[p + 1] != '/') return ERR_MALFORMED_JSON;
+                    p++;
+                }
+                s.mValue[valueLength++] = json[p];
+            }
+            if (p >= end) return ERR_MALFORMED_JSON;
+
+            int decodedLength = TokenCodecUtils.decodeBase64(s.mValue, 0, valueLength, s.mDecoded, 0);
+            if (decodedLength < 0) return ERR_MALFORMED_BASE64;
+
+            if (!hasKey && nameEquals(json, nameStart, nameEnd, KEY_NAME)) {
+                if (decodedLength != KEY_LENGTH) return "Key incorrect length: " + decodedLength;
+                System.arraycopy(s.mDecoded, 0, s.mKey, 0, KEY_LENGTH);
+                hasKey = true;
+            } else if (!hasCookie && nameEquals(json, nameStart, nameEnd, COOKIE_NAME)) {
+                if (decodedLength != COOKIE_LENGTH) return "Cookie incorrect length: " + decodedLength;
+                System.arraycopy(s.mDecoded, 0, s.mCookie, 0, COOKIE_LENGTH);
+                hasCookie = true;
+            } else {
+                return ERR_MALFORMED_JSON;
+            }
+
+            p = skipWhitespace(json, p + 1, end);
+            if (p >= end) return ERR_MALFORMED_JSON;
+            if (i == 0 && json[p] != ',') return json[p] == '}' ? ERR_NOT_LENGTH_OF_2 : ERR_MALFORMED_JSON;
+            if (i == 1 && json[p] != '}') return json[p] == ',' ? ERR_NOT_LENGTH_OF_2 : ERR_MALFORMED_JSON;
         }
-        return sMac.doFinal(json.toString().getBytes());
+
+        return skipWhitespace(json, p + 1, end) == end ? null : ERR_MALFORMED_JSON;
+    }
+
+    private static int skipWhitespace(byte[] bytes, int p, int end) {
+        while (p < end && (bytes[p] == ' ' || bytes[p] == '\t' || bytes[p] == '\n' || bytes[p] == '\r')) {
+            p++;
+        }
+        return p;
+    }
+
+    private static boolean nameEquals(byte[] bytes, int start, int end, byte[] name) {
+        if (end - start != name.length) return false;
+        for (int i = 0; i < name.length; i++) {
+            if (bytes[start + i] != name[i]) return false;
+        }
+        return true;
     }
 
     private static void logTampering(String token, String ipAddress, String msg) {
@@ -117,4 +242,19 @@ public class SessionAuthentication extends AuthenticationBase {
         }
     }
 
+    /**
+     * Per-thread buffers for validating a token. Sized for the longest token accepted.
+     */
+    private static final class Scratch {
+        final byte[] mToken = new byte[MAX_TOKEN_LENGTH];
+        final byte[] mJson = new byte[MAX_TOKEN_LENGTH];
+        final byte[] mValue = new byte[MAX_TOKEN_LENGTH];
+        final byte[] mDecoded = new byte[MAX_TOKEN_LENGTH];
+        final byte[] mKey = new byte[KEY_LENGTH];
+        final byte[] mCookie = new byte[COOKIE_LENGTH];
+        final byte[] mMessage = new byte[64];
+        final byte[] mHash = new byte[HmacEngine.MAC_LENGTH];
+        final byte[] mEncodedHash = new byte[ENCODED_HASH_LENGTH];
+    }
+
 }
@@ -0,0 +1,131 @@
+package com.organization.backend.authentication;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, lock-free store of the IP addresses each session token was presented from, used to reject replayed
+ * session tokens.
+ * <p>
+ * A session token may be presented from at most {@link #MAX_ADDRESSES} IP addresses before it expires, so a client
+ * may switch networks but a token copied to many hosts is rejected. Expiry comes from the issue time of the token
+ * (see {@link SessionAuthentication}), not from when it was first seen here, and a token is remembered until it
+ * expires, so a replay is never accepted by outliving its entries.
+ * <p>
+ * Each slot of an open addressing table holds one packed entry: a 24-bit tag of the token, a 24-bit tag of the
+ * address and the 16-bit time bucket the token expires in. All the entries of a token are probed from the same home
+ * slot, so one scan of the probe sequence finds the pair and counts the addresses of the token. Expired entries count
+ * as free, so nothing ever needs to be cleared, and slots are claimed with CAS only. Memory stays fixed at
+ * {@link #NUM_SLOTS} longs however much traffic arrives; if every probed slot is in use the token is rejected rather
+ * than an entry being forgotten early.
+ */
+public final class SessionNonceStore {
+    public static final int MAX_ADDRESSES = 4;
+    private static final int BUCKETS_PER_LIFETIME = 16;
+    private static final long BUCKET_LENGTH = SessionAuthentication.TOKEN_LIFETIME / BUCKETS_PER_LIFETIME;
+    // Furthest an expiry bucket may be ahead of the current one, including tokens issued by a server whose clock is
+    // ahead; entries further ahead are from an earlier cycle of the 16-bit bucket and have expired
+    private static final int MAX_BUCKETS_AHEAD = BUCKETS_PER_LIFETIME +
+            (int) (SessionAuthentication.MAX_CLOCK_SKEW / BUCKET_LENGTH) + 2;
+    private static final int NUM_SLOTS = 1 << 24; // 128 MB; 2.8 times the tokens of 10 million sessions an hour
+    private static final int MAX_PROBES = 64; // 8 cache lines
+    private static final long TOKEN_TAG_MASK = 0xffffffL << 40;
+    private static final long ADDRESS_TAG_MASK = 0xffffffL << 16;
+    private static final long BUCKET_MASK = 0xffff;
+
+    private static final AtomicLongArray sSlots = new AtomicLongArray(NUM_SLOTS);
+    private static final long sSeed = new SecureRandom().nextLong();
+
+    private static final AtomicLong sFullCount = new AtomicLong();
+    private static final AtomicLong sReplayCount = new AtomicLong();
+
+    private SessionNonceStore() { }
+
+    /**
+     * Record that a session token was presented from an IP address.
+     * @param tokenId Random bits identifying the token
+     * @param expiresAt Expiry time of the token in milliseconds
+     * @return False if the token was already presented from {@link #MAX_ADDRESSES} other addresses (a replay), or
+     *         cannot be recorded as the table is full; true otherwise
+     */
+    public static boolean checkAndRecord(long tokenId, long expiresAt, String ipAddress) {
+        long hash = mix(tokenId ^ sSeed);
+        int index = (int) hash & (NUM_SLOTS - 1);
+        long tokenTag = hash & TOKEN_TAG_MASK;
+        if (tokenTag == 0) {
+            tokenTag = 1L << 40; // Never 0 so a used slot is never 0
+        }
+        long addressTag = mix(hash + (ipAddress == null ? 0 : ipAddress.hashCode())) & ADDRESS_TAG_MASK;
+        long entry = tokenTag | addressTag | (((expiresAt + BUCKET_LENGTH - 1) / BUCKET_LENGTH) & BUCKET_MASK);
+        int bucket = currentBucket();
+
+        while (true) {
+            int freeSlot = -1;
+            long freeEntry = 0;
+            int addresses = 0;
+
+            // Scan the whole probe sequence before claiming a slot, as expired entries leave gaps in it
+            for (int i = 0; i < MAX_PROBES; i++) {
+                int slot = (index + i) & (NUM_SLOTS - 1);
+                long current = sSlots.get(slot);
+
+                if (!isLive(current, bucket)) {
+                    if (freeSlot < 0) {
+                        freeSlot = slot;
+                        freeEntry = current;
+                    }
+                } else if ((current & TOKEN_TAG_MASK) == tokenTag) {
+                    if ((current & ADDRESS_TAG_MASK) == addressTag) {
+                        return true;
+                    }
+                    addresses++;
+                }
+            }
+
+            if (addresses >= MAX_ADDRESSES) {
+                sReplayCount.incrementAndGet();
+                return false;
+            } else if (freeSlot < 0) {
+                sFullCount.incrementAndGet();
+                return false;
+            } else if (sSlots.compareAndSet(freeSlot, freeEntry, entry)) {
+                return true;
+            }
+            // Another thread claimed the slot, possibly for this token; scan again
+        }
+    }
+
+    /**
+     * Number of tokens rejected because all their probed slots were in use.
+     */
+    public static long getFullCount() {
+        return sFullCount.get();
+    }
+
+    /**
+     * Number of tokens rejected because they were presented from too many addresses.
+     */
+    public static long getReplayCount() {
+        return sReplayCount.get();
+    }
+
+    private static int currentBucket() {
+        return (int) ((System.currentTimeMillis() / BUCKET_LENGTH) & BUCKET_MASK);
+    }
+
+    /**
+     * Determine if an entry is used and its token has not expired.
+     */
+    private static boolean isLive(long entry, int bucket) {
+        int bucketsAhead = (int) (((entry & BUCKET_MASK) - bucket) & BUCKET_MASK);
+        return entry != 0 && bucketsAhead > 0 && bucketsAhead <= MAX_BUCKETS_AHEAD;
+    }
+
+    private static long mix(long x) {
+        x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+        x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return x ^ (x >>> 33);
+    }
+
+}
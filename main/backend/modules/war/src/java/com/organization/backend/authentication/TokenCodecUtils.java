@@ -0,0 +1,169 @@
+package com.organization.backend.authentication;
+
+import java.util.Arrays;
+
+/**
+ * Allocation-free encoding utilities for reading and writing tokens on the request path. All methods work on
+ * caller-supplied buffers and return the number of bytes written, or -1 if the input is invalid.
+ */
+public final class TokenCodecUtils {
+    private static final byte[] BASE64_ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes();
+    private static final byte[] BASE64_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(BASE64_VALUES, (byte) -1);
+        for (int i = 0; i < BASE64_ALPHABET.length; i++) {
+            BASE64_VALUES[BASE64_ALPHABET[i]] = (byte) i;
+        }
+        // Also accept the URL-safe alphabet as the previous commons-codec decoder did
+        BASE64_VALUES['-'] = 62;
+        BASE64_VALUES['_'] = 63;
+    }
+
+    private TokenCodecUtils() { }
+
+    /**
+     * Copy the characters of a string to a byte buffer.
+     * @return Number of bytes written; -1 if the string does not fit or contains non-ASCII characters
+     */
+    public static int copyAscii(String str, int start, int end, byte[] out, int outOffset) {
+        int len = end - start;
+        if (len < 0 || outOffset + len > out.length) return -1;
+
+        for (int i = 0; i < len; i++) {
+            char c = str.charAt(start + i);
+            if (c > 127) return -1;
+            out[outOffset + i] = (byte) c;
+        }
+        return len;
+    }
+
+    /**
+     * Decode standard or URL-safe Base64 with optional padding.
+     * @return Number of bytes decoded; -1 if the input is not valid Base64 or does not fit
+     */
+    public static int decodeBase64(byte[] in, int offset, int length, byte[] out, int outOffset) {
+        while (length > 0 && in[offset + length - 1] == '=') {
+            length--;
+        }
+        if (length % 4 == 1) return -1;
+
+        int decodedLen = (length * 3) / 4;
+        if (outOffset + decodedLen > out.length) return -1;
+
+        int accum = 0;
+        int bits = 0;
+        int o = outOffset;
+
+        for (int i = offset; i < offset + length; i++) {
+            int c = in[i];
+            if (c < 0 || BASE64_VALUES[c] < 0) return -1;
+
+            accum = (accum << 6) | BASE64_VALUES[c];
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[o++] = (byte) (accum >> bits);
+            }
+        }
+        return o - outOffset;
+    }
+
+    /**
+     * Encode bytes as standard, padded Base64 (the format of {@code Base64.encodeBase64String}).
+     * @return Number of bytes written; -1 if the output does not fit
+     */
+    public static int encodeBase64(byte[] in, int offset, int length, byte[] out, int outOffset) {
+        int encodedLen = ((length + 2) / 3) * 4;
+        if (outOffset + encodedLen > out.length) return -1;
+
+        int o = outOffset;
+        int end = offset + length;
+        int i = offset;
+
+        for (; i + 2 < end; i += 3) {
+            int n = ((in[i] & 0xff) << 16) | ((in[i + 1] & 0xff) << 8) | (in[i + 2] & 0xff);
+            out[o++] = BASE64_ALPHABET[(n >>> 18) & 0x3f];
+            out[o++] = BASE64_ALPHABET[(n >>> 12) & 0x3f];
+            out[o++] = BASE64_ALPHABET[(n >>> 6) & 0x3f];
+            out[o++] = BASE64_ALPHABET[n & 0x3f];
+        }
+
+        int rem = end - i;
+        if (rem > 0) {
+            int n = (in[i] & 0xff) << 16;
+            if (rem == 2) n |= (in[i + 1] & 0xff) << 8;
+
+            out[o++] = BASE64_ALPHABET[(n >>> 18) & 0x3f];
+            out[o++] = BASE64_ALPHABET[(n >>> 12) & 0x3f];
+            out[o++] = (rem == 2) ? BASE64_ALPHABET[(n >>> 6) & 0x3f] : (byte) '=';
+            out[o++] = '=';
+        }
+        return o - outOffset;
+    }
+
+    /**
+     * Compare two byte ranges in time that depends only on their length.
+     */
+    public static boolean constantTimeEquals(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        if (aOffset + length > a.length || bOffset + length > b.length) return false;
+
+        int diff = 0;
+        for (int i = 0; i < length; i++) {
+            diff |= a[aOffset + i] ^ b[bOffset + i];
+        }
+        return diff == 0;
+    }
+
+    /**
+     * Find the first index of a byte in a range.
+     * @return Index of the byte; -1 if not found
+     */
+    public static int indexOf(byte[] bytes, int start, int end, byte b) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == b) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Read 8 bytes as a big-endian long (same as {@code ByteUtils.bytesToLong}).
+     */
+    public static long readLong(byte[] bytes, int offset) {
+        long l = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            l = (l << 8) + (bytes[i] & 0xff);
+        }
+        return l;
+    }
+
+    /**
+     * Write a long as 8 big-endian bytes (same as {@code ByteUtils.longToBytes}).
+     */
+    public static void writeLong(long l, byte[] out, int offset) {
+        for (int i = offset + 7; i >= offset; i--) {
+            out[i] = (byte) l;
+            l >>>= 8;
+        }
+    }
+
+    /**
+     * Read 4 bytes as a big-endian int.
+     */
+    public static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16) |
+                ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+    }
+
+    /**
+     * Write an int as 4 big-endian bytes.
+     */
+    public static void writeInt(int i, byte[] out, int offset) {
+        out[offset] = (byte) (i >>> 24);
+        out[offset + 1] = (byte) (i >>> 16);
+        out[offset + 2] = (byte) (i >>> 8);
+        out[offset + 3] = (byte) i;
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.organization.backend.authentication;
 
+import com.organization.backend.base.BackendConstants;
 import com.organization.backend.database.DbConstants;
 import com.organization.backend.database.SQLManager;
 import com.organization.commons.base.DateUtils;
@@ -16,13 +17,130 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Date;
 
+/**
+ * User token authentication.
+ * <p>
+ * Two token formats are accepted:
+ * <ul>
+ *     <li>v1: {@code key + "." + Base64(JSON{createdAt})}, validated against the key stored in the authentication user
+ *     table.</li>
+ *     <li>v2: {@code "v2." + Base64(payload) + "." + Base64(HMAC(payload))}, where the payload is the user ID, issue
+ *     time, expiry time and server key version (see {@link UserTokenKeyRing}). It is validated without a database
+ *     query: its signature in memory, and its issue time against the revocations of the user, which every server
+ *     keeps in memory (see {@link UserTokenRevocations}), so a revocation made on another server takes effect here
+ *     within {@link UserTokenRevocations#REFRESH_INTERVAL} ms.</li>
+ * </ul>
+ * v1 tokens are checked against the token row of the user, which is cached by {@link UserTokenCache}. Its
+ * invalidations are not sent to the other servers: a v1 token that does not match the cached row causes it to be
+ * reloaded once, but tokens that still match the cached row stay valid after a key rotation made on another server
+ * until the row expires, within {@link UserTokenCache#ENTRY_LIFETIME} ms. New tokens are v2 if
+ * {@link BackendConstants.Authentication#ISSUE_USER_TOKEN_V2} is set and {@link UserTokenKeyRing#isEnabled()}.
+ */
 public class UserAuthentication extends AuthenticationBase {
     private static final Logger LOG = LoggerFactory.getLogger(UserAuthentication.class);
 
+    private static final String TOKEN_V2_PREFIX = "v2.";
+    private static final byte[] TOKEN_V2_MAC_DOMAIN = { 'v', '2' };
+    private static final int TOKEN_V2_PAYLOAD_LENGTH = 28;
+    private static final int TOKEN_V2_ENCODED_PAYLOAD_LENGTH = 40;
+    private static final int TOKEN_V2_ENCODED_MAC_LENGTH = 44;
+    private static final int TOKEN_V2_LENGTH = TOKEN_V2_PREFIX.length() + TOKEN_V2_ENCODED_PAYLOAD_LENGTH + 1 +
+            TOKEN_V2_ENCODED_MAC_LENGTH;
+    private static final long TOKEN_ROW_MIN_RELOAD_INTERVAL = 1000;
+
+    private static final ThreadLocal<byte[][]> TOKEN_V2_SCRATCH = new ThreadLocal<byte[][]>() {
+        @Override
+        protected byte[][] initialValue() {
+            // Token characters, payload, MAC
+            return new byte[][] { new byte[TOKEN_V2_LENGTH], new byte[TOKEN_V2_PAYLOAD_LENGTH],
+                    new byte[HmacEngine.MAC_LENGTH] };
+        }
+    };
+
+    /**
+     * Create a user token.
+     * @param userJsonObje User row; must contain "id"
+     * @return Token; null if it could not be created
+     */
     public static String createToken(JSONObject userJsonObje) {
+        if (isTokenV2Issued()) {
+            return createTokenV2(userJsonObje.getLong("id"));
+        }
+        return createTokenV1(userJsonObje);
+    }
+
+    /**
+     * Create a user token from a token row that was already loaded, and rotated if needed, by the database function
+     * log_in_and_load_user.
+     * @param tokenJsonObje "token" object returned by log_in_and_load_user
+     * @return Token
+     */
+    public static String createToken(long userId, JSONObject tokenJsonObje) {
+        if (tokenJsonObje.optBoolean("rotated")) {
+            UserTokenCache.invalidate(userId);
+        }
+
+        if (isTokenV2Issued()) {
+            return createTokenV2(userId);
+        }
+        return tokenJsonObje.getString("key") + "." + encodeCreatedAt(tokenJsonObje.getLong("createdAt"));
+    }
+
+    /**
+     * Determine if a token is valid.
+     * @param userId ID of user providing the token
+     */
+    public static boolean isTokenValid(String token, long userId) {
+        if (token.startsWith(TOKEN_V2_PREFIX)) {
+            return isTokenV2Valid(token, userId);
+        }
+        return isTokenV1Valid(token, userId);
+    }
+
+    /**
+     * Revoke all v2 tokens of a user issued up to now (see {@link UserTokenRevocations}). Call on log out and when
+     * removing a user.
+     * @param conn Connection to the primary database
+     */
+    public static void revokeTokens(long userId, Connection conn) throws SQLException {
+        UserTokenRevocations.revoke(userId, conn);
+    }
+
+    private static boolean isTokenV2Issued() {
+        return BackendConstants.Authentication.ISSUE_USER_TOKEN_V2 && UserTokenKeyRing.isEnabled();
+    }
+
+    /**
+     * Get the token row of a user from the cache, loading and caching it if it is not cached.
+     * @return Token row; null if the user has none
+     * @throws SQLException If the row could not be loaded
+     */
+    private static UserTokenCache.Entry getTokenRow(long userId) throws SQLException {
+        UserTokenCache.Entry entry = UserTokenCache.get(userId);
+        if (entry != null) return entry;
+
+        long cacheGeneration = UserTokenCache.getGeneration();
+
+        try (Connection conn = SQLManager.getConnection(true)) {
+            ResultSet reslSet = conn.createStatement().executeQuery("SELECT key,created_at FROM " +
+                    DbConstants.SQL.AUTHENTICATION.TBL_USER + " WHERE user_id = " + userId);
+
+            if (!reslSet.next()) {
+                return null;
+            }
+
+            long createdAt = reslSet.getTimestamp("created_at", DateUtils.getUtcCalendar()).getTime();
+            entry = new UserTokenCache.Entry(reslSet.getString("key"), createdAt, encodeCreatedAt(createdAt));
+        }
+        UserTokenCache.put(userId, entry, cacheGeneration);
+        return entry;
+    }
+
+    private static String createTokenV1(JSONObject userJsonObje) {
         long userId = userJsonObje.getLong("id");
         String key = null;
         Date createdAt = null;
+        boolean isKeyRotated = false;
 
         try (Connection conn = SQLManager.getConnection(false)) {
             ResultSet reslSet = conn.createStatement().executeQuery("SELECT key,created_at FROM " +
@@ -46,54 +164,117 @@ public class UserAuthentication extends AuthenticationBase {
                     key = reslSet.getString("key");
                     createdAt = reslSet.getTimestamp("created_at", DateUtils.getUtcCalendar());
                 }
+                isKeyRotated = true;
             }
 
             conn.commit();
         } catch (SQLException e) {
             LOG.error("Failed to create user authentication token: {}", e.toString());
             return null;
+        } finally {
+            if (isKeyRotated) {
+                UserTokenCache.invalidate(userId);
+            }
         }
-        return key + "." + Base64.encodeBase64String(new JSONObject().put("createdAt",
-                createdAt.getTime()).toString().getBytes());
+        return key + "." + encodeCreatedAt(createdAt.getTime());
     }
 
     /**
-     * Determine if a token is valid.
-     * @param userId ID of user providing the token
+     * Validate a v1 token against the token row of the user. If it does not match a row cached for at least
+     * {@value #TOKEN_ROW_MIN_RELOAD_INTERVAL} ms, the row is reloaded once before the token is rejected, as the key may
+     * have been rotated by a log in on another server; the interval bounds the reloads invalid tokens can cause.
      */
-    public static boolean isTokenValid(String token, long userId) {
-        String[] tokenArry = token.split("\\.");
+    private static boolean isTokenV1Valid(String token, long userId) {
+        int sep = token.indexOf('.');
+        if (sep <= 0 || sep == token.length() - 1 || token.indexOf('.', sep + 1) >= 0) {
+            return false;
+        }
 
-        if (tokenArry.length == 2 && tokenArry[0].length() > 0 && tokenArry[1].length() > 0) {
-            try (Connection conn = SQLManager.getConnection(true)) {
-                ResultSet reslSet = conn.createStatement().executeQuery("SELECT key,created_at FROM " +
-                        DbConstants.SQL.AUTHENTICATION.TBL_USER + " WHERE user_id = " + userId);
+        UserTokenCache.Entry entry;
+        try {
+            entry = getTokenRow(userId);
 
-                if (reslSet.next()) {
-                    if (!tokenArry[0].equals(reslSet.getString("key"))) {
-                        return false;
-                    }
+            if (entry != null && !isTokenV1Matching(token, sep, entry) &&
+                    System.currentTimeMillis() - entry.getCachedAt() >= TOKEN_ROW_MIN_RELOAD_INTERVAL) {
+                UserTokenCache.invalidate(userId);
+                entry = getTokenRow(userId);
+            }
+        } catch (SQLException e) {
+            LOG.error("Failed to execute query on table \"{}\": {}", DbConstants.SQL.AUTHENTICATION.TBL_USER,
+                    e.toString());
+            return false;
+        }
 
-                    Date createdAt = reslSet.getTimestamp("created_at", DateUtils.getUtcCalendar());
+        return entry != null && isTokenV1Matching(token, sep, entry) && System.currentTimeMillis() -
+                entry.getCreatedAt() <= RegulationConfigurations.Internal.Authentication.userTokenLifetime();
+    }
 
-                    if (!tokenArry[1].equals(Base64.encodeBase64String(new JSONObject().put("createdAt",
-                            createdAt.getTime()).toString().getBytes()))) {
-                        return false;
-                    }
+    private static boolean isTokenV1Matching(String token, int sep, UserTokenCache.Entry entry) {
+        return entry.getKey().length() == sep && token.regionMatches(0, entry.getKey(), 0, sep) &&
+                entry.getEncodedCreatedAt().length() == token.length() - sep - 1 &&
+                token.regionMatches(sep + 1, entry.getEncodedCreatedAt(), 0, token.length() - sep - 1);
+    }
 
-                    if (System.currentTimeMillis() - createdAt.getTime() >
-                            RegulationConfigurations.Internal.Authentication.userTokenLifetime()) {
-                        return false;
-                    }
-                }
-            } catch (SQLException e) {
-                LOG.error("Failed to execute query on table \"{}\": {}", DbConstants.SQL.AUTHENTICATION.TBL_USER,
-                        e.toString());
-                return false;
-            }
-            return true;
+    private static String createTokenV2(long userId) {
+        long issuedAt = System.currentTimeMillis();
+        int keyVersion = UserTokenKeyRing.getCurrentVersion();
+        HmacEngine.PreparedKey key = UserTokenKeyRing.getKey(keyVersion);
+        if (key == null) {
+            LOG.error("Failed to create user authentication token: No key of version {}", keyVersion);
+            return null;
         }
-        return false;
+
+        byte[] payload = new byte[TOKEN_V2_PAYLOAD_LENGTH];
+        TokenCodecUtils.writeLong(userId, payload, 0);
+        TokenCodecUtils.writeLong(issuedAt, payload, 8);
+        TokenCodecUtils.writeLong(issuedAt + RegulationConfigurations.Internal.Authentication.userTokenLifetime(),
+                payload, 16);
+        TokenCodecUtils.writeInt(keyVersion, payload, 24);
+
+        byte[] mac = HmacEngine.get().init(key).update(TOKEN_V2_MAC_DOMAIN, 0, TOKEN_V2_MAC_DOMAIN.length)
+                .update(payload, 0, payload.length).doFinal();
+
+        return TOKEN_V2_PREFIX + Base64.encodeBase64String(payload) + "." + Base64.encodeBase64String(mac);
+    }
+
+    /**
+     * Validate a v2 token in per-thread buffers, without a database query.
+     */
+    private static boolean isTokenV2Valid(String token, long userId) {
+        if (token.length() != TOKEN_V2_LENGTH || token.charAt(TOKEN_V2_LENGTH - TOKEN_V2_ENCODED_MAC_LENGTH - 1) !=
+                '.') {
+            return false;
+        }
+
+        byte[][] scratch = TOKEN_V2_SCRATCH.get();
+        byte[] tkn = scratch[0];
+        byte[] payload = scratch[1];
+        byte[] mac = scratch[2];
+
+        int payloadStart = TOKEN_V2_PREFIX.length();
+        int macStart = payloadStart + TOKEN_V2_ENCODED_PAYLOAD_LENGTH + 1;
+
+        if (TokenCodecUtils.copyAscii(token, 0, TOKEN_V2_LENGTH, tkn, 0) < 0 ||
+                TokenCodecUtils.decodeBase64(tkn, payloadStart, TOKEN_V2_ENCODED_PAYLOAD_LENGTH, payload, 0) !=
+                        TOKEN_V2_PAYLOAD_LENGTH ||
+                TokenCodecUtils.decodeBase64(tkn, macStart, TOKEN_V2_ENCODED_MAC_LENGTH, mac, 0) !=
+                        HmacEngine.MAC_LENGTH) {
+            return false;
+        }
+
+        HmacEngine.PreparedKey key = UserTokenKeyRing.getKey(TokenCodecUtils.readInt(payload, 24));
+        if (key == null || !HmacEngine.get().init(key).update(TOKEN_V2_MAC_DOMAIN, 0, TOKEN_V2_MAC_DOMAIN.length)
+                .update(payload, 0, TOKEN_V2_PAYLOAD_LENGTH).verify(mac, 0, HmacEngine.MAC_LENGTH)) {
+            return false;
+        }
+
+        return TokenCodecUtils.readLong(payload, 0) == userId &&
+                System.currentTimeMillis() < TokenCodecUtils.readLong(payload, 16) &&
+                !UserTokenRevocations.isRevoked(userId, TokenCodecUtils.readLong(payload, 8));
+    }
+
+    private static String encodeCreatedAt(long createdAt) {
+        return Base64.encodeBase64String(new JSONObject().put("createdAt", createdAt).toString().getBytes());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+package com.organization.backend.authentication;
+
+import com.organization.commons.internal.CommonsConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, expiring cache of the user token rows in the authentication user table, keyed by user ID.
+ * <p>
+ * Entries are evicted least recently used first once the cache is full, and are reloaded from the database once they
+ * expire. An entry must be invalidated whenever its row changes (key rotation, user removal). A row
+ * loaded while an invalidation happens is not cached (see {@link #getGeneration()}), so a stale key can never be put
+ * back. Invalidations only apply to this server; the other servers see a change once their entry expires. Expired
+ * entries that are not read again are removed by {@link #evictExpired()}, which should be run every
+ * {@link #ENTRY_LIFETIME} ms.
+ */
+public final class UserTokenCache {
+    private static final Logger LOG = LoggerFactory.getLogger(UserTokenCache.class);
+    public static final String OBJECT_NAME = "com.organization.backend:type=UserTokenCache";
+    public static final long ENTRY_LIFETIME = CommonsConstants.Time.FIVE_MINUTES;
+    private static final int MAX_ENTRIES = 10000;
+
+    private static final AtomicLong sHitCount = new AtomicLong();
+    private static final AtomicLong sMissCount = new AtomicLong();
+    private static final AtomicLong sEvictionCount = new AtomicLong();
+
+    private static final Object sLock = new Object();
+    private static final LinkedHashMap<Long, Entry> sEntries = new LinkedHashMap<Long, Entry>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > MAX_ENTRIES) {
+                sEvictionCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+    private static long sGeneration;
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Metrics(), new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            LOG.warn("Failed to register user token cache metrics MBean: {}", e.toString());
+        }
+    }
+
+    private UserTokenCache() { }
+
+    /**
+     * Get the cached token row of a user.
+     * @return Cached entry; null if the user is not cached or the entry expired
+     */
+    public static Entry get(long userId) {
+        synchronized (sLock) {
+            Entry entry = sEntries.get(userId);
+
+            if (entry != null && System.currentTimeMillis() - entry.mCachedAt > ENTRY_LIFETIME) {
+                sEntries.remove(userId);
+                sEvictionCount.incrementAndGet();
+                entry = null;
+            }
+
+            if (entry == null) {
+                sMissCount.incrementAndGet();
+            } else {
+                sHitCount.incrementAndGet();
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * Get the current generation, which changes on every invalidation. Read it before loading a row from the
+     * database and pass it to {@link #put(long, Entry, long)}.
+     */
+    public static long getGeneration() {
+        synchronized (sLock) {
+            return sGeneration;
+        }
+    }
+
+    /**
+     * Cache a token row loaded from the database.
+     * @param generation Generation read before the row was loaded; the row is not cached if an invalidation
+     *                   happened since
+     */
+    public static void put(long userId, Entry entry, long generation) {
+        synchronized (sLock) {
+            if (generation == sGeneration) {
+                sEntries.put(userId, entry);
+            }
+        }
+    }
+
+    /**
+     * Remove the cached token row of a user. Must be called after the row is changed or deleted.
+     */
+    public static void invalidate(long userId) {
+        synchronized (sLock) {
+            sGeneration++;
+            sEntries.remove(userId);
+        }
+    }
+
+    /**
+     * Remove all expired entries.
+     */
+    public static void evictExpired() {
+        long now = System.currentTimeMillis();
+
+        synchronized (sLock) {
+            Iterator<Entry> it = sEntries.values().iterator();
+            while (it.hasNext()) {
+                if (now - it.next().mCachedAt > ENTRY_LIFETIME) {
+                    it.remove();
+                    sEvictionCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * A cached token row.
+     */
+    public static final class Entry {
+        private final String mKey;
+        private final long mCreatedAt;
+        private final String mEncodedCreatedAt;
+        private final long mCachedAt;
+
+        /**
+         * @param key Token key
+         * @param createdAt Time the key was created in milliseconds
+         * @param encodedCreatedAt Second part of the token, as created by {@link UserAuthentication#createToken}
+         */
+        public Entry(String key, long createdAt, String encodedCreatedAt) {
+            mKey = key;
+            mCreatedAt = createdAt;
+            mEncodedCreatedAt = encodedCreatedAt;
+            mCachedAt = System.currentTimeMillis();
+        }
+
+        public String getKey() {
+            return mKey;
+        }
+
+        public long getCreatedAt() {
+            return mCreatedAt;
+        }
+
+        public String getEncodedCreatedAt() {
+            return mEncodedCreatedAt;
+        }
+
+        /**
+         * Get the time the row was loaded from the database in milliseconds.
+         */
+        public long getCachedAt() {
+            return mCachedAt;
+        }
+    }
+
+    private static class Metrics implements UserTokenCacheMXBean {
+
+        @Override
+        public int getSize() {
+            synchronized (sLock) {
+                return sEntries.size();
+            }
+        }
+
+        @Override
+        public long getHitCount() { return sHitCount.get(); }
+
+        @Override
+        public long getMissCount() { return sMissCount.get(); }
+
+        @Override
+        public long getEvictionCount() { return sEvictionCount.get(); }
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.organization.backend.authentication;
+
+/**
+ * Live user token cache metrics, registered with JMX as {@value UserTokenCache#OBJECT_NAME}.
+ */
+public interface UserTokenCacheMXBean {
+
+    int getSize();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    /**
+     * Number of entries removed because the cache was full or the entry expired. Invalidations are not counted.
+     */
+    long getEvictionCount();
+
+}
@@ -0,0 +1,79 @@
+package com.organization.backend.authentication;
+
+import org.apache.commons.codec.binary.Base64;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Versioned server keys used to sign v2 user tokens.
+ * <p>
+ * New tokens are signed with the current (highest) key version; tokens signed with any older version still in the
+ * ring stay valid until they expire. Keys are read only from the system property {@value #KEYS_PROPERTY} as comma
+ * separated {@code version:base64Key} pairs, which must be the same on every server. To rotate, add a key with a higher
+ * version to the property on every server, and remove the old key once the tokens signed with it have expired.
+ * <p>
+ * If the property is not set or has no valid key, the ring is empty and v2 tokens are neither issued nor accepted
+ * (see {@link #isEnabled()}).
+ */
+public final class UserTokenKeyRing {
+    private static final Logger LOG = LoggerFactory.getLogger(UserTokenKeyRing.class);
+    public static final String KEYS_PROPERTY = "organization.authentication.userTokenKeys";
+
+    private static final int sCurrentVersion;
+    private static final Map<Integer, HmacEngine.PreparedKey> sKeys;
+
+    static {
+        String keysProp = System.getProperty(KEYS_PROPERTY);
+        Map<Integer, HmacEngine.PreparedKey> keys = new HashMap<>();
+        int currentVersion = 0;
+
+        if (keysProp != null && !keysProp.trim().isEmpty()) {
+            for (String pair : keysProp.split(",")) {
+                int sep = pair.indexOf(':');
+                try {
+                    int version = Integer.parseInt(pair.substring(0, sep).trim());
+                    keys.put(version, new HmacEngine.PreparedKey(Base64.decodeBase64(pair.substring(sep + 1).trim())));
+                    currentVersion = Math.max(currentVersion, version);
+                } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+                    LOG.error("Invalid user token key in property \"{}\": {}", KEYS_PROPERTY, e.toString());
+                }
+            }
+        }
+
+        if (keys.isEmpty()) {
+            LOG.error("Property \"{}\" not set or has no valid key; v2 user tokens are disabled", KEYS_PROPERTY);
+        }
+
+        sCurrentVersion = currentVersion;
+        sKeys = Collections.unmodifiableMap(keys);
+    }
+
+    private UserTokenKeyRing() { }
+
+    /**
+     * Determine if v2 tokens can be issued, i.e. keys were configured.
+     */
+    public static boolean isEnabled() {
+        return !sKeys.isEmpty();
+    }
+
+    /**
+     * @return Current key version; 0 if the ring is empty
+     */
+    public static int getCurrentVersion() {
+        return sCurrentVersion;
+    }
+
+    /**
+     * Get a key by version.
+     * @return Key; null if the version is unknown
+     */
+    public static HmacEngine.PreparedKey getKey(int version) {
+        return sKeys.get(version);
+    }
+
+}
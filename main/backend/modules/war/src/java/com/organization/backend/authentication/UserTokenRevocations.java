@@ -0,0 +1,142 @@
+package com.organization.backend.authentication;
+
+import com.organization.backend.database.DbConstants;
+import com.organization.backend.database.SQLManager;
+import com.organization.commons.base.DateUtils;
+import com.organization.commons.configuration.RegulationConfigurations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the v2 user token revocations of every server, so that v2 tokens are validated without a database
+ * query.
+ * <p>
+ * A revocation is written to the user token revocation table, which every server reads for the revocations made since
+ * its last read with {@link #refresh()}, run every {@value #REFRESH_INTERVAL} ms. A revocation made on another server
+ * therefore takes effect here within about that interval; one made on this server takes effect at once. If the
+ * revocations could not be read for {@value #MAX_STALENESS} ms, e.g. as the database is not available, v2 tokens are
+ * rejected rather than validated against revocations that may be missing.
+ * <p>
+ * Revocations older than the user token lifetime are dropped, as every token they revoke has expired.
+ */
+public final class UserTokenRevocations {
+    private static final Logger LOG = LoggerFactory.getLogger(UserTokenRevocations.class);
+    public static final long REFRESH_INTERVAL = 10000;
+    public static final long PRUNE_INTERVAL = 3600000;
+    private static final long MAX_STALENESS = 60000;
+    // Revocations committed late, or by a server whose clock is behind, are still read
+    private static final long REFRESH_OVERLAP = 60000;
+
+    private static final Map<Long, Long> sRevokedAt = new ConcurrentHashMap<>(); // By user ID
+    private static final Object sRefreshLock = new Object();
+    private static long sLastReadStart; // Guarded by sRefreshLock; 0 until the first read
+    private static volatile long sLastRefreshedAt;
+
+    private UserTokenRevocations() { }
+
+    /**
+     * Revoke all v2 tokens of a user issued up to now. The revocation takes effect on the other servers once the
+     * transaction is committed and they refresh.
+     * @param conn Connection to the primary database
+     */
+    public static void revoke(long userId, Connection conn) throws SQLException {
+        long now = System.currentTimeMillis();
+
+        try (PreparedStatement prepStmt = conn.prepareStatement("INSERT INTO " +
+                DbConstants.SQL.AUTHENTICATION.TBL_USER_TOKEN_REVOCATION + " (user_id, revoked_at) VALUES (?, ?)" +
+                " ON CONFLICT (user_id) DO UPDATE SET revoked_at = EXCLUDED.revoked_at")) {
+            prepStmt.setLong(1, userId);
+            prepStmt.setTimestamp(2, new Timestamp(now), DateUtils.getUtcCalendar());
+            prepStmt.executeUpdate();
+        }
+        put(userId, now);
+    }
+
+    /**
+     * Determine if a v2 token is revoked, or cannot be checked as the revocations are stale.
+     * @param issuedAt Issue time of the token in milliseconds
+     */
+    public static boolean isRevoked(long userId, long issuedAt) {
+        if (System.currentTimeMillis() - sLastRefreshedAt > MAX_STALENESS) {
+            LOG.warn("User token revocations not refreshed for {} ms; rejecting v2 token of user {}",
+                    System.currentTimeMillis() - sLastRefreshedAt, userId);
+            return true;
+        }
+
+        Long revokedAt = sRevokedAt.get(userId);
+        return revokedAt != null && issuedAt <= revokedAt;
+    }
+
+    /**
+     * Read the revocations made since the last read, or within the user token lifetime on the first read, and drop
+     * those that expired.
+     */
+    public static void refresh() {
+        synchronized (sRefreshLock) {
+            long start = System.currentTimeMillis();
+            long lifetime = RegulationConfigurations.Internal.Authentication.userTokenLifetime();
+            long since = sLastReadStart == 0 ? start - lifetime : sLastReadStart - REFRESH_OVERLAP;
+
+            try (Connection conn = SQLManager.getConnection(true);
+                 PreparedStatement prepStmt = conn.prepareStatement("SELECT user_id, revoked_at FROM " +
+                         DbConstants.SQL.AUTHENTICATION.TBL_USER_TOKEN_REVOCATION + " WHERE revoked_at > ?")) {
+                prepStmt.setTimestamp(1, new Timestamp(since), DateUtils.getUtcCalendar());
+
+                try (ResultSet reslSet = prepStmt.executeQuery()) {
+                    while (reslSet.next()) {
+                        put(reslSet.getLong("user_id"), reslSet.getTimestamp("revoked_at",
+                                DateUtils.getUtcCalendar()).getTime());
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("Failed to read user token revocations: {}", e.toString());
+                return;
+            }
+
+            Iterator<Long> it = sRevokedAt.values().iterator();
+            while (it.hasNext()) {
+                if (start - it.next() > lifetime) {
+                    it.remove();
+                }
+            }
+
+            sLastReadStart = start;
+            sLastRefreshedAt = start;
+        }
+    }
+
+    /**
+     * Delete the revocations older than the user token lifetime from the database. Any server may run it.
+     */
+    public static void prune() {
+        long oldest = System.currentTimeMillis() - RegulationConfigurations.Internal.Authentication.userTokenLifetime();
+
+        try (Connection conn = SQLManager.getConnection(true);
+             PreparedStatement prepStmt = conn.prepareStatement("DELETE FROM " +
+                     DbConstants.SQL.AUTHENTICATION.TBL_USER_TOKEN_REVOCATION + " WHERE revoked_at < ?")) {
+            prepStmt.setTimestamp(1, new Timestamp(oldest), DateUtils.getUtcCalendar());
+            prepStmt.executeUpdate();
+        } catch (SQLException e) {
+            LOG.warn("Failed to prune user token revocations: {}", e.toString());
+        }
+    }
+
+    private static void put(long userId, long revokedAt) {
+        Long current;
+        do {
+            current = sRevokedAt.get(userId);
+            if (current != null && current >= revokedAt) return;
+        } while (current == null ? sRevokedAt.putIfAbsent(userId, revokedAt) != null :
+                !sRevokedAt.replace(userId, current, revokedAt));
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.organization.backend.rest;
+
+import com.organization.backend.authentication.UserTokenCache;
+import com.organization.backend.authentication.UserTokenRevocations;
+import com.organization.backend.database.Cassandra;
+import com.organization.backend.database.MongoDb;
+import com.organization.backend.database.VoteCounterAggregator;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules periodic maintenance when the application is deployed, and flushes buffered writes and releases database
+ * connections when it is undeployed.
+ */
+@WebListener
+public class BackendContextListener implements ServletContextListener {
+    private ScheduledFuture<?> mUserTokenCacheEviction;
+    private ScheduledFuture<?> mUserTokenRevocationsRefresh;
+    private ScheduledFuture<?> mUserTokenRevocationsPruning;
+    private ScheduledFuture<?> mTrendingSectionsExchange;
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        mUserTokenCacheEviction = EndpointExecutors.getScheduler().scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                UserTokenCache.evictExpired();
+            }
+        }, UserTokenCache.ENTRY_LIFETIME, UserTokenCache.ENTRY_LIFETIME, TimeUnit.MILLISECONDS);
+
+        mUserTokenRevocationsRefresh = EndpointExecutors.getScheduler().scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                UserTokenRevocations.refresh();
+            }
+        }, 0, UserTokenRevocations.REFRESH_INTERVAL, TimeUnit.MILLISECONDS);
+
+        mUserTokenRevocationsPruning = EndpointExecutors.getScheduler().scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                UserTokenRevocations.prune();
+            }
+        }, UserTokenRevocations.PRUNE_INTERVAL, UserTokenRevocations.PRUNE_INTERVAL, TimeUnit.MILLISECONDS);
+
+        mTrendingSectionsExchange = EndpointExecutors.getScheduler().scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                TrendingSections.exchangeWindows();
+            }
+        }, TrendingSections.EXCHANGE_INTERVAL, TrendingSections.EXCHANGE_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        for (ScheduledFuture<?> task : new ScheduledFuture<?>[] { mUserTokenCacheEviction,
+                mUserTokenRevocationsRefresh, mUserTokenRevocationsPruning, mTrendingSectionsExchange }) {
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+        VoteCounterAggregator.get().close();
+        ConfigurationsEndpoint.stopRefreshing();
+        Cassandra.close();
+        MongoDb.close();
+    }
+
+}
@@ -12,6 +12,8 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
@@ -44,14 +46,29 @@ public class BaseEndpoint {
      */
     @GET @Path("/initial")
     @Produces("application/json")
-    public Response getInitialDataRequest(@Context HttpServletRequest reqs, @Context HttpHeaders hh) {
+    public void getInitialDataRequest(@Suspended final AsyncResponse asyncResp, @Context final HttpServletRequest reqs,
+                                      @Context final HttpHeaders hh) {
+        EndpointExecutors.SQL.execute(asyncResp, new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                return getInitialData(reqs, hh);
+            }
+        });
+    }
+
+    private Response getInitialData(HttpServletRequest reqs, HttpHeaders hh) {
         if (!EndpointAuthenticationUtils.isSessionTokenValid(reqs, hh)) {
             return EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid session token.")
                     .toResponse();
         }
 
         JSONObject jsonObje = new JSONObject();
-        jsonObje.put("configurations", ConfigurationsEndpoint.executeConfigurationsQuery());
+        try {
+            jsonObje.put("configurations", ConfigurationsEndpoint.getSnapshot().getConfigurationsJsonString());
+        } catch (RuntimeException e) {
+            return EndpointErrorUtils.processServerFatalError(DATABASE_TRANSACTION, "Failed to load configurations" +
+                    " in getInitialDataRequest(): {}", e.toString()).toResponse();
+        }
 
         try (Connection conn = SQLManager.getConnection(false)) {
         } catch (IllegalArgumentException e) {
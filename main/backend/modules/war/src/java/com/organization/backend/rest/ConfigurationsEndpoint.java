@@ -2,44 +2,270 @@ package com.organization.backend.rest;
 
 import com.organization.backend.authentication.EndpointAuthenticationUtils;
 import com.organization.backend.database.MongoDb;
-import com.organization.commons.base.JSONUtils;
+import com.organization.commons.base.JSONKeyFilter;
+import com.organization.commons.configuration.ConfigurationsManager;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
 import org.apache.commons.collections4.IteratorUtils;
 import org.bson.Document;
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.util.ArrayList;
 import java.util.List;
 
+import static com.organization.backend.rest.ClientFatalError.TYPE.INVALID_PARAMETER;
 import static com.organization.backend.rest.ClientFatalError.TYPE.UNAUTHORIZED;
+import static com.organization.backend.rest.ServerFatalError.TYPE.DATABASE_TRANSACTION;
 
+/**
+ * Configurations are served from an in-memory {@link ConfigurationsSnapshot}, refreshed in the background from a
+ * MongoDB change stream on the configurations collection, or by polling it every
+ * {@value #POLL_INTERVAL_PROPERTY} ms (default 60000) when change streams are not available (e.g. on a standalone
+ * server).
+ */
 @Path("/configurations")
 public class ConfigurationsEndpoint {
     private static final Logger log = LoggerFactory.getLogger(ConfigurationsEndpoint.class);
+    public static final String POLL_INTERVAL_PROPERTY = "organization.configurations.pollInterval";
+    private static final long POLL_INTERVAL = Long.getLong(POLL_INTERVAL_PROPERTY, 60000);
+    private static final JSONKeyFilter DOCUMENTATION_KEY_FILTER = new JSONKeyFilter("_description", "_note*");
 
+    private static final Object sLock = new Object();
+    private static volatile ConfigurationsSnapshot sSnapshot;
+    private static volatile boolean sIsRefreshStopped;
+    private static Thread sRefresher;
+
+    /**
+     * Get the configurations. Clients should send the ETag of the configurations they have in an If-None-Match
+     * header; the response is then 304 Not Modified if they have not changed.
+     */
     @GET
     @Produces("application/json")
-    public Response getConfigurationsRequest(@Context HttpServletRequest reqs, @Context HttpHeaders hh) {
+    public void getConfigurationsRequest(@Suspended final AsyncResponse asyncResp,
+                                         @Context final HttpServletRequest reqs, @Context final HttpHeaders hh,
+                                         @Context final Request req) {
+        if (!EndpointAuthenticationUtils.isSessionTokenValid(reqs, hh)) {
+            asyncResp.resume(EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid session token.")
+                    .toResponse());
+            return;
+        }
+
+        ConfigurationsSnapshot snapshot = sSnapshot;
+
+        if (snapshot != null) {
+            asyncResp.resume(getConfigurations(hh, req, snapshot));
+            return;
+        }
+
+        // Not loaded yet as MongoDB was not available
+        EndpointExecutors.MONGO.execute(asyncResp, new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                ConfigurationsSnapshot snapshot;
+                try {
+                    snapshot = getSnapshot();
+                } catch (RuntimeException e) {
+                    return EndpointErrorUtils.processServerFatalError(DATABASE_TRANSACTION, "Failed to load" +
+                            " configurations in getConfigurationsRequest(): {}", e.toString()).toResponse();
+                }
+                return getConfigurations(hh, req, snapshot);
+            }
+        });
+    }
+
+    private Response getConfigurations(HttpHeaders hh, Request req, ConfigurationsSnapshot snapshot) {
+        boolean isGzipAccepted = isGzipAccepted(hh);
+        Response notModifiedResp = snapshot.evaluatePreconditions(req, isGzipAccepted);
+        return notModifiedResp != null ? notModifiedResp : snapshot.toResponse(isGzipAccepted);
+    }
+
+    /**
+     * Get only the configuration entities that changed. The request body is a JSON object of the version of each
+     * entity the client holds by ID (see {@link ConfigurationsManager#getVersionsJson()}); the response has the array
+     * "configurations" of the entities that are new or changed and the array "removed" of the IDs of the entities that
+     * no longer exist.
+     */
+    @POST @Path("/changes")
+    @Consumes("application/json") @Produces("application/json")
+    public void getConfigurationsChangesRequest(@Suspended final AsyncResponse asyncResp,
+                                                @Context final HttpServletRequest reqs,
+                                                @Context final HttpHeaders hh, final String versionsJsonStr) {
         if (!EndpointAuthenticationUtils.isSessionTokenValid(reqs, hh)) {
-            return EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid session token.")
-                    .toResponse();
+            asyncResp.resume(EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid session token.")
+                    .toResponse());
+            return;
+        }
+
+        ConfigurationsSnapshot snapshot = sSnapshot;
+
+        if (snapshot != null) {
+            asyncResp.resume(getConfigurationsChanges(reqs, versionsJsonStr, snapshot));
+            return;
+        }
+
+        EndpointExecutors.MONGO.execute(asyncResp, new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                ConfigurationsSnapshot snapshot;
+                try {
+                    snapshot = getSnapshot();
+                } catch (RuntimeException e) {
+                    return EndpointErrorUtils.processServerFatalError(DATABASE_TRANSACTION, "Failed to load" +
+                            " configurations in getConfigurationsChangesRequest(): {}", e.toString()).toResponse();
+                }
+                return getConfigurationsChanges(reqs, versionsJsonStr, snapshot);
+            }
+        });
+    }
+
+    private Response getConfigurationsChanges(HttpServletRequest reqs, String versionsJsonStr,
+                                              ConfigurationsSnapshot snapshot) {
+        JSONObject versionsJson;
+        try {
+            versionsJson = versionsJsonStr == null || versionsJsonStr.isEmpty() ? new JSONObject() :
+                    new JSONObject(versionsJsonStr);
+        } catch (JSONException e) {
+            return EndpointErrorUtils.processClientFatalError(reqs, INVALID_PARAMETER, "Get configurations" +
+                    " changes: Body is not a JSON object of versions: {}", e.getMessage()).toResponse();
+        }
+        return new Result(snapshot.getChangesJson(versionsJson)).toResponse();
+    }
+
+    /**
+     * Get the current configurations snapshot, loading it if it has not been loaded yet.
+     * @throws RuntimeException If the configurations could not be queried
+     */
+    public static ConfigurationsSnapshot getSnapshot() {
+        ConfigurationsSnapshot snapshot = sSnapshot;
+        return snapshot != null ? snapshot : refreshSnapshot();
+    }
+
+    /**
+     * Load the configurations and keep them up to date in the background until {@link #stopRefreshing()}. If they
+     * cannot be loaded now, they are loaded by the background refresh or the first request.
+     */
+    public static void startRefreshing() {
+        try {
+            refreshSnapshot();
+        } catch (RuntimeException e) {
+            log.error("Failed to load configurations: {}", e.toString());
+        }
+
+        synchronized (sLock) {
+            if (sRefresher != null || sIsRefreshStopped) return;
+
+            sRefresher = EndpointExecutors.newThreadFactory("configurations-refresher").newThread(new Runnable() {
+                @Override
+                public void run() {
+                    watchConfigurations();
+                    pollConfigurations();
+                }
+            });
+            sRefresher.start();
+        }
+    }
+
+    public static void stopRefreshing() {
+        sIsRefreshStopped = true;
+        synchronized (sLock) {
+            if (sRefresher != null) {
+                sRefresher.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Query the configurations and publish a new snapshot if they changed; the server configurations are then also
+     * reinitialized.
+     * @return The current snapshot
+     */
+    private static ConfigurationsSnapshot refreshSnapshot() {
+        synchronized (sLock) {
+            JSONArray configurationsJsonArr = executeConfigurationsQuery();
+            ConfigurationsSnapshot current = sSnapshot;
+            ConfigurationsSnapshot snapshot = new ConfigurationsSnapshot(current == null ? 1 : current.getVersion() + 1,
+                    configurationsJsonArr);
+
+            if (current != null && current.getETag().equals(snapshot.getETag())) {
+                return current;
+            }
+
+            ConfigurationsManager.initializeConfigurations(configurationsJsonArr);
+            sSnapshot = snapshot;
+            log.info("Configurations snapshot {} loaded; ETag {}", snapshot.getVersion(), snapshot.getETag());
+            return snapshot;
+        }
+    }
+
+    /**
+     * Refresh the snapshot on every change of the configurations collection, until refreshing is stopped or the
+     * change stream fails.
+     */
+    private static void watchConfigurations() {
+        try (MongoCursor<ChangeStreamDocument<Document>> cursor = MongoDb.getDb()
+                .getCollection(MongoDb.COLL_CONFIGURATIONS).watch().iterator()) {
+            // Catch up with changes made before the change stream was opened
+            refreshSnapshot();
+
+            while (!sIsRefreshStopped) {
+                cursor.next();
+                refreshSnapshot();
+            }
+        } catch (RuntimeException e) {
+            if (!sIsRefreshStopped) {
+                log.info("Configurations change stream not available, polling every {} ms instead: {}", POLL_INTERVAL,
+                        e.toString());
+            }
+        }
+    }
+
+    private static void pollConfigurations() {
+        while (!sIsRefreshStopped) {
+            try {
+                Thread.sleep(POLL_INTERVAL);
+                refreshSnapshot();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                if (!sIsRefreshStopped) {
+                    log.warn("Failed to refresh configurations: {}", e.toString());
+                }
+            }
+        }
+    }
+
+    private static boolean isGzipAccepted(HttpHeaders hh) {
+        List<String> acceptEncodings = hh.getRequestHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncodings == null) return false;
+
+        for (String acceptEncoding : acceptEncodings) {
+            if (acceptEncoding.contains("gzip")) {
+                return true;
+            }
         }
-        return new Result(new JSONObject().put("configurations", executeConfigurationsQuery())).toResponse();
+        return false;
     }
 
     /**
      * Execute the configurations database query.
-     * @return JSON array of configurations
+     * @return JSON array of configurations, each with its version ({@link ConfigurationsManager#VERSION_KEY})
      */
     @SuppressWarnings("unchecked")
     protected static JSONArray executeConfigurationsQuery() {
@@ -49,7 +275,9 @@ public class ConfigurationsEndpoint {
         ArrayList<JSONObject> jsonObjs = new ArrayList<>(jsonStrs.size());
 
         for (String jsonStr : jsonStrs) {
-            jsonObjs.add(new JSONObject(JSONUtils.removeKeys(jsonStr, "_description")));
+            String configsJsonStr = DOCUMENTATION_KEY_FILTER.filter(jsonStr);
+            jsonObjs.add(new JSONObject(configsJsonStr).put(ConfigurationsManager.VERSION_KEY,
+                    ConfigurationsSnapshot.hash(configsJsonStr)));
         }
         return new JSONArray(jsonObjs);
     }
@@ -0,0 +1,195 @@
+package com.organization.backend.rest;
+
+import com.organization.commons.configuration.ConfigurationsManager;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONString;
+
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An immutable version of the configurations, with the {@code GET /configurations} response body serialized and
+ * gzipped once.
+ * <p>
+ * The ETag is a hash of the body, so it is the same on every server for the same configurations and clients can
+ * revalidate against any of them. The gzipped body is a different representation, so its strong ETag has the suffix
+ * {@value #GZIP_ETAG_SUFFIX}. Each configuration entity also has its own version, a hash of its content, so that
+ * clients can fetch only the entities that changed (see {@link #getChangesJson(JSONObject)}).
+ */
+public final class ConfigurationsSnapshot {
+    private static final CacheControl CACHE_CONTROL = CacheControl.valueOf("private, no-cache");
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+    private final long mVersion;
+    private final String mConfigurationsJson;
+    private final byte[] mBody;
+    private final byte[] mGzippedBody;
+    private final EntityTag mETag;
+    private final EntityTag mGzipETag;
+    private final Map<String, String> mEntityJsons; // By ID
+    private final Map<String, String> mEntityVersions; // By ID
+
+    /**
+     * @param configurationsJsonArr JSON array of the configuration entities, each with its ID and version
+     * @throws org.json.JSONException If an entity has no ID or version
+     */
+    ConfigurationsSnapshot(long version, JSONArray configurationsJsonArr) {
+        Map<String, String> entityJsons = new LinkedHashMap<>();
+        Map<String, String> entityVersions = new LinkedHashMap<>();
+        StringBuilder configurationsJson = new StringBuilder("[");
+
+        for (int i = 0; i < configurationsJsonArr.length(); i++) {
+            JSONObject entityJsonObj = configurationsJsonArr.getJSONObject(i);
+            String id = entityJsonObj.getString("_id");
+            String entityJson = entityJsonObj.toString();
+
+            entityJsons.put(id, entityJson);
+            entityVersions.put(id, entityJsonObj.getString(ConfigurationsManager.VERSION_KEY));
+            configurationsJson.append(i == 0 ? "" : ",").append(entityJson);
+        }
+
+        mVersion = version;
+        mEntityJsons = Collections.unmodifiableMap(entityJsons);
+        mEntityVersions = Collections.unmodifiableMap(entityVersions);
+        mConfigurationsJson = configurationsJson.append(']').toString();
+        mBody = ("{\"configurations\":" + mConfigurationsJson + "}").getBytes(StandardCharsets.UTF_8);
+        mGzippedBody = gzip(mBody);
+        mETag = new EntityTag(hash(mBody));
+        mGzipETag = new EntityTag(mETag.getValue() + GZIP_ETAG_SUFFIX);
+    }
+
+    /**
+     * Get the version of the snapshot on this server; it is incremented each time the configurations change.
+     */
+    public long getVersion() { return mVersion; }
+
+    /**
+     * Get the JSON array of the configurations.
+     */
+    public String getConfigurationsJson() { return mConfigurationsJson; }
+
+    /**
+     * Get the JSON array of the configurations to be put in a {@link org.json.JSONObject} without parsing it.
+     */
+    public JSONString getConfigurationsJsonString() {
+        return toJsonString(mConfigurationsJson);
+    }
+
+    /**
+     * Get the ETag of the body that is not gzipped.
+     */
+    public EntityTag getETag() { return mETag; }
+
+    /**
+     * Get the configuration entities that differ from the versions a client holds.
+     * @param clientVersionsJson JSON object of the version of each entity the client holds by ID
+     * @return JSON object with the array "configurations" of the entities that are new or changed and the array
+     * "removed" of the IDs the client holds that no longer exist
+     */
+    public JSONObject getChangesJson(JSONObject clientVersionsJson) {
+        JSONArray changedJsonArr = new JSONArray();
+        for (Map.Entry<String, String> entry : mEntityVersions.entrySet()) {
+            if (!entry.getValue().equals(clientVersionsJson.optString(entry.getKey(), null))) {
+                changedJsonArr.put(toJsonString(mEntityJsons.get(entry.getKey())));
+            }
+        }
+
+        JSONArray removedJsonArr = new JSONArray();
+        for (String id : clientVersionsJson.keySet()) {
+            if (!mEntityVersions.containsKey(id)) {
+                removedJsonArr.put(id);
+            }
+        }
+        return new JSONObject().put("configurations", changedJsonArr).put("removed", removedJsonArr);
+    }
+
+    /**
+     * Create the response of the snapshot.
+     * @param isGzipAccepted Whether the client accepts a gzip encoded body
+     */
+    public Response toResponse(boolean isGzipAccepted) {
+        Response.ResponseBuilder builder = Response.ok()
+                .type(MediaType.APPLICATION_JSON)
+                .tag(isGzipAccepted ? mGzipETag : mETag)
+                .cacheControl(CACHE_CONTROL)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (isGzipAccepted) {
+            builder.entity(mGzippedBody).encoding("gzip");
+        } else {
+            builder.entity(mBody);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Evaluate the request preconditions against the ETags of both bodies, as a client may have either of them.
+     * @param isGzipAccepted Whether the client accepts a gzip encoded body
+     * @return The 304 Not Modified response if the client already has the snapshot, or null
+     */
+    public Response evaluatePreconditions(Request req, boolean isGzipAccepted) {
+        if (req.evaluatePreconditions(mETag) == null && req.evaluatePreconditions(mGzipETag) == null) {
+            return null;
+        }
+        return Response.notModified(isGzipAccepted ? mGzipETag : mETag)
+                .cacheControl(CACHE_CONTROL)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .build();
+    }
+
+    /**
+     * Get a short hex hash of a string, used as the version of a configuration entity.
+     */
+    static String hash(String str) {
+        return hash(str.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static JSONString toJsonString(final String json) {
+        return new JSONString() {
+            @Override
+            public String toJSONString() {
+                return json;
+            }
+        };
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Not thrown by a ByteArrayOutputStream
+        }
+        return out.toByteArray();
+    }
+
+    private static String hash(byte[] bytes) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // SHA-256 is required on every Java platform
+        }
+
+        StringBuilder sb = new StringBuilder(32);
+        for (int i = 0; i < 16; i++) {
+            sb.append(Character.forDigit((digest[i] >> 4) & 0xf, 16)).append(Character.forDigit(digest[i] & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.organization.backend.rest;
+
+import com.organization.backend.base.MicrosHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.Response;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.organization.backend.rest.ServerFatalError.TYPE.ILLEGAL_STATE;
+import static com.organization.backend.rest.ServerFatalError.TYPE.SERVER_BUSY;
+
+/**
+ * A fixed size thread pool with a bounded queue that runs the blocking work of suspended requests on one type of
+ * dependency (e.g. the SQL database), so that a slow dependency neither holds container threads nor starves requests
+ * to other dependencies. When the queue is full, requests are rejected right away with a SERVER_BUSY error (status
+ * 503 with a Retry-After header).
+ */
+public class EndpointExecutor implements EndpointExecutorMetricsMXBean {
+    private static final Logger LOG = LoggerFactory.getLogger(EndpointExecutor.class);
+    public static final String OBJECT_NAME_PREFIX = "com.organization.backend:type=EndpointExecutor,name=";
+
+    /**
+     * Blocking work of a request.
+     */
+    public interface Task {
+        /**
+         * @return Response to resume the request with; null if the task arranged for the request to be resumed
+         * otherwise (e.g. by another executor)
+         */
+        Response call();
+    }
+
+    private final String mName;
+    private final int mMaxQueueDepth;
+    private final ThreadPoolExecutor mExecutor;
+    private final MicrosHistogram mQueueMicros = new MicrosHistogram();
+    private final AtomicLong mRejectedCount = new AtomicLong();
+
+    EndpointExecutor(String name, int numThreads, int maxQueueDepth) {
+        mName = name;
+        mMaxQueueDepth = maxQueueDepth;
+        mExecutor = new ThreadPoolExecutor(numThreads, numThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(maxQueueDepth), EndpointExecutors.newThreadFactory("endpoint-" + name),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME_PREFIX + name));
+        } catch (Exception e) {
+            LOG.warn("Failed to register endpoint executor metrics MBean: {}", e.toString());
+        }
+    }
+
+    /**
+     * Run a task and resume a suspended request with its response.
+     */
+    public void execute(final AsyncResponse asyncResp, final Task task) {
+        final long queuedAt = System.nanoTime();
+
+        try {
+            mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    mQueueMicros.record(System.nanoTime() - queuedAt);
+                    if (asyncResp.isDone()) return; // Timed out or cancelled while queued
+
+                    Response resp;
+                    try {
+                        resp = task.call();
+                    } catch (RuntimeException e) {
+                        resp = EndpointErrorUtils.processServerFatalError(ILLEGAL_STATE, "Failed to execute request" +
+                                " on endpoint executor {}: {}", mName, e.toString()).toResponse();
+                    }
+
+                    if (resp != null) {
+                        asyncResp.resume(resp);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            mRejectedCount.incrementAndGet();
+            asyncResp.resume(new Result(SERVER_BUSY).toResponse());
+        }
+    }
+
+    @Override
+    public String getName() { return mName; }
+
+    @Override
+    public int getThreads() { return mExecutor.getMaximumPoolSize(); }
+
+    @Override
+    public int getActiveThreads() { return mExecutor.getActiveCount(); }
+
+    @Override
+    public int getQueueDepth() { return mExecutor.getQueue().size(); }
+
+    @Override
+    public int getMaxQueueDepth() { return mMaxQueueDepth; }
+
+    @Override
+    public long getCompletedCount() { return mExecutor.getCompletedTaskCount(); }
+
+    @Override
+    public long getRejectedCount() { return mRejectedCount.get(); }
+
+    @Override
+    public long getMaxQueueMicros() { return mQueueMicros.getMaxMicros(); }
+
+    @Override
+    public long[] getQueueMicrosHistogram() { return mQueueMicros.getBuckets(); }
+
+    @Override
+    public long getQueueMicrosPercentile(double percentile) { return mQueueMicros.getPercentileMicros(percentile); }
+
+    @Override
+    public String toString() {
+        return mName + ": active=" + getActiveThreads() + "/" + getThreads() + ", queued=" + getQueueDepth() + "/" +
+                getMaxQueueDepth() + ", rejected=" + getRejectedCount() + ", p99 queue=" +
+                getQueueMicrosPercentile(99) + "us";
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.organization.backend.rest;
+
+/**
+ * Live endpoint executor metrics, registered with JMX as {@value EndpointExecutor#OBJECT_NAME_PREFIX} followed by the
+ * executor name.
+ */
+public interface EndpointExecutorMetricsMXBean {
+
+    String getName();
+
+    int getThreads();
+
+    int getActiveThreads();
+
+    /**
+     * Number of requests waiting for a thread.
+     */
+    int getQueueDepth();
+
+    /**
+     * Number of requests that may wait for a thread; requests beyond it are rejected.
+     */
+    int getMaxQueueDepth();
+
+    long getCompletedCount();
+
+    long getRejectedCount();
+
+    long getMaxQueueMicros();
+
+    /**
+     * Queue time histogram; element i is the number of requests that waited less than 2^i microseconds (and at least
+     * 2^(i-1)) for a thread. The last element also counts all longer waits.
+     */
+    long[] getQueueMicrosHistogram();
+
+    /**
+     * Approximate queue time percentile (the upper bound of the histogram bucket it falls in).
+     * @param percentile Percentile between 0 and 100
+     */
+    long getQueueMicrosPercentile(double percentile);
+
+}
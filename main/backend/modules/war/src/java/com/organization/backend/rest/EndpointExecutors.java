@@ -0,0 +1,65 @@
+package com.organization.backend.rest;
+
+import com.organization.backend.database.SQLPoolConfig;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors shared by the endpoints.
+ * <p>
+ * The number of threads and maximum queue depth of each executor can be overridden with the system properties
+ * {@value #PROPERTY_PREFIX}[name].threads and {@value #PROPERTY_PREFIX}[name].maxQueueDepth, e.g.
+ * {@code -Dorganization.endpoint.cql.threads=32}.
+ */
+public class EndpointExecutors {
+    public static final String PROPERTY_PREFIX = "organization.endpoint.";
+
+    /**
+     * Executor of requests blocking on the SQL database. It has as many threads as the primary SQL connection pool
+     * has connections, as more threads would only wait on the pool.
+     */
+    public static final EndpointExecutor SQL = newExecutor("sql", SQLPoolConfig.current().getMaximumPoolSize(), 100);
+
+    /**
+     * Executor of requests blocking on the Apache Cassandra database.
+     */
+    public static final EndpointExecutor CQL = newExecutor("cql", 16, 200);
+
+    /**
+     * Executor of requests blocking on the MongoDB database.
+     */
+    public static final EndpointExecutor MONGO = newExecutor("mongo", 4, 50);
+
+    private static final ScheduledExecutorService sScheduler = Executors.newScheduledThreadPool(2,
+            newThreadFactory("endpoint-scheduler"));
+
+    /**
+     * Get the scheduler used to resume suspended requests after a delay. Tasks run on it should be short as they delay
+     * other scheduled tasks; blocking work should be handed to one of the executors.
+     */
+    public static ScheduledExecutorService getScheduler() {
+        return sScheduler;
+    }
+
+    private static EndpointExecutor newExecutor(String name, int numThreads, int maxQueueDepth) {
+        return new EndpointExecutor(name, Integer.getInteger(PROPERTY_PREFIX + name + ".threads", numThreads),
+                Integer.getInteger(PROPERTY_PREFIX + name + ".maxQueueDepth", maxQueueDepth));
+    }
+
+    static ThreadFactory newThreadFactory(final String namePrefix) {
+        return new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, namePrefix + "-" + mCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+}
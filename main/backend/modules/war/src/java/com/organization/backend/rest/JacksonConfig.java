@@ -1,28 +1,20 @@
 package com.organization.backend.rest;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
-import com.organization.commons.base.LowercaseEnumDeserializerModifier;
+import com.organization.commons.base.SerializeUtil;
 
 import javax.ws.rs.ext.ContextResolver;
 import javax.ws.rs.ext.Provider;
 
 /**
- * Custom Jackson object mapper for JAX-RS
+ * Custom Jackson object mapper for JAX-RS; the shared REST mapper of {@link SerializeUtil}, which allows deserializing
+ * all enum values using case-insensitive characters
  */
 @Provider
 public class JacksonConfig implements ContextResolver<ObjectMapper> {
-    private ObjectMapper mObjectMapper;
-
-    public JacksonConfig() throws Exception {
-        mObjectMapper = new ObjectMapper();
-        // Module that allows deserializing all enum values using case-insensitive characters
-        SimpleModule module = new SimpleModule().setDeserializerModifier(new LowercaseEnumDeserializerModifier());
-        mObjectMapper.registerModule(module);
-    }
 
     public ObjectMapper getContext(Class<?> objectType) {
-        return mObjectMapper;
+        return SerializeUtil.getRestObjectMapper();
     }
 
 }
@@ -1,7 +1,6 @@
 package com.organization.backend.rest;
 
-import com.organization.commons.configuration.ConfigurationsManager;
-import org.json.JSONArray;
+import com.organization.backend.database.Cassandra;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,8 +10,9 @@ public class RestApplication extends Application {
     private static final Logger Log = LoggerFactory.getLogger(RestApplication.class);
 
     static {
-        JSONArray configurationsJsonArr = ConfigurationsEndpoint.executeConfigurationsQuery();
-        ConfigurationsManager.initializeConfigurations(configurationsJsonArr.toString());
+        ConfigurationsEndpoint.startRefreshing();
+
+        Cassandra.StatementCache.prepareAllAtStartup();
     }
 
 }
\ No newline at end of file
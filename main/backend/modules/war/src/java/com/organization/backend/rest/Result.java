@@ -6,10 +6,14 @@ import com.organization.commons.rest.*;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 public class Result {
+    // Seconds after which a request rejected with SERVER_BUSY may be retried
+    private static final int SERVER_BUSY_RETRY_AFTER = 1;
+
     private String mMessage;
     private Object mJson;
     private EndpointsBaseError mError;
@@ -112,7 +116,11 @@ public class Result {
             // Note: Status BAD_REQUEST is used when the server throws an error accepting an invalid REST resource and
             // should REST therefore not be used for a client fatal error.
 
-            if (mError instanceof ServerFatalError) {
+            if (mError instanceof ServerFatalError && mError.getType() == ServerFatalError.TYPE.SERVER_BUSY) {
+                // Tells clients and load balancers that the request was not processed and may be retried
+                builder.status(Response.Status.SERVICE_UNAVAILABLE);
+                builder.header(HttpHeaders.RETRY_AFTER, SERVER_BUSY_RETRY_AFTER);
+            } else if (mError instanceof ServerFatalError) {
                 builder.status(Response.Status.INTERNAL_SERVER_ERROR);
             }
         }
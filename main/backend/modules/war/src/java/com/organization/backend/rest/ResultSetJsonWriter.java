@@ -0,0 +1,189 @@
+package com.organization.backend.rest;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.organization.backend.database.SQLManager;
+import com.organization.commons.base.DateUtils;
+import com.organization.commons.base.JSONUtils;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes the columns of SQL rows straight to a JSON generator, without row_to_json, a {@link org.json.JSONObject} or
+ * an intermediate string. A writer is created once for each use case with only the columns it needs; their camelcase
+ * JSON names are computed and encoded once.
+ * <p>
+ * The query must select the columns in the order of {@link #getColumns()}.
+ */
+public final class ResultSetJsonWriter {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final String mColumns;
+    private final SerializedString[] mNames;
+
+    /**
+     * @param columns Names of the columns to write; the JSON names are their camelcase names
+     */
+    public ResultSetJsonWriter(String... columns) {
+        StringBuilder sb = new StringBuilder();
+        mNames = new SerializedString[columns.length];
+
+        for (int i = 0; i < columns.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append(columns[i]);
+            mNames[i] = new SerializedString(JSONUtils.toCamelCase(columns[i]));
+        }
+        mColumns = sb.toString();
+    }
+
+    /**
+     * Get the columns as a SELECT list (e.g. "id, name, country_code").
+     */
+    public String getColumns() { return mColumns; }
+
+    /**
+     * Write the current row as a JSON object.
+     */
+    public void writeRow(ResultSet rs, JsonGenerator generator) throws SQLException, IOException {
+        writeValues(readRow(rs), generator);
+    }
+
+    /**
+     * Create the response body of the current row, as the value of a root key (e.g. {"user": {...}}). The row is
+     * written to the response output stream when the body is written; call {@link #close(ResultSet)} instead if the
+     * response is not resumed.
+     * <p>
+     * The result set, its statement and connection are closed as soon as the row has been read, before the body is
+     * written to the client, or when the timeout elapses if the row has not been read by then (the write then fails),
+     * so that a slow client cannot keep the connection checked out. Reading the row and closing on timeout exclude
+     * each other, so the result set is never closed while the row is read.
+     * @param rootKey Key of the row in the root object
+     * @param timeout Time in ms from now after which the result set is closed
+     */
+    public StreamingOutput toStreamingOutput(final String rootKey, final ResultSet rs, long timeout) {
+        final Object lock = new Object();
+        final AtomicBoolean isClosed = new AtomicBoolean(); // Guarded by lock
+        final Runnable closer = new Runnable() {
+            @Override
+            public void run() {
+                // Waits for a row being read, which is in memory and involves no I/O to the client
+                synchronized (lock) {
+                    if (isClosed.compareAndSet(false, true)) {
+                        close(rs);
+                    }
+                }
+            }
+        };
+        final ScheduledFuture<?> timeoutFuture = EndpointExecutors.getScheduler().schedule(closer, timeout,
+                TimeUnit.MILLISECONDS);
+
+        return new StreamingOutput() {
+            @Override
+            public void write(OutputStream out) throws IOException {
+                Object[] values;
+                try {
+                    synchronized (lock) {
+                        if (isClosed.get()) {
+                            throw new IOException("Result set closed as the row was not written within the timeout");
+                        }
+                        values = readRow(rs);
+                    }
+                } catch (SQLException e) {
+                    throw new IOException("Failed to read row: " + e.toString(), e);
+                } finally {
+                    timeoutFuture.cancel(false);
+                    closer.run();
+                }
+
+                try (JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+                    generator.writeStartObject();
+                    generator.writeFieldName(rootKey);
+                    writeValues(values, generator);
+                    generator.writeEndObject();
+                }
+            }
+        };
+    }
+
+    /**
+     * Close a result set, its statement and its connection. Nothing is closed twice if the result set is already
+     * closed.
+     */
+    public static void close(ResultSet rs) {
+        Statement stmt = null;
+        Connection conn = null;
+
+        try {
+            stmt = rs.getStatement();
+            conn = stmt.getConnection();
+        } catch (SQLException ignored) {
+        }
+        SQLManager.closeQuietly(rs);
+        SQLManager.closeQuietly(stmt);
+        SQLManager.closeQuietly(conn);
+    }
+
+    /**
+     * Read the columns of the current row. Timestamps are read in UTC, as the server stores them; getObject would
+     * read them in the default time zone of the JVM.
+     */
+    private Object[] readRow(ResultSet rs) throws SQLException {
+        Object[] values = new Object[mNames.length];
+        ResultSetMetaData metaData = rs.getMetaData();
+
+        for (int i = 0; i < values.length; i++) {
+            int type = metaData.getColumnType(i + 1);
+            values[i] = type == Types.TIMESTAMP || type == Types.TIMESTAMP_WITH_TIMEZONE ?
+                    rs.getTimestamp(i + 1, DateUtils.getUtcCalendar()) : rs.getObject(i + 1);
+        }
+        return values;
+    }
+
+    private void writeValues(Object[] values, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+
+        for (int i = 0; i < mNames.length; i++) {
+            generator.writeFieldName(mNames[i]);
+            writeValue(values[i], generator);
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeValue(Object value, JsonGenerator generator) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof String) {
+            generator.writeString((String) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            generator.writeNumber(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            generator.writeNumber((Long) value);
+        } else if (value instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) value);
+        } else if (value instanceof Number) {
+            generator.writeNumber(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof Date) {
+            generator.writeString(DateUtils.toIso8601((Date) value));
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+}
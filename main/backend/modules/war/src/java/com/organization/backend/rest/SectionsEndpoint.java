@@ -0,0 +1,132 @@
+package com.organization.backend.rest;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ResultSet;
+import com.organization.backend.authentication.EndpointAuthenticationUtils;
+import com.organization.backend.database.Cassandra;
+import com.organization.backend.database.CassandraAsync;
+import com.organization.backend.database.DbConstants;
+import com.organization.backend.database.VoteCounterAggregator;
+import com.organization.commons.rest.InsertRequest;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.organization.backend.rest.ClientFatalError.TYPE.INVALID_PARAMETER;
+import static com.organization.backend.rest.ClientFatalError.TYPE.UNAUTHORIZED;
+import static com.organization.backend.rest.ServerFatalError.TYPE.DATABASE_TRANSACTION;
+import static com.organization.backend.rest.ServerFatalError.TYPE.SERVER_BUSY;
+import static com.organization.commons.rest.ServerResponseGeneralError.TYPE.ALREADY_EXISTS;
+
+@Path("/sections")
+public class SectionsEndpoint {
+    private static final long VOTE_CQL_TIMEOUT = 10000;
+
+    /**
+     * Vote on a section. A user can vote once on each section. The vote counters of the section are updated in the
+     * background, so they may not include the vote for a few seconds.
+     * @param userId Organization user account ID
+     * @param isUp True for an up vote; false for a down vote
+     */
+    @POST @Path("/vote/{sectionId}")
+    @Consumes("application/x-www-form-urlencoded") @Produces("application/json")
+    public void voteRequest(@Suspended final AsyncResponse asyncResp, @Context final HttpServletRequest reqs,
+                            @Context final HttpHeaders hh, @PathParam("sectionId") final String sectionId,
+                            @FormParam("userId") final long userId, @FormParam("up") final boolean isUp) {
+        EndpointExecutors.CQL.execute(asyncResp, new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                return vote(reqs, hh, sectionId, userId, isUp);
+            }
+        });
+    }
+
+    private Response vote(HttpServletRequest reqs, HttpHeaders hh, String sectionId, long userId, boolean isUp) {
+        if (!EndpointAuthenticationUtils.isUserTokenValid(hh, userId)) {
+            return EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid user token")
+                    .toResponse();
+        } else if (sectionId == null || sectionId.equals("")) {
+            return EndpointErrorUtils.processClientFatalError(reqs, INVALID_PARAMETER, "Vote: Parameter" +
+                    " \"sectionId\" null or empty.").toResponse();
+        }
+
+        ResultSet reslSet;
+
+        try {
+            BoundStatement stmt = Cassandra.StatementCache.getStatement(DbConstants.CQL.Statements.INSERT_USER_VOTE)
+                    .bind(userId, sectionId, new Date());
+            reslSet = CassandraAsync.executeAsync(stmt).get(VOTE_CQL_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException | ExecutionException | TimeoutException e) {
+            return EndpointErrorUtils.processServerFatalError(DATABASE_TRANSACTION, "Failed to execute statement" +
+                    " in voteRequest(): {}", e.toString()).toResponse();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(SERVER_BUSY).toResponse();
+        }
+
+        if (!reslSet.wasApplied()) {
+            return new Result(ALREADY_EXISTS, "Already voted.").toResponse();
+        }
+
+        if (!VoteCounterAggregator.get().addVote(sectionId, isUp)) {
+            // The user vote is recorded but would not be counted, so it is removed for the client to retry
+            try {
+                CassandraAsync.executeAsync(Cassandra.StatementCache.getStatement(
+                        DbConstants.CQL.Statements.DELETE_USER_VOTE).bind(userId, sectionId))
+                        .get(VOTE_CQL_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException | ExecutionException | TimeoutException e) {
+                return EndpointErrorUtils.processServerFatalError(DATABASE_TRANSACTION, "Failed to remove vote" +
+                        " of user {} on section {} not counted: {}", userId, sectionId, e.toString()).toResponse();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Result(SERVER_BUSY).toResponse();
+        }
+        TrendingSections.addVote(sectionId);
+        return new Result(new InsertRequest("section vote")).toResponse();
+    }
+
+    /**
+     * Get the most voted sections of a recent time window, from the votes made on every server. The votes of other
+     * servers are included once exchanged, every 60th of the window but at most every 10 seconds. Vote counts are
+     * estimated and decay over the window, so they are only meant for ordering.
+     * @param windowName "5m", "1h" (default) or "24h"
+     */
+    @GET @Path("/trending")
+    @Produces("application/json")
+    public Response getTrendingSectionsRequest(@Context HttpServletRequest reqs, @Context HttpHeaders hh,
+                                               @QueryParam("window") @DefaultValue("1h") String windowName) {
+        if (!EndpointAuthenticationUtils.isSessionTokenValid(reqs, hh)) {
+            return EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid session token.")
+                    .toResponse();
+        }
+
+        TrendingSections.Window window = TrendingSections.Window.fromName(windowName);
+        if (window == null) {
+            return EndpointErrorUtils.processClientFatalError(reqs, INVALID_PARAMETER, "Get trending sections:" +
+                    " Parameter \"window\" must be 5m, 1h or 24h.").toResponse();
+        }
+
+        JSONArray jsonArr = new JSONArray();
+        for (Map.Entry<String, Double> section : window.getTop()) {
+            JSONObject jsonObje = new JSONObject();
+            jsonObje.put("sectionId", section.getKey());
+            jsonObje.put("score", Math.round(section.getValue() * 100) / 100.0);
+            jsonArr.put(jsonObje);
+        }
+        return new Result(jsonArr).toResponse();
+    }
+
+}
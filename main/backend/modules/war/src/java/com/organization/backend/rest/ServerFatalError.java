@@ -14,7 +14,11 @@ public class ServerFatalError implements EndpointsBaseError {
 
         // error caused when the server or a database or database information are in an incorrect state to process a
         // request (e.g. when configuration are not initialized)
-        ILLEGAL_STATE(120);
+        ILLEGAL_STATE(120),
+
+        // error caused when the server is too busy to accept a request (e.g. when the queue of the executor of a
+        // database is full); the request may be retried later, so it is sent with status 503 and a Retry-After header
+        SERVER_BUSY(130);
 
         private final int mCode;
 
@@ -0,0 +1,253 @@
+package com.organization.backend.rest;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.utils.Bytes;
+import com.organization.backend.base.HeavyHitters;
+import com.organization.backend.database.Cassandra;
+import com.organization.backend.database.CassandraAsync;
+import com.organization.backend.database.DbConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The most voted sections of the last 5 minutes, hour and day, kept in memory from the votes made on this server and
+ * the latest windows received from other servers.
+ * <p>
+ * Each window is a {@link HeavyHitters} whose counts decay exponentially, with a mean lifetime of the window length,
+ * in {@value #NUM_DECAY_STEPS} steps per window length. Memory is therefore fixed whatever the number of sections. The
+ * width and depth of the sketches and the number of sections kept can be overridden with the system properties
+ * {@value #PROPERTY_PREFIX}width, depth and k; they must be the same on every server for windows to be merged.
+ * <p>
+ * The window of this server only ever counts its own votes. The latest window of each other server replaces the
+ * previous one it sent, and they are combined in a new instance for each query, so votes are never counted twice.
+ * <p>
+ * Windows are exchanged through Cassandra by {@link #exchangeWindows()}: every server writes its own windows with a
+ * TTL of the window length and reads those of the others, every {@value #NUM_DECAY_STEPS}th of the window length but
+ * at most every {@value #EXCHANGE_INTERVAL} ms. The windows of a server that stopped expire, and a restarted server
+ * starts with empty windows under a new ID.
+ */
+public class TrendingSections {
+    private static final Logger LOG = LoggerFactory.getLogger(TrendingSections.class);
+    public static final String PROPERTY_PREFIX = "organization.trending.";
+    public static final long EXCHANGE_INTERVAL = 10000;
+    private static final long EXCHANGE_CQL_TIMEOUT = 5000;
+    private static final int NUM_DECAY_STEPS = 60;
+    private static final String SERVER_ID = UUID.randomUUID().toString();
+
+    private static final int K = Integer.getInteger(PROPERTY_PREFIX + "k", 50);
+    private static final int WIDTH = Integer.getInteger(PROPERTY_PREFIX + "width", 2048);
+    private static final int DEPTH = Integer.getInteger(PROPERTY_PREFIX + "depth", 4);
+
+    public enum Window {
+        FIVE_MINUTES ("5m", TimeUnit.MINUTES.toMillis(5)),
+        ONE_HOUR ("1h", TimeUnit.HOURS.toMillis(1)),
+        ONE_DAY ("24h", TimeUnit.DAYS.toMillis(1));
+
+        private final String mName;
+        private final long mLength;
+        private final long mExchangeInterval;
+        private long mLastExchangedAt; // Only accessed by exchangeWindows()
+        private final HeavyHitters mSections = new HeavyHitters(K, WIDTH, DEPTH);
+        private final Map<String, Peer> mPeers = new HashMap<>(); // Guarded by mSections
+
+        static {
+            for (final Window window : values()) {
+                long interval = window.mLength / NUM_DECAY_STEPS;
+                EndpointExecutors.getScheduler().scheduleAtFixedRate(new Runnable() {
+                    @Override
+                    public void run() {
+                        window.decay();
+                    }
+                }, interval, interval, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        Window(String name, long length) {
+            mName = name;
+            mLength = length;
+            mExchangeInterval = Math.max(EXCHANGE_INTERVAL, length / NUM_DECAY_STEPS);
+        }
+
+        /**
+         * @return Null if there is no window with the name
+         */
+        public static Window fromName(String name) {
+            for (Window window : values()) {
+                if (window.mName.equals(name)) {
+                    return window;
+                }
+            }
+            return null;
+        }
+
+        public String getName() { return mName; }
+
+        /**
+         * Get the sections with the most votes on this server and the other servers, and their decayed vote counts,
+         * most voted first.
+         */
+        public List<Map.Entry<String, Double>> getTop() {
+            synchronized (mSections) {
+                removeStalePeers();
+                if (mPeers.isEmpty()) {
+                    return mSections.getTop();
+                }
+
+                List<HeavyHitters> windows = new ArrayList<>(mPeers.size() + 1);
+                windows.add(mSections);
+                for (Peer peer : mPeers.values()) {
+                    windows.add(peer.mSections);
+                }
+                return HeavyHitters.merged(windows).getTop();
+            }
+        }
+
+        /**
+         * Write the window of the votes made on this server, without those of other servers, so that another server
+         * can set it with {@link #setPeer(String, DataInput)}.
+         */
+        public void writeTo(DataOutput out) throws IOException {
+            synchronized (mSections) {
+                mSections.writeTo(out);
+            }
+        }
+
+        /**
+         * Set the same window written by another server, replacing the one it sent before. A server that sends
+         * nothing for a window length is no longer counted.
+         * @param serverId ID of the other server
+         * @throws IOException If the window could not be read or its sketch size differs
+         */
+        public void setPeer(String serverId, DataInput in) throws IOException {
+            HeavyHitters other = HeavyHitters.readFrom(in);
+            if (other.getWidth() != WIDTH || other.getDepth() != DEPTH) {
+                throw new IOException("Window of server " + serverId + " has sketch size " + other.getWidth() + "x" +
+                        other.getDepth() + " instead of " + WIDTH + "x" + DEPTH);
+            }
+
+            synchronized (mSections) {
+                mPeers.put(serverId, new Peer(other));
+            }
+        }
+
+        /**
+         * Write the window of this server and replace the windows of the other servers with those read.
+         */
+        private void exchange() throws IOException, ExecutionException, InterruptedException, TimeoutException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writeTo(new DataOutputStream(bytes));
+            CassandraAsync.executeAsync(Cassandra.StatementCache.getStatement(
+                    DbConstants.CQL.Statements.INSERT_TRENDING_SECTION_WINDOW).bind(mName, SERVER_ID,
+                    ByteBuffer.wrap(bytes.toByteArray()), (int) TimeUnit.MILLISECONDS.toSeconds(mLength)))
+                    .get(EXCHANGE_CQL_TIMEOUT, TimeUnit.MILLISECONDS);
+
+            ResultSet rs = CassandraAsync.executeAsync(Cassandra.StatementCache.getStatement(
+                    DbConstants.CQL.Statements.SELECT_TRENDING_SECTION_WINDOWS).bind(mName))
+                    .get(EXCHANGE_CQL_TIMEOUT, TimeUnit.MILLISECONDS);
+
+            Set<String> serverIds = new HashSet<>();
+            for (Row row : rs) {
+                String serverId = row.getString("server_id");
+                if (serverId.equals(SERVER_ID)) continue;
+
+                try {
+                    setPeer(serverId, new DataInputStream(new ByteArrayInputStream(Bytes.getArray(
+                            row.getBytes("sections")))));
+                    serverIds.add(serverId);
+                } catch (IOException e) {
+                    LOG.warn("Ignoring trending sections window {} of server {}: {}", mName, serverId, e.toString());
+                }
+            }
+
+            synchronized (mSections) {
+                mPeers.keySet().retainAll(serverIds);
+            }
+        }
+
+        private void removeStalePeers() {
+            long oldest = System.currentTimeMillis() - mLength;
+            Iterator<Peer> it = mPeers.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().mReceivedAt < oldest) {
+                    it.remove();
+                }
+            }
+        }
+
+        private void add(String sectionId) {
+            synchronized (mSections) {
+                mSections.add(sectionId, 1);
+            }
+        }
+
+        private void decay() {
+            synchronized (mSections) {
+                mSections.scale(Math.exp(-1.0 / NUM_DECAY_STEPS));
+            }
+        }
+    }
+
+    private static class Peer {
+        final HeavyHitters mSections;
+        final long mReceivedAt;
+
+        Peer(HeavyHitters sections) {
+            mSections = sections;
+            mReceivedAt = System.currentTimeMillis();
+        }
+    }
+
+    private TrendingSections() { }
+
+    /**
+     * Write the windows of this server and read those of the other servers, for each window whose exchange interval
+     * has elapsed. Meant to run every {@value #EXCHANGE_INTERVAL} ms; a window that fails is retried on the next run.
+     */
+    public static void exchangeWindows() {
+        long now = System.currentTimeMillis();
+        for (Window window : Window.values()) {
+            if (now - window.mLastExchangedAt < window.mExchangeInterval) continue;
+
+            try {
+                window.exchange();
+                window.mLastExchangedAt = now;
+            } catch (IOException | ExecutionException | TimeoutException | RuntimeException e) {
+                LOG.warn("Failed to exchange trending sections window {}: {}", window.mName, e.toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Count a vote on a section in every window.
+     */
+    public static void addVote(String sectionId) {
+        for (Window window : Window.values()) {
+            window.add(sectionId);
+        }
+    }
+
+}
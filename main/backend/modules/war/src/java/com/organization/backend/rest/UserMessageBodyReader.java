@@ -0,0 +1,43 @@
+package com.organization.backend.rest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.organization.commons.codec.JsonCodecs;
+import com.organization.commons.model.User;
+import com.organization.commons.model.UserCodec;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Reads {@link User} request entities, e.g. of sign up, with the generated {@link UserCodec} rather than by Jackson
+ * data binding; the write-only password is read. Unlike {@link JacksonConfig}'s mapper, unknown properties are skipped.
+ */
+@Provider
+@Consumes(MediaType.APPLICATION_JSON)
+public class UserMessageBodyReader implements MessageBodyReader<User> {
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == User.class;
+    }
+
+    @Override
+    public User readFrom(Class<User> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                         MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        try (JsonParser parser = JsonCodecs.createParser(entityStream)) {
+            return UserCodec.read(parser);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Invalid user JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+}
@@ -1,16 +1,23 @@
 package com.organization.backend.rest;
 
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.organization.backend.authentication.EndpointAuthenticationUtils;
 import com.organization.backend.authentication.UserAuthentication;
+import com.organization.backend.authentication.UserTokenCache;
 import com.organization.backend.database.Cassandra;
+import com.organization.backend.database.CassandraAsync;
 import com.organization.backend.database.DbConstants;
 import com.organization.backend.database.SQLManager;
+import com.organization.backend.util.Loggers;
 import com.organization.commons.base.DateUtils;
-import com.organization.commons.base.DevLog;
 import com.organization.commons.base.JSONUtils;
 import com.organization.commons.configuration.RegulationConfigurations;
+import com.organization.commons.internal.CommonsConstants;
 import com.organization.commons.model.LoginService;
 import com.organization.commons.model.User;
 import com.organization.commons.rest.InputResponse;
@@ -18,33 +25,66 @@ import com.organization.commons.rest.UpdateRequest;
 import com.organization.commons.rest.ValueRequest;
 import com.organization.commons.validation.UserValidator;
 import org.json.JSONObject;
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.container.TimeoutHandler;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 import static com.organization.backend.rest.ClientFatalError.TYPE.*;
 import static com.organization.backend.rest.ServerFatalError.TYPE.DATABASE_TRANSACTION;
+import static com.organization.backend.rest.ServerFatalError.TYPE.ILLEGAL_STATE;
+import static com.organization.backend.rest.ServerFatalError.TYPE.SERVER_BUSY;
 import static com.organization.commons.rest.ServerResponseGeneralError.TYPE.*;
 
 @Path("/users")
 public class UsersEndpoint {
+    private static final Logger LOG = LoggerFactory.getLogger(UsersEndpoint.class);
+    private static final long MIN_LOG_OUT_LOG_IN_INTERVAL = 8000;
+    private static final long LOG_IN_TIMEOUT = MIN_LOG_OUT_LOG_IN_INTERVAL + 10000;
+    private static final long GET_USER_WRITE_TIMEOUT = 10000;
+    private static final ResultSetJsonWriter USER_ACCOUNT_WRITER = new ResultSetJsonWriter("id", "name", "email",
+            "country_code", "phone_number", "first_name", "last_name");
 
     /**
      * Log in a user.
      */
     @POST @Path("/log_in/{phoneNumberEmailAddressOrName}")
     @Consumes("application/x-www-form-urlencoded") @Produces("application/json")
-    public Response logInRequest(@Context HttpServletRequest reqs, @Context HttpHeaders hh,
-                                 @PathParam("phoneNumberEmailAddressOrName") String phoneNumberEmailAddressOrName,
-                                 @FormParam("password") String password) {
+    public void logInRequest(@Suspended final AsyncResponse asyncResp, @Context final HttpServletRequest reqs,
+                             @Context final HttpHeaders hh,
+                             @PathParam("phoneNumberEmailAddressOrName") final String phoneNumberEmailAddressOrName,
+                             @FormParam("password") final String password) {
+        final SuspendedLogIn suspLogIn = new SuspendedLogIn(asyncResp);
+        EndpointExecutors.SQL.execute(asyncResp, new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                return logIn(suspLogIn, reqs, hh, phoneNumberEmailAddressOrName, password);
+            }
+        });
+    }
+
+    /**
+     * @return Null if the credentials are valid, as the request is then resumed once it has been finalized
+     */
+    private Response logIn(SuspendedLogIn suspLogIn, HttpServletRequest reqs, HttpHeaders hh,
+                           String phoneNumberEmailAddressOrName, String password) {
         if (!EndpointAuthenticationUtils.isSessionTokenValid(reqs, hh)) {
             return EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid session token")
                     .toResponse();
@@ -53,32 +93,76 @@ public class UsersEndpoint {
                     " \"password\" null or empty.").toResponse();
         }
 
-        try (Connection conn = SQLManager.getConnection(false)) {
-            JSONObject userJsonObje = executeLogInQuery(phoneNumberEmailAddressOrName, password, conn);
+        JSONObject logInJsonObje;
 
-            if (userJsonObje == null) {
-                return new Result(INVALID_CREDENTIALS, "Invalid credentials.").toResponse();
-            }
-
-            Result res = finalizeLogInRequest(userJsonObje, conn);
-            conn.commit();
-            return res.toResponse();
+        try (Connection conn = SQLManager.getConnection(true)) {
+            logInJsonObje = executeLogInAndLoadUserQuery(phoneNumberEmailAddressOrName, password, conn);
         } catch (SQLException e) {
             return EndpointErrorUtils.processServerFatalError(DATABASE_TRANSACTION, "Failed to execute query in" +
                     " logInRequest(): {}", e.toString()).toResponse();
         }
+
+        if (logInJsonObje == null) {
+            return new Result(INVALID_CREDENTIALS, "Invalid credentials.").toResponse();
+        }
+        resumeLogInRequestAfterInterval(suspLogIn, logInJsonObje);
+        return null;
+    }
+
+    /**
+     * Finalize a log in request on the Apache Cassandra executor once the minimum log out/log in interval has
+     * elapsed.
+     * <p>
+     * Do not allow the user to log out and log in until a small interval time has elapsed to ensure user data stored
+     * in the Apache Cassandra database has been synced across nodes before the user retrieves it. Note: This will not
+     * apply if a user logs in from another device while still being logged in on one device. The request is
+     * suspended while waiting; no thread or SQL connection is held.
+     * @param logInJsonObje Log in JSON returned by database function log_in_and_load_user
+     */
+    private static void resumeLogInRequestAfterInterval(final SuspendedLogIn suspLogIn,
+                                                        final JSONObject logInJsonObje) {
+        final EndpointExecutor.Task finalizer = new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                finalizeLogInRequest(suspLogIn, logInJsonObje);
+                return null;
+            }
+        };
+
+        long remainingIntr = 0;
+        if (!logInJsonObje.isNull("loggedOutAt")) {
+            remainingIntr = MIN_LOG_OUT_LOG_IN_INTERVAL - (System.currentTimeMillis() -
+                    logInJsonObje.getLong("loggedOutAt"));
+        }
+
+        if (remainingIntr <= 0) {
+            EndpointExecutors.CQL.execute(suspLogIn.getAsyncResponse(), finalizer);
+            return;
+        }
+
+        try {
+            suspLogIn.setPending(EndpointExecutors.getScheduler().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    EndpointExecutors.CQL.execute(suspLogIn.getAsyncResponse(), finalizer);
+                }
+            }, remainingIntr, TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException e) {
+            suspLogIn.resume(EndpointErrorUtils.processServerFatalError(ILLEGAL_STATE, "Failed to schedule log in" +
+                    " in resumeLogInRequestAfterInterval(): {}", e.toString()).toResponse());
+        }
     }
 
     /**
-     * Execute a log in query.
+     * Log in a user and load all of its log in data in a single call to database function log_in_and_load_user.
      * @param phoneNumberEmailAddressOrName User phone number, email address or name
      * @param passw Organization user account password
-     * @param conn SQL connection to use; null to create one
-     * @return Row JSON of user account
+     * @param conn SQL connection to use
+     * @return Log in JSON of log_in_and_load_user with camelcase keys; null if the credentials are invalid
      * @throws SQLException If the query statement fails
      */
-    private static JSONObject executeLogInQuery(String phoneNumberEmailAddressOrName, String passw, Connection conn)
-            throws SQLException {
+    private static JSONObject executeLogInAndLoadUserQuery(String phoneNumberEmailAddressOrName, String passw,
+                                                           Connection conn) throws SQLException {
         String sqlLogInMethod;
 
         if (phoneNumberEmailAddressOrName.matches("^[0-9\\s()-+]+$")) {
@@ -90,182 +174,157 @@ public class UsersEndpoint {
             sqlLogInMethod = "name";
         }
 
-        Connection finlConn = conn;
         ResultSet rs = null;
-        JSONObject rowJsonObj = null;
 
-        if (conn == null) {
-            finlConn = SQLManager.getConnection(true);
-        }
-
-        try (PreparedStatement ps = finlConn.prepareStatement("SELECT row_to_json(sq) FROM (SELECT * FROM" +
-                " log_in_user_by_" + sqlLogInMethod + "(?, ?)) AS sq")) {
-            ps.setString(1, phoneNumberEmailAddressOrName);
-            ps.setString(2, passw);
-            rs = ps.executeQuery(); // TODO: Find out how to limit to one
+        try (PreparedStatement ps = conn.prepareStatement("SELECT log_in_and_load_user(?, ?, ?, ?)")) {
+            ps.setString(1, sqlLogInMethod);
+            ps.setString(2, phoneNumberEmailAddressOrName);
+            ps.setString(3, passw);
+            ps.setLong(4, CommonsConstants.Time.TWENTY_FOUR_HOURS);
+            ps.setQueryTimeout((int) (LOG_IN_TIMEOUT / 1000));
+            rs = ps.executeQuery();
 
             if (rs.next()) {
-                rowJsonObj = new JSONObject(rs.getString("row_to_json"));
+                String json = rs.getString(1);
+                return json == null ? null : new JSONObject(JSONUtils.formatKeysToCamelCase(json));
             }
+            return null;
         } finally {
             SQLManager.closeQuietly(rs);
-            if (conn == null) {
-                SQLManager.closeQuietly(finlConn);
-            }
-        }
-
-        if (rowJsonObj == null) {
-            return null;
-        } else {
-            return finalizeLogInQueryJson(rowJsonObj);
         }
     }
 
     /**
-     * Execute a log in query by user ID.
+     * Check the credentials of a user by user ID. Only the ID is selected, so the password hash is not sent by the
+     * database.
      * @param userId Organization user account ID
-     * @param userPassword Organization user account password; may be null
-     * @param conn SQL connection to use; null to create one
+     * @param userPassword Organization user account password; may be null to only check that the user exists
+     * @param conn SQL connection to use
      * @throws SQLException If the query statement fails
      */
-    private static JSONObject executeLogInQuery(long userId, String userPassword, Connection conn) throws SQLException {
-        Connection finalConn = conn;
-        ResultSet reslSet = null;
-        JSONObject rowJsonObje = null;
-
-        if (conn == null) {
-            finalConn = SQLManager.getConnection(true);
-        }
-
-        String stmt = "SELECT row_to_json(sq) FROM (SELECT * FROM " + DbConstants.SQL.USERS.TBL_USER +
-                " WHERE id = ?";
+    private static boolean isLogInValid(long userId, String userPassword, Connection conn) throws SQLException {
+        String stmt = "SELECT id FROM " + DbConstants.SQL.USERS.TBL_USER + " WHERE id = ?";
 
         // TODO: After removing external login service, make password required.
         if (userPassword != null) {
             stmt += " AND passw_hash = crypt(?, " + DbConstants.SQL.USERS.TBL_USER + ".passw_hash)";
         }
-        stmt += ") sq;";
 
-        try (PreparedStatement ps = finalConn.prepareStatement(stmt)) {
+        ResultSet reslSet = null;
+
+        try (PreparedStatement ps = conn.prepareStatement(stmt)) {
             ps.setLong(1, userId);
             if (userPassword != null) {
                 ps.setString(2, userPassword);
             }
             reslSet = ps.executeQuery();
-
-            if (reslSet.next()) {
-                rowJsonObje = new JSONObject(reslSet.getString("row_to_json"));
-            }
+            return reslSet.next();
         } finally {
             SQLManager.closeQuietly(reslSet);
-            if (conn == null) {
-                SQLManager.closeQuietly(finalConn);
-            }
-        }
-
-        if (rowJsonObje == null) {
-            return null;
-        } else {
-            return finalizeLogInQueryJson(rowJsonObje);
         }
     }
 
     /**
-     * Finalize the JSON of a log in query.
-     * @param userJsonObj Row JSON of user account.
+     * Finalize a log in request and resume it. The Apache Cassandra votes query is started first and runs while the
+     * rest of the response is assembled; the request is resumed when it completes.
+     * <p>
+     * The votes query cannot run at the same time as the SQL side of log in: it needs the user ID, which only
+     * log_in_and_load_user resolves from the credentials, and it must wait for the minimum log out/log in interval.
+     * Log in latency is therefore the SQL call plus the votes query; only the response assembly overlaps.
+     * @param logInJsonObje Log in JSON returned by database function log_in_and_load_user
      */
-    private static JSONObject finalizeLogInQueryJson(JSONObject userJsonObj) throws SQLException {
-        userJsonObj.remove("passw_hash");
-        userJsonObj.remove("created_at");
-        JSONUtils.formatKeysToCamelCase(userJsonObj);
-        return userJsonObj;
-    }
+    private static void finalizeLogInRequest(final SuspendedLogIn suspLogIn, JSONObject logInJsonObje) {
+        final JSONObject rootJsonObje = new JSONObject();
+        JSONObject userJsonObje = logInJsonObje.getJSONObject("user");
+        long userId = userJsonObje.getLong("id");
 
-    /**
-     * Finalize a log in request.
-     * @param userJsonObje Row JSON of user account
-     * @param conn SQL connection to use
-     */
-    private static Result finalizeLogInRequest(JSONObject userJsonObje, Connection conn) throws SQLException {
-        PreparedStatement ps = null;
-        ResultSet rs = null;
-        JSONObject rootJsonObje = new JSONObject();
+        ResultSetFuture votesFutr;
+        try {
+            votesFutr = Cassandra.getSession().executeAsync(
+                    Cassandra.StatementCache.getStatement(DbConstants.CQL.Statements.SELECT_USER_VOTES).bind(userId));
+        } catch (NoHostAvailableException | IllegalStateException e) {
+            suspLogIn.resume(EndpointErrorUtils.processServerFatalError(DATABASE_TRANSACTION, "Failed to execute" +
+                    " statement in finalizeLogInRequest(): {}", e.toString()).toResponse());
+            return;
+        }
+        suspLogIn.setPending(votesFutr);
 
         rootJsonObje.put("user", userJsonObje);
 
-        try {
-            long userId = userJsonObje.getLong("id");
-
-            // Do not allow the user to log out and log in until a small interval time has elapsed to ensure user data
-            // stored in the Apache Cassandra database has been synced across nodes before the user retrieves it. Note:
-            // This will not apply if a user logs in from another device while still being logged in on one device.
-            ps = conn.prepareStatement("SELECT logged_out_at FROM " + DbConstants.SQL.USERS.TBL_USER_LOG +
-                    " WHERE user_id = ?");
-            ps.setLong(1, userId);
-            rs = ps.executeQuery();
+        JSONObject activityJsonObje = logInJsonObje.optJSONObject("userActivity");
+        if (activityJsonObje != null) {
+            rootJsonObje.put("userActivity", activityJsonObje);
+        }
 
-            if (rs.next()) {
-                long minLogOutLogInIntr = 8000;
-                Date loggedOutAt = rs.getTimestamp("logged_out_at", DateUtils.getUtcCalendar());
-                DevLog.print(loggedOutAt);
-                long logOutLogInDelta = System.currentTimeMillis() - loggedOutAt.getTime();
-
-                if (logOutLogInDelta < minLogOutLogInIntr) {
-                    try {
-                        Thread.sleep(minLogOutLogInIntr - logOutLogInDelta);
-                    } catch (InterruptedException e) {
-                        LoggerFactory.getLogger(UsersEndpoint.class).error(
-                                "Failed to pause thread in finalizeLogInRequest(): {}", e.toString());
+        rootJsonObje.put("token", UserAuthentication.createToken(userId, logInJsonObje.getJSONObject("token")));
+
+        Futures.addCallback(votesFutr, new FutureCallback<com.datastax.driver.core.ResultSet>() {
+            @Override
+            public void onSuccess(final com.datastax.driver.core.ResultSet reslSet) {
+                // Reading the rows may fetch more pages, which must not be done on a driver I/O thread
+                EndpointExecutors.CQL.execute(suspLogIn.getAsyncResponse(), new EndpointExecutor.Task() {
+                    @Override
+                    public Response call() {
+                        JSONObject votesJsonObje = new JSONObject();
+
+                        for (Row row : reslSet) {
+                            votesJsonObje.put(row.getString("section_id"), row.getTimestamp("voted_at").getTime());
+                        }
+                        rootJsonObje.put("userVotes", votesJsonObje);
+                        return new Result(rootJsonObje).toResponse();
                     }
+                });
+            }
 
+            @Override
+            public void onFailure(Throwable t) {
+                if (!(t instanceof CancellationException)) {
+                    suspLogIn.resume(EndpointErrorUtils.processServerFatalError(DATABASE_TRANSACTION, "Failed to" +
+                            " execute statement on table \"{}\" in finalizeLogInRequest(): {}",
+                            DbConstants.CQL.TBL_USER_VOTES, t.toString()).toResponse());
                 }
             }
+        });
+    }
 
-            ps = conn.prepareStatement("UPDATE " + DbConstants.SQL.USERS.TBL_USER_LOG + " SET logged_in_at = '" +
-                    DateUtils.toIso8601(new Date()) + "', times_logged_in = times_logged_in + 1 WHERE user_id = ?");
-            ps.setLong(1, userId);
-            ps.executeUpdate();
+    /**
+     * A suspended log in request. The part of it that is still pending, the wait for the minimum log out/log in
+     * interval or the Apache Cassandra votes query, is cancelled if the request times out.
+     */
+    private static final class SuspendedLogIn implements TimeoutHandler {
+        private final AsyncResponse mAsyncResp;
+        private volatile Future<?> mPending;
+
+        SuspendedLogIn(AsyncResponse asyncResp) {
+            mAsyncResp = asyncResp;
+            asyncResp.setTimeoutHandler(this);
+            asyncResp.setTimeout(LOG_IN_TIMEOUT, TimeUnit.MILLISECONDS);
+        }
 
-            ps = conn.prepareStatement("SELECT row_to_json(sq) FROM (SELECT * FROM " +
-                    DbConstants.SQL.USERS.TBL_USER_ACTIVITY + " WHERE user_id = ?) sq;");
-            ps.setLong(1, userId);
-            rs = ps.executeQuery();
+        AsyncResponse getAsyncResponse() {
+            return mAsyncResp;
+        }
 
-            if (rs.next()) {
-                JSONObject jsonObje = new JSONObject(rs.getString("row_to_json"));
-                JSONUtils.formatKeysToCamelCase(jsonObje); // TODO: make function return json
-                rootJsonObje.put("userActivity", jsonObje);
+        void setPending(Future<?> pending) {
+            mPending = pending;
+            if (mAsyncResp.isDone()) {
+                pending.cancel(false);
             }
-        } finally {
-            SQLManager.closeQuietly(rs);
-            SQLManager.closeQuietly(ps);
         }
 
-        try {
-            com.datastax.driver.core.ResultSet reslSet = Cassandra.getSession(Cassandra.Node.NODE_1).execute(
-                    Cassandra.StatementCache.getStatement("SELECT section_id,voted_at FROM " +
-                            DbConstants.CQL.TBL_USER_VOTES + " WHERE user_id = ?").bind(userJsonObje.getLong(
-                                    "id")));
-            if (reslSet == null) {
-                return EndpointErrorUtils.processServerFatalError(DATABASE_TRANSACTION, "Failed to execute" +
-                                " statement on table \"{}\" in finalizeLogInRequest(): ResultSet null",
-                        DbConstants.CQL.TBL_USER_VOTES);
-            } else {
-                List<Row> rows = reslSet.all();
-                JSONObject votesJsonObje = new JSONObject();
-
-                for (Row row : rows) {
-                    votesJsonObje.put(row.getString("section_id"), row.getTimestamp("voted_at").getTime());
-                }
-                rootJsonObje.put("userVotes", votesJsonObje);
-            }
-        } catch (NoHostAvailableException e) {
-            return EndpointErrorUtils.processServerFatalError(DATABASE_TRANSACTION, "Failed to execute statement" +
-                    " in finalizeLogInRequest(): {}", e.toString());
+        void resume(Response resp) {
+            mAsyncResp.resume(resp);
         }
 
-        rootJsonObje.put("token", UserAuthentication.createToken(userJsonObje));
-        return new Result(rootJsonObje);
+        @Override
+        public void handleTimeout(AsyncResponse asyncResp) {
+            Future<?> pending = mPending;
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            LOG.warn("Log in timed out after {} ms", LOG_IN_TIMEOUT);
+            asyncResp.resume(new Result(SERVER_BUSY, "Log in timed out").toResponse());
+        }
     }
 
     /**
@@ -274,8 +333,17 @@ public class UsersEndpoint {
      */
     @POST @Path("/log_out/{userId}")
     @Consumes("application/json") @Produces("application/json")
-    public Response logOutRequest(@Context HttpServletRequest reqs, @Context HttpHeaders hh,
-                                  @PathParam("userId") long userId) {
+    public void logOutRequest(@Suspended final AsyncResponse asyncResp, @Context final HttpServletRequest reqs,
+                              @Context final HttpHeaders hh, @PathParam("userId") final long userId) {
+        EndpointExecutors.SQL.execute(asyncResp, new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                return logOut(reqs, hh, userId);
+            }
+        });
+    }
+
+    private Response logOut(HttpServletRequest reqs, HttpHeaders hh, long userId) {
         if (!EndpointAuthenticationUtils.isUserTokenValid(hh, userId)) {
             return EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid user token")
                     .toResponse();
@@ -288,6 +356,8 @@ public class UsersEndpoint {
                     DateUtils.toIso8601(new Date()) + "' WHERE user_id = ?");
             ps.setLong(1, userId);
             ps.executeUpdate();
+
+            UserAuthentication.revokeTokens(userId, conn);
         } catch (SQLException e) {
             return EndpointErrorUtils.processServerFatalError(DATABASE_TRANSACTION, "Failed to execute update"
                     + " for table '{}' in logOutRequest(): " + e.toString(), DbConstants.SQL.USERS.TBL_USER_LOG)
@@ -301,11 +371,25 @@ public class UsersEndpoint {
 
     /**
      * Add and log in a new user.
-     * @param user New user to add
+     * @param user New user to add, read by {@link UserMessageBodyReader}
      */
     @POST @Path("/add")
     @Consumes("application/json") @Produces("application/json")
-    public Response addUserAndLogInRequest(@Context HttpServletRequest reqs, @Context HttpHeaders hh, User user) {
+    public void addUserAndLogInRequest(@Suspended final AsyncResponse asyncResp, @Context final HttpServletRequest reqs,
+                                       @Context final HttpHeaders hh, final User user) {
+        final SuspendedLogIn suspLogIn = new SuspendedLogIn(asyncResp);
+        EndpointExecutors.SQL.execute(asyncResp, new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                return addUserAndLogIn(suspLogIn, reqs, hh, user);
+            }
+        });
+    }
+
+    /**
+     * @return Null if the user was added, as the request is then resumed once the log in has been finalized
+     */
+    private Response addUserAndLogIn(SuspendedLogIn suspLogIn, HttpServletRequest reqs, HttpHeaders hh, User user) {
         if (!EndpointAuthenticationUtils.isSessionTokenValid(reqs, hh)) {
             return EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid session token")
                     .toResponse();
@@ -315,10 +399,15 @@ public class UsersEndpoint {
             Result res = executeInsertNewUser(reqs, user, LoginService.ORGANIZATION, conn);
             if (res.getError() != null) return res.toResponse();
 
-            res = finalizeLogInRequest(executeLogInQuery(user.getName(), user.getPassword(), conn), conn);
-
+            JSONObject logInJsonObje = executeLogInAndLoadUserQuery(user.getName(), user.getPassword(), conn);
             conn.commit();
-            return res.toResponse();
+
+            if (logInJsonObje == null) {
+                return EndpointErrorUtils.processServerFatalError(DATABASE_TRANSACTION, "Failed to log in new user" +
+                        " in addUserAndLogInRequest()").toResponse();
+            }
+            resumeLogInRequestAfterInterval(suspLogIn, logInJsonObje);
+            return null;
         } catch (SQLException e) {
             return EndpointErrorUtils.processServerFatalError(DATABASE_TRANSACTION, "Failed to execute statement" +
                     " in addUserAndLogInRequest(): {}", e.toString()).toResponse();
@@ -467,6 +556,69 @@ public class UsersEndpoint {
         return new Result(orgUserId);
     }
 
+    /**
+     * Get the account data of a user: its ID, name, email address, country code, phone number, first name and last
+     * name. The row is written straight to the response as {"user": {...}}.
+     * @param userId Organization user account ID
+     */
+    @GET @Path("/{userId}")
+    @Produces("application/json")
+    public void getUserRequest(@Suspended final AsyncResponse asyncResp, @Context final HttpServletRequest reqs,
+                               @Context final HttpHeaders hh, @PathParam("userId") final long userId) {
+        EndpointExecutors.SQL.execute(asyncResp, new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                return getUser(asyncResp, reqs, hh, userId);
+            }
+        });
+    }
+
+    /**
+     * @return Null if the user was found, as the request is then resumed with the row streamed to it
+     */
+    private Response getUser(AsyncResponse asyncResp, HttpServletRequest reqs, HttpHeaders hh, long userId) {
+        if (!EndpointAuthenticationUtils.isUserTokenValid(hh, userId)) {
+            return EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid user token")
+                    .toResponse();
+        }
+
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        boolean isFound = false;
+
+        try {
+            conn = SQLManager.getReadConnection();
+            ps = conn.prepareStatement("SELECT " + USER_ACCOUNT_WRITER.getColumns() + " FROM " +
+                    DbConstants.SQL.USERS.TBL_USER + " WHERE id = ?");
+            ps.setLong(1, userId);
+            rs = ps.executeQuery();
+
+            if (!rs.next()) {
+                return EndpointErrorUtils.processClientFatalError(reqs, RESOURCE_NOT_FOUND, "Get user: User ID {}" +
+                        " not found.", userId).toResponse();
+            }
+            isFound = true;
+        } catch (SQLException e) {
+            return EndpointErrorUtils.processServerFatalError(DATABASE_TRANSACTION, "Failed to execute statement" +
+                    " in getUserRequest(): {}", e.toString()).toResponse();
+        } finally {
+            // Otherwise closed once the row has been written
+            if (!isFound) {
+                SQLManager.closeQuietly(rs);
+                SQLManager.closeQuietly(ps);
+                SQLManager.closeQuietly(conn);
+            }
+        }
+
+        Response resp = Response.ok(USER_ACCOUNT_WRITER.toStreamingOutput("user", rs, GET_USER_WRITE_TIMEOUT))
+                .type(MediaType.APPLICATION_JSON).build();
+        if (!asyncResp.resume(resp)) {
+            ResultSetJsonWriter.close(rs); // Timed out or cancelled, so the row will not be written
+        }
+        return null;
+    }
+
     /**
      * Change a user user name.
      * @param userId Organization user account ID
@@ -474,10 +626,20 @@ public class UsersEndpoint {
      */
     @POST @Path("/change/name/{userId}")
     @Consumes("application/x-www-form-urlencoded") @Produces("application/json")
-    public Response changeUserNameRequest(@Context HttpServletRequest reqs, @Context HttpHeaders hh,
-                                          @PathParam("userId") long userId,
-                                          @FormParam("userPassword") String userPassword,
-                                          @FormParam("newName") String newName) {
+    public void changeUserNameRequest(@Suspended final AsyncResponse asyncResp, @Context final HttpServletRequest reqs,
+                                      @Context final HttpHeaders hh, @PathParam("userId") final long userId,
+                                      @FormParam("userPassword") final String userPassword,
+                                      @FormParam("newName") final String newName) {
+        EndpointExecutors.SQL.execute(asyncResp, new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                return changeUserName(reqs, hh, userId, userPassword, newName);
+            }
+        });
+    }
+
+    private Response changeUserName(HttpServletRequest reqs, HttpHeaders hh, long userId, String userPassword,
+                                    String newName) {
         if (!EndpointAuthenticationUtils.isUserTokenValid(hh, userId)) {
             return EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid user token")
                     .toResponse();
@@ -512,9 +674,7 @@ public class UsersEndpoint {
                         " User  ID " + userId + " not found.").toResponse();
             }
 
-            JSONObject jsonObje = executeLogInQuery(userId, userPassword, conn);
-
-            if (jsonObje == null) {
+            if (!isLogInValid(userId, userPassword, conn)) {
                 return new Result(INVALID_CREDENTIALS, "Password incorrect.").toResponse();
             }
 
@@ -573,10 +733,21 @@ public class UsersEndpoint {
      */
     @POST @Path("/change/password/{userId}")
     @Consumes("application/x-www-form-urlencoded") @Produces("application/json")
-    public Response changeUserPasswordRequest(@Context HttpServletRequest reqs, @Context HttpHeaders hh,
-                                              @PathParam("userId") long userId,
-                                              @FormParam("userPassword") String userPassword,
-                                              @FormParam("newPassword") String newPassword) {
+    public void changeUserPasswordRequest(@Suspended final AsyncResponse asyncResp,
+                                          @Context final HttpServletRequest reqs, @Context final HttpHeaders hh,
+                                          @PathParam("userId") final long userId,
+                                          @FormParam("userPassword") final String userPassword,
+                                          @FormParam("newPassword") final String newPassword) {
+        EndpointExecutors.SQL.execute(asyncResp, new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                return changeUserPassword(reqs, hh, userId, userPassword, newPassword);
+            }
+        });
+    }
+
+    private Response changeUserPassword(HttpServletRequest reqs, HttpHeaders hh, long userId, String userPassword,
+                                        String newPassword) {
         if (!EndpointAuthenticationUtils.isUserTokenValid(hh, userId)) {
             return EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid user token")
                     .toResponse();
@@ -591,9 +762,7 @@ public class UsersEndpoint {
         PreparedStatement ps = null;
 
         try (Connection conn = SQLManager.getConnection(false)) {
-            JSONObject rowJsonObje = executeLogInQuery(userId, userPassword, conn);
-
-            if (rowJsonObje == null) {
+            if (!isLogInValid(userId, userPassword, conn)) {
                 return new Result(INVALID_CREDENTIALS, "Password incorrect.").toResponse();
             }
 
@@ -630,10 +799,21 @@ public class UsersEndpoint {
      */
     @POST @Path("/change/phone_number/{userId}")
     @Consumes("application/x-www-form-urlencoded") @Produces("application/json")
-    public Response changeUserPhoneNumberRequest(@Context HttpServletRequest reqs, @Context HttpHeaders hh,
-                                                 @PathParam("userId") long userId,
-                                                 @FormParam("newCountryCode") int newCountryCode,
-                                                 @FormParam("newPhoneNumber") String newPhoneNumber) {
+    public void changeUserPhoneNumberRequest(@Suspended final AsyncResponse asyncResp,
+                                             @Context final HttpServletRequest reqs, @Context final HttpHeaders hh,
+                                             @PathParam("userId") final long userId,
+                                             @FormParam("newCountryCode") final int newCountryCode,
+                                             @FormParam("newPhoneNumber") final String newPhoneNumber) {
+        EndpointExecutors.SQL.execute(asyncResp, new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                return changeUserPhoneNumber(reqs, hh, userId, newCountryCode, newPhoneNumber);
+            }
+        });
+    }
+
+    private Response changeUserPhoneNumber(HttpServletRequest reqs, HttpHeaders hh, long userId, int newCountryCode,
+                                           String newPhoneNumber) {
         if (!EndpointAuthenticationUtils.isUserTokenValid(hh, userId)) {
             return EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid user token")
                     .toResponse();
@@ -705,9 +885,20 @@ public class UsersEndpoint {
      */
     @POST @Path("/change/email_address/{userId}")
     @Consumes("application/x-www-form-urlencoded") @Produces("application/json")
-    public Response changeUserEmailAddressRequest(@Context HttpServletRequest reqs, @Context HttpHeaders hh,
-                                                  @PathParam("userId") long userId,
-                                                  @FormParam("newEmailAddress") String newEmailAddress) {
+    public void changeUserEmailAddressRequest(@Suspended final AsyncResponse asyncResp,
+                                              @Context final HttpServletRequest reqs, @Context final HttpHeaders hh,
+                                              @PathParam("userId") final long userId,
+                                              @FormParam("newEmailAddress") final String newEmailAddress) {
+        EndpointExecutors.SQL.execute(asyncResp, new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                return changeUserEmailAddress(reqs, hh, userId, newEmailAddress);
+            }
+        });
+    }
+
+    private Response changeUserEmailAddress(HttpServletRequest reqs, HttpHeaders hh, long userId,
+                                            String newEmailAddress) {
         if (!EndpointAuthenticationUtils.isUserTokenValid(hh, userId)) {
             return EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid user token")
                     .toResponse();
@@ -773,9 +964,18 @@ public class UsersEndpoint {
      */
     @POST @Path("/remove/{userId}")
     @Consumes("application/x-www-form-urlencoded") @Produces("application/json")
-    public Response removeUserRequest(@Context HttpServletRequest reqs, @Context HttpHeaders hh,
-                                      @PathParam("userId") long userId,
-                                      @FormParam("userPassword") String userPassword) {
+    public void removeUserRequest(@Suspended final AsyncResponse asyncResp, @Context final HttpServletRequest reqs,
+                                  @Context final HttpHeaders hh, @PathParam("userId") final long userId,
+                                  @FormParam("userPassword") final String userPassword) {
+        EndpointExecutors.SQL.execute(asyncResp, new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                return removeUser(reqs, hh, userId, userPassword);
+            }
+        });
+    }
+
+    private Response removeUser(HttpServletRequest reqs, HttpHeaders hh, long userId, String userPassword) {
         if (!EndpointAuthenticationUtils.isUserTokenValid(hh, userId)) {
             return EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid user token")
                     .toResponse();
@@ -787,9 +987,7 @@ public class UsersEndpoint {
         PreparedStatement prepStmt = null;
 
         try (Connection conn = SQLManager.getConnection(false)) {
-            JSONObject rowJsonObje = executeLogInQuery(userId, userPassword, conn);
-
-            if (rowJsonObje == null) {
+            if (!isLogInValid(userId, userPassword, conn)) {
                 return new Result(INVALID_CREDENTIALS, "Password incorrect.").toResponse();
             }
 
@@ -797,6 +995,7 @@ public class UsersEndpoint {
                     " WHERE id = ?");
             prepStmt.setLong(1, userId);
             prepStmt.executeUpdate();
+            UserAuthentication.revokeTokens(userId, conn);
 
             conn.commit();
         } catch (SQLException e) {
@@ -805,9 +1004,38 @@ public class UsersEndpoint {
         } finally {
             SQLManager.closeQuietly(prepStmt);
         }
+
+        UserTokenCache.invalidate(userId);
+        executeRemoveUserCassandraDataStatements(userId);
         return new Result(new UpdateRequest("remove user")).toResponse();
     }
 
+    /**
+     * Remove the Apache Cassandra data of a removed user in the background. The user has already been removed, so
+     * failures are only logged.
+     */
+    private static void executeRemoveUserCassandraDataStatements(final long userId) {
+        BoundStatement stmt;
+
+        try {
+            stmt = Cassandra.StatementCache.getStatement(DbConstants.CQL.Statements.DELETE_USER_VOTES).bind(userId);
+        } catch (RuntimeException e) {
+            Loggers.internalError.error("Failed to prepare statement to remove Cassandra data of user {}: {}",
+                    userId, e.toString());
+            return;
+        }
+
+        CassandraAsync.executeAsync(stmt).whenComplete(new BiConsumer<com.datastax.driver.core.ResultSet, Throwable>() {
+            @Override
+            public void accept(com.datastax.driver.core.ResultSet reslSet, Throwable t) {
+                if (t != null) {
+                    Loggers.internalError.error("Failed to remove Cassandra data of user {}: {}", userId,
+                            t.toString());
+                }
+            }
+        });
+    }
+
 
 
     /**
@@ -816,8 +1044,18 @@ public class UsersEndpoint {
      */
     @POST @Path("/exists/name/{name}")
     @Consumes("application/json") @Produces("application/json")
-    public Response checkIfNameExistsRequest(@Context HttpServletRequest reqs, @Context HttpHeaders hh,
-                                             @PathParam("name") String name) {
+    public void checkIfNameExistsRequest(@Suspended final AsyncResponse asyncResp,
+                                         @Context final HttpServletRequest reqs, @Context final HttpHeaders hh,
+                                         @PathParam("name") final String name) {
+        EndpointExecutors.SQL.execute(asyncResp, new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                return checkIfNameExists(reqs, hh, name);
+            }
+        });
+    }
+
+    private Response checkIfNameExists(HttpServletRequest reqs, HttpHeaders hh, String name) {
         if (!EndpointAuthenticationUtils.isSessionTokenValid(reqs, hh)) {
             return EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid session token")
                     .toResponse();
@@ -832,9 +1070,20 @@ public class UsersEndpoint {
      */
     @POST @Path("/exists/phone_number/{countryCode}/{phoneNumber}")
     @Consumes("application/json") @Produces("application/json")
-    public Response checkIfPhoneNumberExistsRequest(@Context HttpServletRequest reqs, @Context HttpHeaders hh,
-                                                    @PathParam("countryCode") int countryCode,
-                                                    @PathParam("phoneNumber") String phoneNumber) {
+    public void checkIfPhoneNumberExistsRequest(@Suspended final AsyncResponse asyncResp,
+                                                @Context final HttpServletRequest reqs, @Context final HttpHeaders hh,
+                                                @PathParam("countryCode") final int countryCode,
+                                                @PathParam("phoneNumber") final String phoneNumber) {
+        EndpointExecutors.SQL.execute(asyncResp, new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                return checkIfPhoneNumberExists(reqs, hh, countryCode, phoneNumber);
+            }
+        });
+    }
+
+    private Response checkIfPhoneNumberExists(HttpServletRequest reqs, HttpHeaders hh, int countryCode,
+                                              String phoneNumber) {
         if (!EndpointAuthenticationUtils.isSessionTokenValid(reqs, hh)) {
             return EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid session token")
                     .toResponse();
@@ -843,7 +1092,7 @@ public class UsersEndpoint {
         PreparedStatement ps = null;
         ResultSet rs = null;
 
-        try (Connection conn = SQLManager.getConnection(true)) {
+        try (Connection conn = SQLManager.getReadConnection()) {
             ps = conn.prepareStatement("SELECT id FROM " + DbConstants.SQL.USERS.TBL_USER +
                     " WHERE country_code = ? AND phone_number = ?");
             ps.setInt(1, countryCode);
@@ -869,8 +1118,18 @@ public class UsersEndpoint {
      */
     @POST @Path("/exists/emailAddress/{emailAddress}")
     @Consumes("application/json") @Produces("application/json")
-    public Response checkIfEmailAddressExistsRequest(@Context HttpServletRequest reqs, @Context HttpHeaders hh,
-                                                     @PathParam("emailAddress") String emailAddress) {
+    public void checkIfEmailAddressExistsRequest(@Suspended final AsyncResponse asyncResp,
+                                                 @Context final HttpServletRequest reqs, @Context final HttpHeaders hh,
+                                                 @PathParam("emailAddress") final String emailAddress) {
+        EndpointExecutors.SQL.execute(asyncResp, new EndpointExecutor.Task() {
+            @Override
+            public Response call() {
+                return checkIfEmailAddressExists(reqs, hh, emailAddress);
+            }
+        });
+    }
+
+    private Response checkIfEmailAddressExists(HttpServletRequest reqs, HttpHeaders hh, String emailAddress) {
         if (!EndpointAuthenticationUtils.isSessionTokenValid(reqs, hh)) {
             return EndpointErrorUtils.processClientFatalError(reqs, UNAUTHORIZED, "Invalid session token")
                     .toResponse();
@@ -887,7 +1146,7 @@ public class UsersEndpoint {
         PreparedStatement ps = null;
         ResultSet rs = null;
 
-        try (Connection conn = SQLManager.getConnection(true)) {
+        try (Connection conn = SQLManager.getReadConnection()) {
             ps = conn.prepareStatement("SELECT id FROM " + DbConstants.SQL.USERS.TBL_USER + " WHERE " +
                     column + " = ?");
             ps.setString(1, value);
@@ -0,0 +1,88 @@
+package com.organization.commons.base;
+
+import org.apache.commons.lang3.text.WordUtils;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows of users.user and users.user_log, as returned by row_to_json, changed to camelCase keys per second: by the
+ * former WordUtils translation on a JSONObject, by the cached translation on a JSONObject, and while the JSON text is
+ * copied.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CamelCaseKeysBenchmark {
+    private static final String USER_ROW = "{\"id\":104857600012,\"name\":\"jane_doe\",\"passw_hash\":" +
+            "\"$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy\",\"email\":\"jane@example.com\"," +
+            "\"country_code\":1,\"phone_number\":\"5550100\",\"first_name\":\"Jane\",\"last_name\":\"Doe\"," +
+            "\"created_at\":\"2017-03-01T10:15:30.123\"}";
+    private static final String USER_LOG_ROW = "{\"user_id\":104857600012,\"logged_in_at\":" +
+            "\"2017-03-02T08:00:00.000\",\"logged_out_at\":\"2017-03-01T22:30:00.000\",\"times_logged_in\":42," +
+            "\"changed_name_at\":null}";
+
+    @Benchmark
+    public String wordUtilsOnJsonObject() {
+        JSONObject json = new JSONObject(USER_ROW);
+        formatKeysToCamelCaseWithWordUtils(json);
+        JSONObject logJson = new JSONObject(USER_LOG_ROW);
+        formatKeysToCamelCaseWithWordUtils(logJson);
+        return json.toString() + logJson.toString();
+    }
+
+    @Benchmark
+    public String cachedOnJsonObject() {
+        JSONObject json = new JSONObject(USER_ROW);
+        JSONUtils.formatKeysToCamelCase(json);
+        JSONObject logJson = new JSONObject(USER_LOG_ROW);
+        JSONUtils.formatKeysToCamelCase(logJson);
+        return json.toString() + logJson.toString();
+    }
+
+    @Benchmark
+    public String cachedWhileCopying() {
+        return JSONUtils.formatKeysToCamelCase(USER_ROW) + JSONUtils.formatKeysToCamelCase(USER_LOG_ROW);
+    }
+
+    /**
+     * The former JSONUtils.formatKeysToCamelCase(JSONObject).
+     */
+    private static void formatKeysToCamelCaseWithWordUtils(JSONObject json) {
+        JSONArray keys = json.names();
+
+        for (int i = 0; i < keys.length(); i++) {
+            String key = (String) keys.get(i);
+            Object obj;
+
+            if (key.contains("_")) {
+                obj = json.remove(key);
+
+                String newKeyName = WordUtils.capitalize(key, '_').replaceAll("_", "");
+                newKeyName = Character.toLowerCase(newKeyName.charAt(0)) + newKeyName.substring(1);
+
+                json.put(newKeyName, obj);
+            } else {
+                obj = json.get(key);
+            }
+
+            if (obj instanceof JSONObject) {
+                formatKeysToCamelCaseWithWordUtils((JSONObject) obj);
+            }
+        }
+    }
+
+}
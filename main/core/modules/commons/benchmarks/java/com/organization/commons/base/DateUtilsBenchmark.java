@@ -0,0 +1,80 @@
+package com.organization.commons.base;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ISO-8601 dates formatted and parsed per second, by {@link DateUtils} and by the SimpleDateFormats it replaced: a
+ * shared format to format, and a new format per pattern tried to parse. Dates are parsed as sent by clients and as
+ * read from SQL timestamps.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DateUtilsBenchmark {
+    private static final String[] FORMER_PARSE_PATTERNS = {"yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", "yyyy-MM-dd'T'HH:mm:ss'Z'",
+            "yyyy-MM-dd HH:mm:ss.SSS", "yyyy-MM-dd HH:mm:ss"};
+
+    private final Date mDate = new Date(1488363330123L);
+    private final DateFormat mFormat = createFormerFormat();
+
+    @Benchmark
+    public String formatSimpleDateFormat() {
+        return mFormat.format(mDate);
+    }
+
+    @Benchmark
+    public String formatArithmetic() {
+        return DateUtils.toIso8601(mDate);
+    }
+
+    @Benchmark
+    public Date parseSimpleDateFormat(Input input) {
+        for (String pattern : FORMER_PARSE_PATTERNS) {
+            try {
+                return new SimpleDateFormat(pattern, Locale.US).parse(input.mIso8601);
+            } catch (ParseException ignored) { }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Date parseArithmetic(Input input) {
+        return DateUtils.fromIso8601(input.mIso8601);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Input {
+        @Param({"2017-03-01T10:15:30.123Z", "2017-03-01 10:15:30"})
+        public String mIso8601;
+    }
+
+    /**
+     * The former format of DateUtils.toIso8601.
+     */
+    private static DateFormat createFormerFormat() {
+        DateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.organization.commons.base;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removal of the documentation keys from the configuration entities in database/mongodb/initialization/configurations
+ * per second, by {@link JSONKeyFilter} and by the regex replacement it replaced. Each operation filters every entity.
+ * The directory can be set with the system property {@value #CONFIGURATIONS_DIR_PROPERTY}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JSONKeyFilterBenchmark {
+    private static final String CONFIGURATIONS_DIR_PROPERTY = "organization.benchmark.configurationsDir";
+    private static final String DEFAULT_CONFIGURATIONS_DIR = "../../database/mongodb/initialization/configurations";
+
+    private final JSONKeyFilter mFilter = new JSONKeyFilter("_description", "_note*");
+    private List<String> mJsons;
+
+    @Setup
+    public void setUp() throws IOException {
+        File dir = new File(System.getProperty(CONFIGURATIONS_DIR_PROPERTY, DEFAULT_CONFIGURATIONS_DIR));
+        File[] files = dir.listFiles();
+        if (files == null || files.length == 0) {
+            throw new IllegalStateException("No configurations in " + dir.getAbsolutePath() + "; set " +
+                    CONFIGURATIONS_DIR_PROPERTY);
+        }
+        Arrays.sort(files);
+
+        mJsons = new ArrayList<>(files.length);
+        for (File file : files) {
+            mJsons.add(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Benchmark
+    public void filter(Blackhole blackhole) {
+        for (String json : mJsons) {
+            blackhole.consume(mFilter.filter(json));
+        }
+    }
+
+    @Benchmark
+    public void regexReplace(Blackhole blackhole) {
+        for (String json : mJsons) {
+            blackhole.consume(removeKeysWithRegex(removeKeysWithRegex(json, "_description"), "_note\\w*"));
+        }
+    }
+
+    /**
+     * The former JSONUtils.removeKeys, as still used by the ejb backend.
+     */
+    private static String removeKeysWithRegex(String jsonStr, String key) {
+        return jsonStr.replaceAll("\"" + key + "\"[ ]*:[^,}\\]]*[,]?", "");
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.organization.commons.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.organization.commons.base.SerializeUtil;
+import com.organization.commons.codec.JsonCodecs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link User} round trips (serialize, deserialize) per second with Jackson: with new mappers for each call, as
+ * {@link SerializeUtil} used to create, and with its shared mapper and cached reader and writer. Also sign up request
+ * entities read per second, as by the JAX-RS REST mapper and as by the {@link UserCodec} of the war's
+ * UserMessageBodyReader.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserSerializationBenchmark {
+    private static final byte[] SIGN_UP_JSON = ("{\"name\":\"jane_doe\",\"password\":\"correct horse battery\"," +
+            "\"countryCode\":1,\"phoneNumber\":\"5550100\",\"email\":\"jane@example.com\",\"firstName\":\"Jane\"," +
+            "\"lastName\":\"Doe\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final User mUser = createUser();
+
+    @Benchmark
+    public User jacksonNewMappers() throws IOException {
+        String json = SerializeUtil.serialize(mUser, SerializeUtil.createSerializerDefaultObjectMapper());
+        return SerializeUtil.deserialize(json, User.class, SerializeUtil.createDeserializerDefaultObjectMapper());
+    }
+
+    @Benchmark
+    public User jacksonSharedMapper() throws IOException {
+        return SerializeUtil.deserialize(SerializeUtil.serialize(mUser), User.class);
+    }
+
+    @Benchmark
+    public User signUpRestMapper() throws IOException {
+        return SerializeUtil.getRestObjectMapper().readValue(new ByteArrayInputStream(SIGN_UP_JSON), User.class);
+    }
+
+    @Benchmark
+    public User signUpCodec() throws IOException {
+        try (JsonParser parser = JsonCodecs.createParser(new ByteArrayInputStream(SIGN_UP_JSON))) {
+            return UserCodec.read(parser);
+        }
+    }
+
+    private static User createUser() {
+        User user = new User("jane_doe", null, 1, "5550100", "jane@example.com", "Jane", "Doe");
+        user.setId(104857600012L);
+        return user;
+    }
+
+}
@@ -4,25 +4,46 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.text.DateFormat;
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.*;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
 
 /**
  * Date utilities
+ * <p>
+ * ISO-8601 dates are formatted and parsed in UTC by arithmetic, without {@link SimpleDateFormat} (which is not
+ * thread-safe) or {@link Calendar} instances, so all the methods are thread-safe. Only dates of years outside 0 to 9999,
+ * which have no 4-digit year, are formatted by a new SimpleDateFormat, as all dates were before.
  */
 public class DateUtils {
     private static final Logger LOG = LoggerFactory.getLogger(DateUtils.class);
-    private static final DateFormat ISO8601_DATE_FORMAT;
-    private static final DateFormat ISO8601_DATE_FORMAT_NO_MILLIS;
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000;
+    private static final int DAYS_0000_TO_1970 = 719468; // Days from 0000-03-01 to 1970-01-01
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final long MIN_FORMATTED_MILLIS = -62167219200000L; // 0000-01-01T00:00:00.000Z
+    private static final long MAX_FORMATTED_MILLIS = 253402300799999L; // 9999-12-31T23:59:59.999Z
+    private static final String ISO8601_PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
+    private static final String ISO8601_NO_MILLIS_PATTERN = "yyyy-MM-dd'T'HH:mm:ss'Z'";
 
-    static {
-        TimeZone timeZone = TimeZone.getTimeZone("UTC");
-        ISO8601_DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
-        ISO8601_DATE_FORMAT.setTimeZone(timeZone);
-        ISO8601_DATE_FORMAT_NO_MILLIS = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
-        ISO8601_DATE_FORMAT_NO_MILLIS.setTimeZone(timeZone);
-    }
+    /**
+     * Length of an ISO-8601 date with milliseconds (yyyy-MM-dd'T'HH:mm:ss.SSS'Z').
+     */
+    public static final int ISO8601_LENGTH = 24;
+
+    /**
+     * Length of an ISO-8601 date without milliseconds (yyyy-MM-dd'T'HH:mm:ss'Z').
+     */
+    public static final int ISO8601_NO_MILLIS_LENGTH = 20;
+
+    private static final ThreadLocal<Calendar> sUtcCalendars = new ThreadLocal<Calendar>() {
+        @Override
+        protected Calendar initialValue() {
+            return Calendar.getInstance(UTC, Locale.US);
+        }
+    };
 
     /**
      * Convert date to ISO-8601 format (yyyy-MM-dd'T'HH:mm:ss.SSS'Z').
@@ -30,7 +51,10 @@ public class DateUtils {
      * @return Date formatted in ISO-8601.
      */
     public static String toIso8601(Date date) {
-        return ISO8601_DATE_FORMAT.format(date);
+        if (!isFormattable(date.getTime())) return formatWithSimpleDateFormat(date, ISO8601_PATTERN);
+
+        char[] buffer = new char[ISO8601_LENGTH];
+        return new String(buffer, 0, formatIso8601(date.getTime(), true, buffer, 0));
     }
 
     /**
@@ -39,33 +63,154 @@ public class DateUtils {
      * @return Date formatted in ISO-8601 discluding milliseconds.
      */
     public static String toIso8601NoMillis(Date date) {
-        return ISO8601_DATE_FORMAT_NO_MILLIS.format(date);
+        if (!isFormattable(date.getTime())) return formatWithSimpleDateFormat(date, ISO8601_NO_MILLIS_PATTERN);
+
+        char[] buffer = new char[ISO8601_NO_MILLIS_LENGTH];
+        return new String(buffer, 0, formatIso8601(date.getTime(), false, buffer, 0));
+    }
+
+    /**
+     * Format a time in ISO-8601 format (yyyy-MM-dd'T'HH:mm:ss.SSS'Z', or yyyy-MM-dd'T'HH:mm:ss'Z' without
+     * milliseconds) into a buffer.
+     * @param millis Milliseconds since the epoch
+     * @param buffer Buffer with at least {@link #ISO8601_LENGTH} or {@link #ISO8601_NO_MILLIS_LENGTH} chars from the
+     *               offset
+     * @return Offset after the formatted date
+     * @throws IllegalArgumentException If the year is not between 0 and 9999
+     */
+    public static int formatIso8601(long millis, boolean isMillisIncluded, char[] buffer, int offset) {
+        if (!isFormattable(millis)) {
+            throw new IllegalArgumentException("Time " + millis + " is not in years 0 to 9999");
+        }
+
+        long days = millis / MILLIS_PER_DAY;
+        int millisOfDay = (int) (millis % MILLIS_PER_DAY);
+        if (millisOfDay < 0) {
+            days--;
+            millisOfDay += MILLIS_PER_DAY;
+        }
+
+        // Civil date of the days since the epoch, with years starting in March (see "chrono-Compatible Low-Level Date
+        // Algorithms" by Howard Hinnant)
+        long z = days + DAYS_0000_TO_1970;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = (int) (z - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        int i = offset;
+        i = writeDigits((int) year, 4, buffer, i);
+        buffer[i++] = '-';
+        i = writeDigits(month, 2, buffer, i);
+        buffer[i++] = '-';
+        i = writeDigits(day, 2, buffer, i);
+        buffer[i++] = 'T';
+        i = writeDigits(millisOfDay / 3600000, 2, buffer, i);
+        buffer[i++] = ':';
+        i = writeDigits(millisOfDay / 60000 % 60, 2, buffer, i);
+        buffer[i++] = ':';
+        i = writeDigits(millisOfDay / 1000 % 60, 2, buffer, i);
+        if (isMillisIncluded) {
+            buffer[i++] = '.';
+            i = writeDigits(millisOfDay % 1000, 3, buffer, i);
+        }
+        buffer[i++] = 'Z';
+        return i;
     }
 
     /**
      * Parse ISO-8601 formatted date to a Date object.
-     * @param iso8601String ISO-8601 formatted date
-     * @return Date object of ISO-8601 date.
+     * @param iso8601String ISO-8601 formatted date (see {@link #parseIso8601(CharSequence)})
+     * @return Date object of ISO-8601 date; null if the date is not valid
      */
     public static Date fromIso8601(String iso8601String) {
-        List<String> formatStrings = Arrays.asList(
-                "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'",
-                "yyyy-MM-dd'T'HH:mm:ss'Z'",
-                "yyyy-MM-dd HH:mm:ss.SSS",
-                "yyyy-MM-dd HH:mm:ss");
-        Date date = null;
+        try {
+            return new Date(parseIso8601(iso8601String));
+        } catch (IllegalArgumentException e) {
+            LOG.error("Failed to parse ISO-8601 string \"{}\" to Date: {}", iso8601String, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Parse an ISO-8601 date in one pass. The date and time are separated by 'T' or a space (as in SQL timestamps),
+     * the seconds may have a fraction of 1 to 9 digits (precision beyond milliseconds is dropped), and the time may be
+     * followed by 'Z' or an offset (+hh:mm, +hhmm or +hh). Dates without an offset are in UTC, as all dates of the
+     * server are.
+     * @return Milliseconds since the epoch
+     * @throws IllegalArgumentException If the date is not valid
+     */
+    public static long parseIso8601(CharSequence str) {
+        int length = str.length();
+        if (length < 19) {
+            throw new IllegalArgumentException("ISO-8601 date too short");
+        }
+
+        int year = readDigits(str, 0, 4);
+        expect(str, 4, '-');
+        int month = readDigits(str, 5, 2);
+        expect(str, 7, '-');
+        int day = readDigits(str, 8, 2);
+        if (str.charAt(10) != 'T' && str.charAt(10) != ' ') {
+            throw new IllegalArgumentException("Expected 'T' or ' ' at index 10");
+        }
+        int hour = readDigits(str, 11, 2);
+        expect(str, 13, ':');
+        int minute = readDigits(str, 14, 2);
+        expect(str, 16, ':');
+        int second = readDigits(str, 17, 2);
+
+        if (month < 1 || month > 12 || day < 1 || day > getDaysInMonth(year, month) || hour > 23 || minute > 59 ||
+                second > 59) {
+            throw new IllegalArgumentException("ISO-8601 date out of range");
+        }
 
-        for (String formatString : formatStrings) {
-            try {
-                date = new SimpleDateFormat(formatString, Locale.US).parse(iso8601String);
-                break;
-            } catch (ParseException ignored) { }
+        int i = 19;
+        int millis = 0;
+        if (i < length && str.charAt(i) == '.') {
+            int start = ++i;
+            while (i < length && i - start < 9 && isDigit(str.charAt(i))) {
+                if (i - start < 3) {
+                    millis = millis * 10 + (str.charAt(i) - '0');
+                }
+                i++;
+            }
+            if (i == start) {
+                throw new IllegalArgumentException("Expected fraction digits at index " + start);
+            }
+            for (int digits = i - start; digits < 3; digits++) {
+                millis *= 10;
+            }
         }
 
-        if (date == null) {
-            LOG.error("Failed to parse ISO-8601 string \"{}\" to Date", iso8601String);
+        int offsetMinutes = 0;
+        if (i < length) {
+            char c = str.charAt(i);
+            if (c == 'Z') {
+                i++;
+            } else if (c == '+' || c == '-') {
+                int offsetHours = readDigits(str, i + 1, 2);
+                i += 3;
+                if (i < length) {
+                    if (str.charAt(i) == ':') {
+                        i++;
+                    }
+                    offsetMinutes = readDigits(str, i, 2);
+                    i += 2;
+                }
+                offsetMinutes = (c == '-' ? -1 : 1) * (offsetHours * 60 + offsetMinutes);
+            }
         }
-        return date;
+        if (i != length) {
+            throw new IllegalArgumentException("Unexpected character at index " + i);
+        }
+
+        return (getDaysSinceEpoch(year, month, day) * 86400 + hour * 3600 + minute * 60 + second -
+                offsetMinutes * 60) * 1000 + millis;
     }
 
     /**
@@ -149,12 +294,83 @@ public class DateUtils {
     }
 
     /**
-     * Get a new {@link Calendar} instance using the UTC time zone.
+     * Get the {@link Calendar} of the current thread using the UTC time zone, to pass to a JDBC getTimestamp or
+     * setTimestamp call so that the timestamp is read or written in UTC. It is not a copy: the thread gets the same
+     * instance each time, and JDBC drivers change its time. So it must only be passed to a call that returns before
+     * the next use, it must not be kept or shared with other threads, and its time zone and other settings must not be
+     * changed. Use {@link Calendar#getInstance(TimeZone)} for any other use.
      */
     public static Calendar getUtcCalendar() {
-        Calendar cal = Calendar.getInstance();
-        cal.setTimeZone(TimeZone.getTimeZone("UTC"));
-        return cal;
+        return sUtcCalendars.get();
+    }
+
+    /**
+     * @return Whether a time is in years 0 to 9999, which {@link #formatIso8601(long, boolean, char[], int)} formats
+     */
+    private static boolean isFormattable(long millis) {
+        return millis >= MIN_FORMATTED_MILLIS && millis <= MAX_FORMATTED_MILLIS;
+    }
+
+    /**
+     * Format a date as before formatting by arithmetic; e.g. 1 BC is 0001 and 10000 has 5 digits.
+     */
+    private static String formatWithSimpleDateFormat(Date date, String pattern) {
+        DateFormat format = new SimpleDateFormat(pattern, Locale.US);
+        format.setTimeZone(UTC);
+        return format.format(date);
+    }
+
+    /**
+     * Get the days from 1970-01-01 to a date (see {@link #formatIso8601(long, boolean, char[], int)}).
+     */
+    private static long getDaysSinceEpoch(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return (long) era * 146097 + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    private static int getDaysInMonth(int year, int month) {
+        if (month == 2 && year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) {
+            return 29;
+        }
+        return DAYS_IN_MONTH[month - 1];
+    }
+
+    private static int writeDigits(int value, int digits, char[] buffer, int offset) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + digits;
+    }
+
+    private static int readDigits(CharSequence str, int offset, int digits) {
+        if (offset + digits > str.length()) {
+            throw new IllegalArgumentException("Expected " + digits + " digits at index " + offset);
+        }
+
+        int value = 0;
+        for (int i = offset; i < offset + digits; i++) {
+            char c = str.charAt(i);
+            if (!isDigit(c)) {
+                throw new IllegalArgumentException("Expected a digit at index " + i);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void expect(CharSequence str, int index, char c) {
+        if (str.charAt(index) != c) {
+            throw new IllegalArgumentException("Expected '" + c + "' at index " + index);
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
     }
 
 }
@@ -0,0 +1,137 @@
+package com.organization.commons.base;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Removes keys, and their values, from JSON in a single pass over its tokens, at any depth. The rest of the JSON is
+ * written as it is read (numbers keep their text), without building a tree.
+ * <p>
+ * Keys are matched by name, or by prefix with a name ending with "*" (e.g. "_note*"). The keys kept can also be
+ * changed to camelcase in the same pass (see {@link #withCamelCaseKeys()}). Instances are immutable and thread-safe, so
+ * a filter should be created once and shared.
+ */
+public final class JSONKeyFilter {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .enable(JsonParser.Feature.ALLOW_TRAILING_COMMA)
+            .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final Set<String> mNames;
+    private final String[] mPrefixes;
+    private final boolean mIsCamelCaseKeys;
+
+    /**
+     * @param keys Names of the keys to remove; a name ending with "*" matches all keys starting with the rest of it
+     */
+    public JSONKeyFilter(String... keys) {
+        Set<String> names = new HashSet<>();
+        List<String> prefixes = new ArrayList<>();
+        for (String key : keys) {
+            if (key.endsWith("*")) {
+                prefixes.add(key.substring(0, key.length() - 1));
+            } else {
+                names.add(key);
+            }
+        }
+        mNames = names;
+        mPrefixes = prefixes.toArray(new String[prefixes.size()]);
+        mIsCamelCaseKeys = false;
+    }
+
+    private JSONKeyFilter(JSONKeyFilter filter, boolean isCamelCaseKeys) {
+        mNames = filter.mNames;
+        mPrefixes = filter.mPrefixes;
+        mIsCamelCaseKeys = isCamelCaseKeys;
+    }
+
+    /**
+     * Get a filter that removes the same keys and also changes the keys kept from lowercase underscore to camelcase
+     * (see {@link JSONUtils#toCamelCase(String)}).
+     */
+    public JSONKeyFilter withCamelCaseKeys() {
+        return new JSONKeyFilter(this, true);
+    }
+
+    /**
+     * @throws IllegalArgumentException If the JSON is not valid
+     */
+    public String filter(String json) {
+        StringWriter writer = new StringWriter(json.length());
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            filter(parser, writer);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getMessage(), e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Filter JSON from a reader to a writer. Neither is closed.
+     * @throws IOException If reading or writing failed or the JSON is not valid
+     */
+    public void filter(Reader reader, Writer writer) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(reader)) {
+            filter(parser, writer);
+        }
+    }
+
+    /**
+     * @return Whether a key is removed
+     */
+    public boolean matches(String key) {
+        if (mNames.contains(key)) return true;
+
+        for (String prefix : mPrefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void filter(JsonParser parser, Writer writer) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            JsonToken token;
+
+            while ((token = parser.nextToken()) != null) {
+                switch (token) {
+                    case FIELD_NAME:
+                        if (matches(parser.getCurrentName())) {
+                            parser.nextToken();
+                            parser.skipChildren();
+                        } else if (mIsCamelCaseKeys) {
+                            generator.writeFieldName(JSONUtils.toCamelCase(parser.getCurrentName()));
+                        } else {
+                            generator.writeFieldName(parser.getCurrentName());
+                        }
+                        break;
+                    case VALUE_NUMBER_INT:
+                    case VALUE_NUMBER_FLOAT:
+                        generator.writeNumber(parser.getText());
+                        break;
+                    default:
+                        generator.copyCurrentEvent(parser);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "JSONKeyFilter" + mNames + Arrays.toString(mPrefixes) + (mIsCamelCaseKeys ? "camelCase" : "");
+    }
+
+}
@@ -1,16 +1,20 @@
 package com.organization.commons.base;
 
-import org.apache.commons.lang3.text.WordUtils;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * JSON utilities class
  */
 public class JSONUtils {
+    private static final int MAX_CACHED_CAMEL_CASE_KEYS = 1024;
+    private static final ConcurrentMap<String, String> sCamelCaseKeys = new ConcurrentHashMap<>();
+    private static final JSONKeyFilter CAMEL_CASE_KEYS_FILTER = new JSONKeyFilter().withCamelCaseKeys();
 
     /**
      * Concatenate json arrays
@@ -26,52 +30,29 @@ public class JSONUtils {
     }
 
     /**
-     * Remove all keys matching a name from a JSON object recursively.
+     * Remove all keys matching a name from a JSON object recursively. To filter many JSONs, create a
+     * {@link JSONKeyFilter} once instead.
+     * @param keys Names of the keys; a name ending with "*" matches all keys starting with the rest of it
+     * @throws IllegalArgumentException If the JSON is not valid
      */
-    public static String removeKeys(String jsonStr, String key) {
-        // TODO: This method is not the best. Re-implement it as described here: https://stackoverflow.com/a/24183876
-        // Note: removeKeys2() did not work and only removes the leading underscore in a key.
-        return jsonStr.replaceAll("\"" + key + "\"[ ]*:[^,}\\]]*[,]?", "");
+    public static String removeKeys(String jsonStr, String... keys) {
+        return new JSONKeyFilter(keys).filter(jsonStr);
     }
 
-    /**
-     * Remove all keys matching a name from a JSON object recursively.
-     */
-//    public static void removeKeys2(JSONObject json, String keyToDelete) {
-//        JSONArray keys = json.names();
-//
-//        for (int i = 0; i < keys.length(); i++) {
-//            String key = (String) keys.get(i);
-//            Object obj = null;
-//
-//            if (key.equals(keyToDelete)) {
-//                json.remove(key);
-//            } else {
-//                obj = json.get(key);
-//            }
-//
-//            if (obj != null && obj instanceof JSONObject) {
-//                formatKeysToCamelCase((JSONObject) obj);
-//            }
-//        }
-//    }
-
     /**
      * Recursively change all key names from lowercase underscore to camelcase
      */
     public static void formatKeysToCamelCase(JSONObject json) {
         JSONArray keys = json.names();
+        if (keys == null) return;
 
         for (int i = 0; i < keys.length(); i++) {
             String key = (String) keys.get(i);
+            String newKeyName = toCamelCase(key);
             Object obj;
 
-            if (key.contains("_")) {
+            if (!newKeyName.equals(key)) {
                 obj = json.remove(key);
-
-                String newKeyName = WordUtils.capitalize(key, '_').replaceAll("_", "");
-                newKeyName = Character.toLowerCase(newKeyName.charAt(0)) + newKeyName.substring(1);
-
                 json.put(newKeyName, obj);
             } else {
                 obj = json.get(key);
@@ -83,6 +64,54 @@ public class JSONUtils {
         }
     }
 
+    /**
+     * Change all key names of a JSON from lowercase underscore to camelcase while it is copied, so that no
+     * {@link JSONObject} has to be built or changed. Unlike {@link #formatKeysToCamelCase(JSONObject)}, keys of
+     * objects in arrays are changed too.
+     * @throws IllegalArgumentException If the JSON is not valid
+     */
+    public static String formatKeysToCamelCase(String jsonStr) {
+        return CAMEL_CASE_KEYS_FILTER.filter(jsonStr);
+    }
+
+    /**
+     * Change a key name from lowercase underscore to camelcase (e.g. "times_logged_in" to "timesLoggedIn"). Key names
+     * are translated once and cached, as they come from a small set of column names.
+     * @return The key name itself if it has no underscore
+     */
+    public static String toCamelCase(String key) {
+        if (key.indexOf('_') < 0) return key;
+
+        String camelCaseKey = sCamelCaseKeys.get(key);
+        if (camelCaseKey == null) {
+            camelCaseKey = translateToCamelCase(key);
+            if (sCamelCaseKeys.size() < MAX_CACHED_CAMEL_CASE_KEYS) {
+                sCamelCaseKeys.putIfAbsent(key, camelCaseKey);
+            }
+        }
+        return camelCaseKey;
+    }
+
+    private static String translateToCamelCase(String key) {
+        StringBuilder sb = new StringBuilder(key.length());
+        boolean isWordStart = true;
+
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+
+            if (c == '_') {
+                isWordStart = true;
+            } else if (sb.length() == 0) {
+                sb.append(Character.toLowerCase(c));
+                isWordStart = false;
+            } else {
+                sb.append(isWordStart ? Character.toTitleCase(c) : c);
+                isWordStart = false;
+            }
+        }
+        return sb.length() == 0 ? key : sb.toString();
+    }
+
     /**
      * Add the string value of each root object in the JSON to a list.
      */
@@ -5,9 +5,13 @@ import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 /**
- * Allows lowercase to be used when deserializing enums
+ * Allows lowercase to be used when deserializing enums. The values of each enum, by name and lowercase name, are looked
+ * up in a table built once when its deserializer is created.
  */
 public class LowercaseEnumDeserializerModifier extends BeanDeserializerModifier {
 
@@ -15,13 +19,22 @@ public class LowercaseEnumDeserializerModifier extends BeanDeserializerModifier
     public JsonDeserializer<Enum> modifyEnumDeserializer(DeserializationConfig config, final JavaType type,
                                                          BeanDescription beanDesc,
                                                          final JsonDeserializer<?> deserializer) {
+        final Class<? extends Enum> rawClass = (Class<Enum<?>>) type.getRawClass();
+        final Map<String, Enum> values = new HashMap<>();
+
+        for (Enum value : rawClass.getEnumConstants()) {
+            values.put(value.name(), value);
+            values.put(value.name().toLowerCase(Locale.ROOT), value);
+        }
+
         return new JsonDeserializer<Enum>() {
             @Override
             public Enum deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
-                    Class<? extends Enum> rawClass = (Class<Enum<?>>) type.getRawClass();
-                    return Enum.valueOf(rawClass, jp.getValueAsString().toUpperCase());
+                    String text = jp.getValueAsString();
+                    Enum value = values.get(text);
+                    return value != null ? value : Enum.valueOf(rawClass, text.toUpperCase(Locale.ROOT));
                 }
             };
     }
 
-}
\ No newline at end of file
+}
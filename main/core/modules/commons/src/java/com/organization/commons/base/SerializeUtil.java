@@ -4,12 +4,28 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import org.json.JSONObject;
 
 import java.io.IOException;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Serialization with one shared, preconfigured {@link ObjectMapper}, so that Jackson's serializer and deserializer
+ * caches are kept between calls. The {@link ObjectReader} and {@link ObjectWriter} of each class are created once and
+ * cached; they are immutable and thread-safe.
+ * <p>
+ * The shared mapper deserializes enum values case-insensitively, ignores unknown properties and omits null properties
+ * when serializing.
+ */
 public class SerializeUtil {
+    private static final ObjectMapper OBJECT_MAPPER = createDefaultObjectMapper();
+    private static final ObjectMapper REST_OBJECT_MAPPER = createRestObjectMapper();
+    private static final ConcurrentMap<Class<?>, ObjectReader> sReaders = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ObjectWriter> sWriters = new ConcurrentHashMap<>();
 
     /**
      * Serializes any object to json
@@ -26,7 +42,15 @@ public class SerializeUtil {
     }
 
     public static String serialize(Object object) {
-        return serialize(object, createSerializerDefaultObjectMapper());
+        String serialized = null;
+        try {
+            serialized = object == null ? OBJECT_MAPPER.writeValueAsString(null) :
+                    getWriter(object.getClass()).writeValueAsString(object);
+        } catch (JsonProcessingException e) {
+            e.printStackTrace();
+        }
+
+        return serialized;
     }
 
     /**
@@ -38,7 +62,7 @@ public class SerializeUtil {
     }
 
     public static <T> T deserialize(String jsonStr, Class<T> classType) throws IOException {
-        return deserialize(jsonStr, classType, createDeserializerDefaultObjectMapper());
+        return getReader(classType).readValue(jsonStr);
     }
 
     public static <T> T deserialize(JSONObject json, Class<T> classType, ObjectMapper objectMapper) throws IOException {
@@ -46,11 +70,61 @@ public class SerializeUtil {
     }
 
     public static <T> T deserialize(JSONObject json, Class<T> classType) throws IOException {
-        return deserialize(json.toString(), classType, createDeserializerDefaultObjectMapper());
+        return deserialize(json.toString(), classType);
     }
 
+    /**
+     * Get the shared object mapper, e.g. for JAX-RS. It must not be configured further, as that would change it for
+     * all users and is not thread-safe; use {@link #createDeserializerDefaultObjectMapper()} or
+     * {@link #createSerializerDefaultObjectMapper()} for a mapper to configure.
+     */
+    public static ObjectMapper getObjectMapper() {
+        return OBJECT_MAPPER;
+    }
+
+    /**
+     * Get the shared object mapper of JAX-RS request and response bodies. Unlike {@link #getObjectMapper()}, it writes
+     * null properties and rejects unknown properties, as the REST API always has; it only reads enum values
+     * case-insensitively. Like the shared object mapper, it must not be configured further.
+     */
+    public static ObjectMapper getRestObjectMapper() {
+        return REST_OBJECT_MAPPER;
+    }
+
+    /**
+     * Get the cached reader of a class, of the shared object mapper.
+     */
+    public static ObjectReader getReader(Class<?> classType) {
+        ObjectReader reader = sReaders.get(classType);
+        if (reader == null) {
+            reader = OBJECT_MAPPER.readerFor(classType);
+            ObjectReader existing = sReaders.putIfAbsent(classType, reader);
+            if (existing != null) {
+                reader = existing;
+            }
+        }
+        return reader;
+    }
 
+    /**
+     * Get the cached writer of a class, of the shared object mapper.
+     */
+    public static ObjectWriter getWriter(Class<?> classType) {
+        ObjectWriter writer = sWriters.get(classType);
+        if (writer == null) {
+            writer = OBJECT_MAPPER.writerFor(classType);
+            ObjectWriter existing = sWriters.putIfAbsent(classType, writer);
+            if (existing != null) {
+                writer = existing;
+            }
+        }
+        return writer;
+    }
 
+    /**
+     * Create a new mapper configured as the deserializer of {@link #deserialize(String, Class)}. Use
+     * {@link #getObjectMapper()} instead unless it must be configured further.
+     */
     public static ObjectMapper createDeserializerDefaultObjectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
         SimpleModule module = new SimpleModule().setDeserializerModifier(new LowercaseEnumDeserializerModifier());
@@ -60,6 +134,10 @@ public class SerializeUtil {
         return objectMapper;
     }
 
+    /**
+     * Create a new mapper configured as the serializer of {@link #serialize(Object)}. Use {@link #getObjectMapper()}
+     * instead unless it must be configured further.
+     */
     public static ObjectMapper createSerializerDefaultObjectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
 
@@ -68,4 +146,19 @@ public class SerializeUtil {
         return objectMapper;
     }
 
+    private static ObjectMapper createDefaultObjectMapper() {
+        ObjectMapper objectMapper = createDeserializerDefaultObjectMapper();
+
+        // Omit unset properties in Json
+        objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        return objectMapper;
+    }
+
+    private static ObjectMapper createRestObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new SimpleModule().setDeserializerModifier(
+                new LowercaseEnumDeserializerModifier()));
+        return objectMapper;
+    }
+
 }
@@ -0,0 +1,48 @@
+package com.organization.commons.codec;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a streaming JSON codec for a class at compile time, named after the class with the suffix "Codec" (e.g.
+ * InsertRequestCodec), by {@code com.organization.commons.codec.processor.JsonCodecProcessor}.
+ * <p>
+ * The properties are the public getters of the class and its superclasses, except those annotated with
+ * {@link Ignore}. They are decoded with the constructor whose parameters are named after the most properties, or with a
+ * no-argument constructor and setters. Null values are not written.
+ * Supported property types are String, primitive types and their wrappers, enums and {@code org.json.JSONObject}.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface JsonCodec {
+
+    /**
+     * Key of the root object the properties are wrapped in (e.g. "insert" for {"insert": {...}}); empty for none.
+     */
+    String root() default "";
+
+    /**
+     * Encode the enum of a getter as its int code, returned by its getCode() method, rather than by its name.
+     */
+    @Retention(RetentionPolicy.SOURCE)
+    @Target(ElementType.METHOD)
+    @interface EnumCode { }
+
+    /**
+     * Exclude a getter from the properties, e.g. of a secret that must not be written.
+     */
+    @Retention(RetentionPolicy.SOURCE)
+    @Target(ElementType.METHOD)
+    @interface Ignore { }
+
+    /**
+     * Read a getter's property, but only write it when asked to (e.g. toJson(value, true)), e.g. a password that a
+     * client sends to create an account but a server must never send back.
+     */
+    @Retention(RetentionPolicy.SOURCE)
+    @Target(ElementType.METHOD)
+    @interface WriteOnly { }
+
+}
@@ -0,0 +1,118 @@
+package com.organization.commons.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Support of the codecs generated for {@link JsonCodec}.
+ */
+public final class JsonCodecs {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private JsonCodecs() { }
+
+    public static JsonParser createParser(String json) throws IOException {
+        return JSON_FACTORY.createParser(json);
+    }
+
+    /**
+     * Create a parser of UTF-8, UTF-16 or UTF-32 JSON, as detected. Closing the parser does not close the stream.
+     */
+    public static JsonParser createParser(InputStream in) throws IOException {
+        JsonParser parser = JSON_FACTORY.createParser(in);
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        return parser;
+    }
+
+    public static JsonGenerator createGenerator(Writer writer) throws IOException {
+        return JSON_FACTORY.createGenerator(writer);
+    }
+
+    /**
+     * Move a parser into the object of the properties: after its START_OBJECT token, or after the one of the value of
+     * the root key if any. Other keys of the root object are skipped.
+     * @param root Root key; empty for none
+     * @throws JsonParseException If the object is not found
+     */
+    public static void startObject(JsonParser parser, String root) throws IOException {
+        JsonToken token = parser.getCurrentToken() == null ? parser.nextToken() : parser.getCurrentToken();
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a JSON object");
+        }
+        if (root.isEmpty()) return;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.START_OBJECT && name.equals(root)) {
+                return;
+            }
+            parser.skipChildren();
+        }
+        throw new JsonParseException(parser, "Expected a JSON object with key \"" + root + "\"");
+    }
+
+    /**
+     * Skip the rest of the root object after the properties have been read.
+     */
+    public static void endObject(JsonParser parser, String root) throws IOException {
+        if (root.isEmpty()) return;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            parser.skipChildren();
+        }
+    }
+
+    /**
+     * Check that the current value is not an object or an array, which a String, number, boolean or enum property
+     * cannot be read from.
+     * @throws JsonParseException If it is an object or an array
+     */
+    public static void checkScalar(JsonParser parser) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected a JSON value instead of an object or an array for key \"" +
+                    parser.getCurrentName() + "\"");
+        }
+    }
+
+    /**
+     * @return Null if the current value is null
+     * @throws JsonParseException If the current value is an object or an array
+     */
+    public static String readString(JsonParser parser) throws IOException {
+        checkScalar(parser);
+        return parser.getCurrentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+    }
+
+    /**
+     * Read the current value, e.g. an object, as JSON text.
+     * @return Null if the current value is null
+     */
+    public static String readTree(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = createGenerator(writer)) {
+            generator.copyCurrentStructure(parser);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Create the exception of an enum value that has no constant.
+     */
+    public static JsonParseException unknownEnumValue(JsonParser parser, Class<?> enumClass) throws IOException {
+        return new JsonParseException(parser, "Unknown value \"" + parser.getText() + "\" of enum " +
+                enumClass.getSimpleName());
+    }
+
+}
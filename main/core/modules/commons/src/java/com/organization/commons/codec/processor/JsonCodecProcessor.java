@@ -0,0 +1,651 @@
+package com.organization.commons.codec.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates the streaming JSON codecs of the classes annotated with
+ * {@link com.organization.commons.codec.JsonCodec}. A codec writes and reads the properties straight with a Jackson
+ * generator and parser, without building a {@code org.json.JSONObject}; the lookup tables of enum values are built once
+ * when it is loaded.
+ * <p>
+ * The generated code only uses Java 7 so that it can be used on Android.
+ */
+@SupportedAnnotationTypes({ JsonCodecProcessor.JSON_CODEC, JsonCodecProcessor.ENUM_CODE, JsonCodecProcessor.IGNORE,
+        JsonCodecProcessor.WRITE_ONLY })
+public class JsonCodecProcessor extends AbstractProcessor {
+    static final String JSON_CODEC = "com.organization.commons.codec.JsonCodec";
+    static final String ENUM_CODE = JSON_CODEC + ".EnumCode";
+    static final String IGNORE = JSON_CODEC + ".Ignore";
+    static final String WRITE_ONLY = JSON_CODEC + ".WriteOnly";
+    private static final String JSON_OBJECT = "org.json.JSONObject";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(JSON_CODEC);
+        if (annotation == null) return false;
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            TypeElement type = (TypeElement) element;
+
+            if (type.getNestingKind().isNested() || type.getModifiers().contains(Modifier.ABSTRACT)) {
+                error(type, "@JsonCodec class must be a top-level, non-abstract class");
+                continue;
+            }
+
+            try {
+                Codec codec = createCodec(type);
+                if (codec != null) {
+                    writeCodec(codec);
+                }
+            } catch (IOException e) {
+                error(type, "Failed to write codec: " + e.toString());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Null if the class is not supported; the error is reported
+     */
+    private Codec createCodec(TypeElement type) {
+        Codec codec = new Codec();
+        codec.mType = type;
+        codec.mRoot = getRoot(type);
+
+        // A getter overridden in a subclass, even if ignored there, is only taken from the subclass
+        Set<String> methodNames = new HashSet<>();
+        for (ExecutableElement method : getMethods(type)) {
+            if (!method.getParameters().isEmpty() || !methodNames.add(method.getSimpleName().toString())) continue;
+
+            Property property = createProperty(method);
+            if (property != null && !codec.mProperties.containsKey(property.mName)) {
+                codec.mProperties.put(property.mName, property);
+            }
+        }
+
+        for (Property property : codec.mProperties.values()) {
+            if (property.mKind == null) {
+                error(property.mGetter, "Unsupported @JsonCodec property type " + property.mType);
+                return null;
+            }
+        }
+
+        if (!findConstructor(codec) && !findSetters(codec)) {
+            error(type, "@JsonCodec class needs a constructor with parameters named after its properties, or a" +
+                    " no-argument constructor and setters of all properties");
+            return null;
+        }
+        return codec;
+    }
+
+    /**
+     * Get the methods of a class and of its superclasses up to Object, excluded, subclasses first.
+     */
+    private List<ExecutableElement> getMethods(TypeElement type) {
+        List<ExecutableElement> methods = new ArrayList<>();
+
+        while (type != null && !type.getQualifiedName().contentEquals("java.lang.Object")) {
+            methods.addAll(ElementFilter.methodsIn(type.getEnclosedElements()));
+
+            TypeMirror superclass = type.getSuperclass();
+            type = superclass.getKind() == TypeKind.DECLARED ?
+                    (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return methods;
+    }
+
+    private String getRoot(TypeElement type) {
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            if (!mirror.getAnnotationType().toString().equals(JSON_CODEC)) continue;
+
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                    mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("root")) {
+                    return (String) entry.getValue().getValue();
+                }
+            }
+        }
+        return "";
+    }
+
+    /**
+     * @return Null if the method is not a getter or is ignored
+     */
+    private Property createProperty(ExecutableElement method) {
+        Set<Modifier> modifiers = method.getModifiers();
+        String methodName = method.getSimpleName().toString();
+        TypeMirror returnType = method.getReturnType();
+        String name;
+
+        if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC) ||
+                !method.getParameters().isEmpty() || hasAnnotation(method, IGNORE)) {
+            return null;
+        } else if (methodName.startsWith("get") && methodName.length() > 3 &&
+                returnType.getKind() != TypeKind.VOID) {
+            name = decapitalize(methodName.substring(3));
+        } else if (methodName.startsWith("is") && methodName.length() > 2 &&
+                returnType.getKind() == TypeKind.BOOLEAN) {
+            name = decapitalize(methodName.substring(2));
+        } else {
+            return null;
+        }
+
+        Property property = new Property();
+        property.mName = name;
+        property.mGetter = method;
+        property.mType = returnType;
+        property.mKind = getKind(returnType, hasAnnotation(method, ENUM_CODE));
+        property.mIsWriteOnly = hasAnnotation(method, WRITE_ONLY);
+        return property;
+    }
+
+    private Kind getKind(TypeMirror type, boolean isEnumCode) {
+        switch (type.getKind()) {
+            case BOOLEAN: return Kind.BOOLEAN;
+            case INT: return Kind.INT;
+            case LONG: return Kind.LONG;
+            case DOUBLE: return Kind.DOUBLE;
+            case DECLARED: break;
+            default: return null;
+        }
+
+        Element element = ((DeclaredType) type).asElement();
+        if (element.getKind() == ElementKind.ENUM) {
+            return isEnumCode ? Kind.ENUM_CODE : Kind.ENUM_NAME;
+        }
+
+        switch (((TypeElement) element).getQualifiedName().toString()) {
+            case "java.lang.String": return Kind.STRING;
+            case "java.lang.Boolean": return Kind.BOXED_BOOLEAN;
+            case "java.lang.Integer": return Kind.BOXED_INT;
+            case "java.lang.Long": return Kind.BOXED_LONG;
+            case "java.lang.Double": return Kind.BOXED_DOUBLE;
+            case JSON_OBJECT: return Kind.JSON_OBJECT;
+            default: return null;
+        }
+    }
+
+    /**
+     * Find the non-private constructor with parameters named after the most properties, and of the same types.
+     */
+    private boolean findConstructor(Codec codec) {
+        ExecutableElement found = null;
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(codec.mType.getEnclosedElements())) {
+            if (constructor.getModifiers().contains(Modifier.PRIVATE) || constructor.getParameters().isEmpty()) {
+                continue;
+            }
+
+            boolean isMatching = true;
+            for (VariableElement parameter : constructor.getParameters()) {
+                Property property = codec.mProperties.get(parameter.getSimpleName().toString());
+                if (property == null || !processingEnv.getTypeUtils().isSameType(property.mType,
+                        parameter.asType())) {
+                    isMatching = false;
+                    break;
+                }
+            }
+
+            if (isMatching && (found == null || constructor.getParameters().size() > found.getParameters().size())) {
+                found = constructor;
+            }
+        }
+
+        if (found == null || found.getParameters().size() != codec.mProperties.size()) {
+            return false;
+        }
+        codec.mConstructor = found;
+        return true;
+    }
+
+    private boolean findSetters(Codec codec) {
+        boolean hasNoArgumentConstructor = false;
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(codec.mType.getEnclosedElements())) {
+            if (!constructor.getModifiers().contains(Modifier.PRIVATE) && constructor.getParameters().isEmpty()) {
+                hasNoArgumentConstructor = true;
+            }
+        }
+        if (!hasNoArgumentConstructor) return false;
+
+        List<ExecutableElement> methods = getMethods(codec.mType);
+        for (Property property : codec.mProperties.values()) {
+            String setterName = "set" + Character.toUpperCase(property.mName.charAt(0)) + property.mName.substring(1);
+
+            for (ExecutableElement method : methods) {
+                if (method.getSimpleName().contentEquals(setterName) && method.getParameters().size() == 1 &&
+                        isAccessible(method, codec.mType) &&
+                        processingEnv.getTypeUtils().isSameType(property.mType,
+                                method.getParameters().get(0).asType())) {
+                    property.mSetter = method;
+                    break;
+                }
+            }
+            if (property.mSetter == null) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return Whether the codec of a type, in the type's package, can call a method of the type or its superclasses
+     */
+    private boolean isAccessible(ExecutableElement method, TypeElement type) {
+        Set<Modifier> modifiers = method.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) return true;
+        if (modifiers.contains(Modifier.PRIVATE)) return false;
+
+        Elements elements = processingEnv.getElementUtils();
+        return elements.getPackageOf(method).equals(elements.getPackageOf(type));
+    }
+
+    private void writeCodec(Codec codec) throws IOException {
+        TypeElement type = codec.mType;
+        String packageName = ((PackageElement) type.getEnclosingElement()).getQualifiedName().toString();
+        String typeName = type.getSimpleName().toString();
+        String codecName = typeName + "Codec";
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("package ").append(packageName).append(";\n\n");
+        sb.append("import com.fasterxml.jackson.core.JsonGenerator;\n");
+        sb.append("import com.fasterxml.jackson.core.JsonParser;\n");
+        sb.append("import com.fasterxml.jackson.core.JsonToken;\n");
+        sb.append("import com.fasterxml.jackson.core.io.SerializedString;\n");
+        sb.append("import com.organization.commons.codec.JsonCodecs;\n\n");
+        sb.append("import java.io.IOException;\n");
+        sb.append("import java.io.StringWriter;\n\n");
+        sb.append("/**\n * Streaming JSON codec of {@link ").append(typeName).append("}; generated by ")
+                .append(getClass().getSimpleName()).append(", do not edit.\n */\n");
+        sb.append("public final class ").append(codecName).append(" {\n");
+        sb.append("    private static final String ROOT = \"").append(codec.mRoot).append("\";\n");
+        if (!codec.mRoot.isEmpty()) {
+            sb.append("    private static final SerializedString ROOT_KEY = new SerializedString(ROOT);\n");
+        }
+        for (Property property : codec.mProperties.values()) {
+            sb.append("    private static final SerializedString ").append(getKeyConstant(property))
+                    .append(" = new SerializedString(\"").append(property.mName).append("\");\n");
+        }
+        writeEnumTables(codec, sb);
+
+        sb.append("\n    private ").append(codecName).append("() { }\n");
+        writeToJson(codec, typeName, sb);
+        writeWrite(codec, typeName, sb);
+        writeFromJson(typeName, sb);
+        writeRead(codec, typeName, sb);
+        sb.append("\n}\n");
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(packageName + "." + codecName, type)
+                .openWriter()) {
+            writer.write(sb.toString());
+        }
+    }
+
+    /**
+     * Write the lookup table of each enum type, built once: by name and lowercase name, or by code.
+     */
+    private void writeEnumTables(Codec codec, StringBuilder sb) {
+        Map<String, Property> enumProperties = new LinkedHashMap<>();
+        for (Property property : codec.mProperties.values()) {
+            if (property.mKind == Kind.ENUM_NAME || property.mKind == Kind.ENUM_CODE) {
+                enumProperties.put(getEnumTable(property), property);
+            }
+        }
+
+        for (Map.Entry<String, Property> entry : enumProperties.entrySet()) {
+            String enumType = getTypeName(entry.getValue().mType);
+            boolean isCode = entry.getValue().mKind == Kind.ENUM_CODE;
+
+            sb.append("    private static final java.util.Map<").append(isCode ? "Integer" : "String").append(", ")
+                    .append(enumType).append("> ").append(entry.getKey()).append(" = new java.util.HashMap<>();\n");
+            sb.append("\n    static {\n");
+            sb.append("        for (").append(enumType).append(" value : ").append(enumType)
+                    .append(".values()) {\n");
+            if (isCode) {
+                sb.append("            ").append(entry.getKey()).append(".put(value.getCode(), value);\n");
+            } else {
+                sb.append("            ").append(entry.getKey()).append(".put(value.name(), value);\n");
+                sb.append("            ").append(entry.getKey())
+                        .append(".put(value.name().toLowerCase(java.util.Locale.ROOT), value);\n");
+            }
+            sb.append("        }\n    }\n");
+        }
+    }
+
+    private void writeToJson(Codec codec, String typeName, StringBuilder sb) {
+        boolean hasWriteOnly = codec.hasWriteOnlyProperties();
+        if (hasWriteOnly) {
+            sb.append("\n    /**\n     * Write the value without its write-only properties.\n     */\n");
+            sb.append("    public static String toJson(").append(typeName).append(" value) {\n");
+            sb.append("        return toJson(value, false);\n");
+            sb.append("    }\n");
+            sb.append("\n    /**\n     * @param isWriteOnlyIncluded Whether to write the write-only properties\n" +
+                    "     */\n");
+            sb.append("    public static String toJson(").append(typeName)
+                    .append(" value, boolean isWriteOnlyIncluded) {\n");
+        } else {
+            sb.append("\n    public static String toJson(").append(typeName).append(" value) {\n");
+        }
+        sb.append("        StringWriter writer = new StringWriter(64);\n");
+        sb.append("        try (JsonGenerator generator = JsonCodecs.createGenerator(writer)) {\n");
+        sb.append("            write(value, generator").append(hasWriteOnly ? ", isWriteOnlyIncluded" : "")
+                .append(");\n");
+        sb.append("        } catch (IOException e) {\n");
+        sb.append("            throw new IllegalStateException(e); // Not thrown by a StringWriter\n");
+        sb.append("        }\n");
+        sb.append("        return writer.toString();\n");
+        sb.append("    }\n");
+    }
+
+    private void writeWrite(Codec codec, String typeName, StringBuilder sb) {
+        if (codec.hasWriteOnlyProperties()) {
+            sb.append("\n    /**\n     * Write the value without its write-only properties.\n     */\n");
+            sb.append("    public static void write(").append(typeName)
+                    .append(" value, JsonGenerator generator) throws IOException {\n");
+            sb.append("        write(value, generator, false);\n");
+            sb.append("    }\n");
+            sb.append("\n    /**\n     * @param isWriteOnlyIncluded Whether to write the write-only properties\n" +
+                    "     */\n");
+            sb.append("    public static void write(").append(typeName)
+                    .append(" value, JsonGenerator generator, boolean isWriteOnlyIncluded) throws IOException {\n");
+        } else {
+            sb.append("\n    public static void write(").append(typeName)
+                    .append(" value, JsonGenerator generator) throws IOException {\n");
+        }
+        sb.append("        generator.writeStartObject();\n");
+        if (!codec.mRoot.isEmpty()) {
+            sb.append("        generator.writeFieldName(ROOT_KEY);\n");
+            sb.append("        generator.writeStartObject();\n");
+        }
+
+        for (Property property : codec.mProperties.values()) {
+            String key = getKeyConstant(property);
+            String getter = "value." + property.mGetter.getSimpleName() + "()";
+            String local = getLocal(property);
+            String indent = "        ";
+
+            if (property.mIsWriteOnly) {
+                sb.append(indent).append("if (isWriteOnlyIncluded) {\n");
+                indent += "    ";
+            }
+
+            switch (property.mKind) {
+                case BOOLEAN:
+                    sb.append(indent).append("generator.writeFieldName(").append(key).append(");\n");
+                    sb.append(indent).append("generator.writeBoolean(").append(getter).append(");\n");
+                    break;
+                case INT:
+                case LONG:
+                case DOUBLE:
+                    sb.append(indent).append("generator.writeFieldName(").append(key).append(");\n");
+                    sb.append(indent).append("generator.writeNumber(").append(getter).append(");\n");
+                    break;
+                default:
+                    sb.append(indent).append(getTypeName(property.mType)).append(" ").append(local)
+                            .append(" = ").append(getter).append(";\n");
+                    sb.append(indent).append("if (").append(local).append(" != null) {\n");
+                    sb.append(indent).append("    generator.writeFieldName(").append(key).append(");\n");
+                    sb.append(indent).append("    ").append(getWriteValue(property, local)).append(";\n");
+                    sb.append(indent).append("}\n");
+            }
+
+            if (property.mIsWriteOnly) {
+                sb.append("        }\n");
+            }
+        }
+
+        if (!codec.mRoot.isEmpty()) {
+            sb.append("        generator.writeEndObject();\n");
+        }
+        sb.append("        generator.writeEndObject();\n");
+        sb.append("    }\n");
+    }
+
+    private String getWriteValue(Property property, String local) {
+        switch (property.mKind) {
+            case STRING: return "generator.writeString(" + local + ")";
+            case BOXED_BOOLEAN: return "generator.writeBoolean(" + local + ")";
+            case BOXED_INT:
+            case BOXED_LONG:
+            case BOXED_DOUBLE: return "generator.writeNumber(" + local + ")";
+            case ENUM_NAME: return "generator.writeString(" + local + ".name())";
+            case ENUM_CODE: return "generator.writeNumber(" + local + ".getCode())";
+            case JSON_OBJECT: return "generator.writeRawValue(" + local + ".toString())";
+            default: throw new IllegalStateException(property.mKind.toString());
+        }
+    }
+
+    private void writeFromJson(String typeName, StringBuilder sb) {
+        sb.append("\n    /**\n     * @throws IllegalArgumentException If the JSON is not valid\n     */\n");
+        sb.append("    public static ").append(typeName).append(" fromJson(String json) {\n");
+        sb.append("        try (JsonParser parser = JsonCodecs.createParser(json)) {\n");
+        sb.append("            return read(parser);\n");
+        sb.append("        } catch (IOException e) {\n");
+        sb.append("            throw new IllegalArgumentException(\"Invalid ").append(typeName)
+                .append(" JSON: \" + e.getMessage(), e);\n");
+        sb.append("        }\n");
+        sb.append("    }\n");
+    }
+
+    private void writeRead(Codec codec, String typeName, StringBuilder sb) {
+        sb.append("\n    /**\n     * Read the object at the current or next token of a parser. Missing properties are null, or 0 or" +
+                " false.\n     */\n");
+        sb.append("    public static ").append(typeName)
+                .append(" read(JsonParser parser) throws IOException {\n");
+
+        for (Property property : codec.mProperties.values()) {
+            sb.append("        ").append(getTypeName(property.mType)).append(" ").append(getLocal(property))
+                    .append(" = ").append(getDefaultValue(property.mKind)).append(";\n");
+        }
+
+        sb.append("\n        JsonCodecs.startObject(parser, ROOT);\n");
+        sb.append("        while (parser.nextToken() == JsonToken.FIELD_NAME) {\n");
+        sb.append("            String key = parser.getCurrentName();\n");
+        sb.append("            JsonToken token = parser.nextToken();\n\n");
+        sb.append("            switch (key) {\n");
+        for (Property property : codec.mProperties.values()) {
+            sb.append("                case \"").append(property.mName).append("\":\n");
+            writeReadValue(property, sb);
+            sb.append("                    break;\n");
+        }
+        sb.append("                default:\n");
+        sb.append("                    parser.skipChildren();\n");
+        sb.append("            }\n");
+        sb.append("        }\n");
+        sb.append("        JsonCodecs.endObject(parser, ROOT);\n\n");
+
+        if (codec.mConstructor != null) {
+            sb.append("        return new ").append(typeName).append("(");
+            List<? extends VariableElement> parameters = codec.mConstructor.getParameters();
+            for (int i = 0; i < parameters.size(); i++) {
+                sb.append(i == 0 ? "" : ", ")
+                        .append(getLocal(codec.mProperties.get(parameters.get(i).getSimpleName().toString())));
+            }
+            sb.append(");\n");
+        } else {
+            sb.append("        ").append(typeName).append(" result = new ").append(typeName).append("();\n");
+            for (Property property : codec.mProperties.values()) {
+                sb.append("        result.").append(property.mSetter.getSimpleName()).append("(")
+                        .append(getLocal(property)).append(");\n");
+            }
+            sb.append("        return result;\n");
+        }
+        sb.append("    }\n");
+    }
+
+    private void writeReadValue(Property property, StringBuilder sb) {
+        String name = getLocal(property);
+        String indent = "                    ";
+        String notNull = indent + "if (token != JsonToken.VALUE_NULL) ";
+
+        if (property.mKind != Kind.STRING && property.mKind != Kind.JSON_OBJECT) {
+            // readString checks it itself
+            sb.append(indent).append("JsonCodecs.checkScalar(parser);\n");
+        }
+
+        switch (property.mKind) {
+            case BOOLEAN:
+            case BOXED_BOOLEAN:
+                sb.append(notNull).append(name).append(" = parser.getBooleanValue();\n");
+                break;
+            case INT:
+            case BOXED_INT:
+                sb.append(notNull).append(name).append(" = parser.getIntValue();\n");
+                break;
+            case LONG:
+            case BOXED_LONG:
+                sb.append(notNull).append(name).append(" = parser.getLongValue();\n");
+                break;
+            case DOUBLE:
+            case BOXED_DOUBLE:
+                sb.append(notNull).append(name).append(" = parser.getDoubleValue();\n");
+                break;
+            case STRING:
+                sb.append(indent).append(name).append(" = JsonCodecs.readString(parser);\n");
+                break;
+            case JSON_OBJECT: {
+                String json = property.mName + "Json";
+                sb.append(indent).append("String ").append(json).append(" = JsonCodecs.readTree(parser);\n");
+                sb.append(indent).append(name).append(" = ").append(json).append(" == null ? null : new ")
+                        .append(JSON_OBJECT).append("(").append(json).append(");\n");
+                break;
+            }
+            case ENUM_NAME:
+            case ENUM_CODE: {
+                String table = getEnumTable(property);
+                String lookup = property.mKind == Kind.ENUM_CODE ? "parser.getIntValue()" : "parser.getText()";
+                sb.append(indent).append("if (token != JsonToken.VALUE_NULL) {\n");
+                sb.append(indent).append("    ").append(name).append(" = ").append(table).append(".get(")
+                        .append(lookup).append(");\n");
+                sb.append(indent).append("    if (").append(name).append(" == null) {\n");
+                sb.append(indent).append("        throw JsonCodecs.unknownEnumValue(parser, ")
+                        .append(getTypeName(property.mType)).append(".class);\n");
+                sb.append(indent).append("    }\n");
+                sb.append(indent).append("}\n");
+                break;
+            }
+            default:
+                throw new IllegalStateException(property.mKind.toString());
+        }
+    }
+
+    private static String getDefaultValue(Kind kind) {
+        switch (kind) {
+            case BOOLEAN: return "false";
+            case INT: return "0";
+            case LONG: return "0L";
+            case DOUBLE: return "0.0";
+            default: return "null";
+        }
+    }
+
+    private static String getLocal(Property property) {
+        return property.mName + "Value";
+    }
+
+    private static String getKeyConstant(Property property) {
+        return "KEY" + toConstantName(property.mName);
+    }
+
+    /**
+     * @return The name in uppercase with an underscore before each word (e.g. "_TEXT_INPUT_TYPE")
+     */
+    private static String toConstantName(String name) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (i == 0 || Character.isUpperCase(c) && Character.isLowerCase(name.charAt(i - 1))) {
+                sb.append('_');
+            }
+            sb.append(Character.toUpperCase(c));
+        }
+        return sb.toString();
+    }
+
+    private static String getEnumTable(Property property) {
+        String name = ((DeclaredType) property.mType).asElement().getSimpleName().toString();
+        return (property.mKind == Kind.ENUM_CODE ? "CODES" : "NAMES") + toConstantName(name);
+    }
+
+    /**
+     * Get the name of a type as it can be used in code, e.g. InputResponse.TextInputType.
+     */
+    private static String getTypeName(TypeMirror type) {
+        String name = type.toString().replace('$', '.');
+        return name.startsWith("java.lang.") && name.indexOf('.', 10) < 0 ? name.substring(10) : name;
+    }
+
+    private static String decapitalize(String name) {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static boolean hasAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().toString().equals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private enum Kind {
+        BOOLEAN, INT, LONG, DOUBLE, BOXED_BOOLEAN, BOXED_INT, BOXED_LONG, BOXED_DOUBLE, STRING, ENUM_NAME, ENUM_CODE,
+        JSON_OBJECT
+    }
+
+    private static final class Codec {
+        private TypeElement mType;
+        private String mRoot;
+        private final Map<String, Property> mProperties = new LinkedHashMap<>();
+        private ExecutableElement mConstructor; // Null if the setters are used
+
+        private boolean hasWriteOnlyProperties() {
+            for (Property property : mProperties.values()) {
+                if (property.mIsWriteOnly) return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class Property {
+        private String mName;
+        private ExecutableElement mGetter;
+        private ExecutableElement mSetter;
+        private TypeMirror mType;
+        private Kind mKind;
+        private boolean mIsWriteOnly;
+    }
+
+}
@@ -4,59 +4,95 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 /**
- * Application messages configurations
+ * Application messages configurations. Instances are immutable; the current instance is part of the
+ * {@link ConfigurationsManager#getSnapshot() configurations snapshot}.
  */
 public final class ApplicationMessagesConfigurations {
+    private static final ApplicationMessagesConfigurations EMPTY =
+            new ApplicationMessagesConfigurations(null, 0, null, 0, null);
     protected static final String ID = "ApplicationMessages";
-    public static boolean sAreInitialized;
+
+    private final String mOnStart;
+    private final int mOnStartShowInterval;
+    private final String mOnLogIn;
+    private final int mOnLogInShowInterval;
+    private final String mPostAccountCreated;
+
+    private ApplicationMessagesConfigurations(String onStart, int onStartShowInterval, String onLogIn,
+                                              int onLogInShowInterval, String postAccountCreated) {
+        mOnStart = onStart;
+        mOnStartShowInterval = onStartShowInterval;
+        mOnLogIn = onLogIn;
+        mOnLogInShowInterval = onLogInShowInterval;
+        mPostAccountCreated = postAccountCreated;
+    }
+
+    /**
+     * Get the application messages configurations of the current snapshot.
+     * @return Null if they are not initialized
+     */
+    public static ApplicationMessagesConfigurations current() {
+        return ConfigurationsManager.getSnapshot().getApplicationMessages();
+    }
+
+    public String getOnStart() { return mOnStart; }
+    public int getOnStartShowInterval() { return mOnStartShowInterval; }
+    public String getOnLogIn() { return mOnLogIn; }
+    public int getOnLogInShowInterval() { return mOnLogInShowInterval; }
+    public String getPostAccountCreated() { return mPostAccountCreated; }
 
     public static final class Application {
-        protected static String onStart;
-        protected static int onStartShowInterval;
-        public static String onStart() { return onStart; }
-        public static int onStartShowInterval() { return onStartShowInterval; }
+        public static String onStart() { return currentOrEmpty().mOnStart; }
+        public static int onStartShowInterval() { return currentOrEmpty().mOnStartShowInterval; }
     }
 
     public static final class UserAccount {
-        protected static String onLogIn;
-        protected static int onLogInShowInterval;
-        public static String onLogIn() { return onLogIn; }
-        public static int onLogInShowInterval() { return onLogInShowInterval; }
+        public static String onLogIn() { return currentOrEmpty().mOnLogIn; }
+        public static int onLogInShowInterval() { return currentOrEmpty().mOnLogInShowInterval; }
     }
 
     public static final class CreateAccount {
-        protected static String postAccountCreated;
-        public static String postAccountCreated() { return postAccountCreated; }
+        public static String postAccountCreated() { return currentOrEmpty().mPostAccountCreated; }
     }
 
-    protected static boolean parseFromJson(String json) {
+    /**
+     * @return Null if the JSON could not be parsed
+     */
+    protected static ApplicationMessagesConfigurations parseFromJson(String json) {
         try {
             JSONObject root = new JSONObject(json);
 
             JSONObject l1 = root.getJSONObject("application");
-            Application.onStart = l1.getString("onStart");
-            Application.onStartShowInterval = l1.getInt("onStartShowInterval");
+            String onStart = l1.getString("onStart");
+            int onStartShowInterval = l1.getInt("onStartShowInterval");
 
             l1 = root.getJSONObject("userAccount");
-            UserAccount.onLogIn = l1.getString("onLogIn");
-            UserAccount.onLogInShowInterval = l1.getInt("onLogInShowInterval");
+            String onLogIn = l1.getString("onLogIn");
+            int onLogInShowInterval = l1.getInt("onLogInShowInterval");
 
             l1 = root.getJSONObject("createAccount");
-            CreateAccount.postAccountCreated = l1.getString("postAccountCreated");
+            String postAccountCreated = l1.getString("postAccountCreated");
 
-            sAreInitialized = true;
+            return new ApplicationMessagesConfigurations(onStart, onStartShowInterval, onLogIn, onLogInShowInterval,
+                    postAccountCreated);
         } catch (NullPointerException e) {
             ConfigurationsUtils.logParseNullPointerException(ID);
-            sAreInitialized = false;
         } catch (JSONException e) {
             ConfigurationsUtils.logParseJSONException(ID, e);
-            sAreInitialized = false;
         }
-        return sAreInitialized;
+        return null;
+    }
+
+    /**
+     * Get the current instance, or an instance of null values (as before initialization) for the static accessors.
+     */
+    private static ApplicationMessagesConfigurations currentOrEmpty() {
+        ApplicationMessagesConfigurations configurations = current();
+        return configurations != null ? configurations : EMPTY;
     }
 
     public static boolean areInitialized() {
-        return sAreInitialized;
+        return current() != null;
     }
 
 }
@@ -4,17 +4,36 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 /**
- * Base configurations
+ * Base configurations. Instances are immutable; the current instance is part of the
+ * {@link ConfigurationsManager#getSnapshot() configurations snapshot}.
  */
 public final class BaseConfigurations {
+    private static final BaseConfigurations EMPTY = new BaseConfigurations(null, null);
     protected static final String ID = "Base";
-    public static boolean sAreInitialized;
+
+    private final String mLatitudeLongitudeRegex;
+    private final String mMqttUserName;
+
+    private BaseConfigurations(String latitudeLongitudeRegex, String mqttUserName) {
+        mLatitudeLongitudeRegex = latitudeLongitudeRegex;
+        mMqttUserName = mqttUserName;
+    }
+
+    /**
+     * Get the base configurations of the current snapshot.
+     * @return Null if they are not initialized
+     */
+    public static BaseConfigurations current() {
+        return ConfigurationsManager.getSnapshot().getBase();
+    }
+
+    public String getLatitudeLongitudeRegex() { return mLatitudeLongitudeRegex; }
+    public String getMqttUserName() { return mMqttUserName; }
 
     public static final class GeneralConstants {
 
         public static final class Resources {
-            protected static String latitudeLongitudeRegex;
-            public static String latitudeLongitudeRegex() { return latitudeLongitudeRegex; }
+            public static String latitudeLongitudeRegex() { return currentOrEmpty().mLatitudeLongitudeRegex; }
         }
 
     }
@@ -22,37 +41,45 @@ public final class BaseConfigurations {
     public static final class Servers {
 
         public static final class Mqtt {
-            protected static String userName;
-            public static String userName() { return userName; }
+            public static String userName() { return currentOrEmpty().mMqttUserName; }
         }
 
     }
 
-    protected static boolean parseFromJson(String json) {
+    /**
+     * @return Null if the JSON could not be parsed
+     */
+    protected static BaseConfigurations parseFromJson(String json) {
         try {
             JSONObject root = new JSONObject(json);
 
             JSONObject l1 = root.getJSONObject("generalConstants");
             JSONObject l2 = l1.getJSONObject("resources");
-            GeneralConstants.Resources.latitudeLongitudeRegex = l2.getString("latitudeLongitudeRegex");
+            String latitudeLongitudeRegex = l2.getString("latitudeLongitudeRegex");
 
             l1 = root.getJSONObject("servers");
             l2 = l1.getJSONObject("mqtt");
-            Servers.Mqtt.userName = l2.getString("userName");
+            String mqttUserName = l2.getString("userName");
 
-            sAreInitialized = true;
+            return new BaseConfigurations(latitudeLongitudeRegex, mqttUserName);
         } catch (NullPointerException e) {
             ConfigurationsUtils.logParseNullPointerException(ID);
-            sAreInitialized = false;
         } catch (JSONException e) {
             ConfigurationsUtils.logParseJSONException(ID, e);
-            sAreInitialized = false;
         }
-        return sAreInitialized;
+        return null;
+    }
+
+    /**
+     * Get the current instance, or an instance of null values (as before initialization) for the static accessors.
+     */
+    private static BaseConfigurations currentOrEmpty() {
+        BaseConfigurations configurations = current();
+        return configurations != null ? configurations : EMPTY;
     }
 
     public static boolean areInitialized() {
-        return sAreInitialized;
+        return current() != null;
     }
 
 }
@@ -7,21 +7,41 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * Manager for all configurations retrieved from the datastore
+ * Manager for all configurations retrieved from the datastore.
+ * <p>
+ * The configurations are published as an immutable {@link Snapshot} through one volatile reference: reads are
+ * lock-free, an update becomes visible all at once, and a reader that holds a snapshot sees consistent values for as
+ * long as it holds it. Updates are serialized.
  */
 public final class ConfigurationsManager {
     private static final Logger LOG = LoggerFactory.getLogger(ConfigurationsManager.class);
-    private static final int NUM_TOTAL_ENTITIES = 5;
-    private static final HashMap<String, String> CONFIG_JSONS_MAP = new HashMap<>();
-    private static boolean sDidInitializationRun;
-    private static boolean sDidAllConfigurationsSuccessfullyInitialize;
+
+    /**
+     * Key of the version of a configuration entity, a hash of its content set by the server.
+     */
+    public static final String VERSION_KEY = "_version";
+
+    private static volatile Snapshot sSnapshot = new Snapshot(Collections.<String, String>emptyMap(),
+            Collections.<String, String>emptyMap(), null, null, null, null, false);
 
     private ConfigurationsManager() { }
 
+    /**
+     * Get the current configurations. Hold on to the snapshot to read several values that must be consistent, e.g.
+     * for the length of a request.
+     */
+    public static Snapshot getSnapshot() {
+        return sSnapshot;
+    }
+
     /**
      * Initialize all configuration JSONs
      * @return  0 if all configuration updated successfully
@@ -29,9 +49,16 @@ public final class ConfigurationsManager {
      *         -1 if list contains an invalid JSONs
      *         -2 if list is null or empty
      */
-    public static int initializeConfigurations(JSONArray jsonArry) {
+    public static synchronized int initializeConfigurations(JSONArray jsonArry) {
         List<String> configsJsonsStringsList = JSONUtils.parseJsonArrayRootObjectsToList(jsonArry);
 
+        if (configsJsonsStringsList == null || configsJsonsStringsList.isEmpty()) {
+            LOG.error("Configurations could not update: List is null or empty");
+            return -2;
+        }
+
+        Map<String, String> configJsonsMap = new HashMap<>(sSnapshot.mConfigJsonsMap);
+
         for (int i = 0; i < configsJsonsStringsList.size(); i++) {
             String configsJsonStr = configsJsonsStringsList.get(i);
             String id;
@@ -45,33 +72,16 @@ public final class ConfigurationsManager {
                 return -1;
             }
 
-            CONFIG_JSONS_MAP.put(id, configsJsonStr);
+            configJsonsMap.put(id, configsJsonStr);
         }
 
-        int numEntsSuccessfullyInitialized = 0;
+        Snapshot snapshot = publish(configJsonsMap, configJsonsMap.keySet());
 
-        if (BaseConfigurations.parseFromJson(CONFIG_JSONS_MAP.get(BaseConfigurations.ID))) {
-            numEntsSuccessfullyInitialized++;
-        }
-        if (ApplicationMessagesConfigurations.parseFromJson(CONFIG_JSONS_MAP.get(ApplicationMessagesConfigurations.ID))) {
-            numEntsSuccessfullyInitialized++;
-        }
-        if (RegulationConfigurations.parseFromJson(CONFIG_JSONS_MAP.get(RegulationConfigurations.ID))) {
-            numEntsSuccessfullyInitialized++;
-        }
-        if (ValidationConfigurations.parseFromJson(CONFIG_JSONS_MAP.get(ValidationConfigurations.ID))) {
-            numEntsSuccessfullyInitialized++;
-        }
-
-        sDidInitializationRun = true;
-
-        if (numEntsSuccessfullyInitialized == NUM_TOTAL_ENTITIES) {
+        if (snapshot.didAllConfigurationsSuccessfullyInitialize()) {
             LOG.info("Configurations successfully initialized");
-            sDidAllConfigurationsSuccessfullyInitialize = true;
             return 0;
         } else {
-            LOG.error((NUM_TOTAL_ENTITIES - numEntsSuccessfullyInitialized) + " configuration entities failed to initialize.");
-            sDidAllConfigurationsSuccessfullyInitialize = false;
+            LOG.error("Not all configuration entities initialized successfully");
             return 1;
         }
     }
@@ -89,12 +99,183 @@ public final class ConfigurationsManager {
         return initializeConfigurations(jsonArry);
     }
 
+    /**
+     * Apply the changes of the configuration entities returned by the server for the versions of
+     * {@link #getVersionsJson()}. Only the entities that changed are parsed again; the others are kept as they are.
+     * @param changesJsonStr JSON object with the array "configurations" of the entities that changed and, optionally,
+     *                       the array "removed" of the IDs of the entities that no longer exist
+     * @return  0 if all configurations are initialized after the changes
+     *          1 if not all configurations are initialized after the changes
+     *         -1 if the changes are not valid JSON
+     */
+    public static synchronized int applyConfigurationsChanges(String changesJsonStr) {
+        JSONArray changedJsonArry;
+        JSONArray removedJsonArry;
+
+        try {
+            JSONObject root = new JSONObject(changesJsonStr);
+            changedJsonArry = root.getJSONArray("configurations");
+            removedJsonArry = root.optJSONArray("removed");
+
+            for (int i = 0; i < changedJsonArry.length(); i++) {
+                changedJsonArry.getJSONObject(i).getString("_id");
+            }
+        } catch (JSONException e) {
+            LOG.error("Configurations changes could not be applied: Invalid JSON: {}", e.getMessage());
+            return -1;
+        }
+
+        Map<String, String> configJsonsMap = new HashMap<>(sSnapshot.mConfigJsonsMap);
+        Set<String> changedIds = new HashSet<>();
+
+        for (int i = 0; i < changedJsonArry.length(); i++) {
+            JSONObject configsJsonObj = changedJsonArry.getJSONObject(i);
+            String id = configsJsonObj.getString("_id");
+
+            configJsonsMap.put(id, configsJsonObj.toString());
+            changedIds.add(id);
+        }
+
+        if (removedJsonArry != null) {
+            for (int i = 0; i < removedJsonArry.length(); i++) {
+                String id = removedJsonArry.optString(i);
+                configJsonsMap.remove(id);
+                changedIds.add(id);
+            }
+        }
+
+        Snapshot snapshot = publish(configJsonsMap, changedIds);
+
+        LOG.info("{} configuration entities changed", changedIds.size());
+        return snapshot.didAllConfigurationsSuccessfullyInitialize() ? 0 : 1;
+    }
+
+    /**
+     * Get the versions of the configuration entities held, to request only the entities that changed from the
+     * server.
+     * @return JSON object of the version of each entity by ID; entities without a version are not included
+     */
+    public static JSONObject getVersionsJson() {
+        return new JSONObject(sSnapshot.mConfigVersionsMap);
+    }
+
     public static boolean didInitializationRun() {
-        return sDidInitializationRun;
+        return sSnapshot.didInitializationRun();
     }
 
     public static boolean didAllConfigurationsSuccessfullyInitialize() {
-        return sDidAllConfigurationsSuccessfullyInitialize;
+        return sSnapshot.didAllConfigurationsSuccessfullyInitialize();
+    }
+
+    /**
+     * Parse the changed configuration entities, keeping the others of the current snapshot, and publish the new
+     * snapshot.
+     * @param configJsonsMap JSON of each entity by ID, after the changes
+     * @param changedIds IDs of the entities that changed or were removed
+     */
+    private static Snapshot publish(Map<String, String> configJsonsMap, Set<String> changedIds) {
+        Snapshot current = sSnapshot;
+        Map<String, String> configVersionsMap = new HashMap<>();
+        BaseConfigurations base = current.mBase;
+        ApplicationMessagesConfigurations applicationMessages = current.mApplicationMessages;
+        RegulationConfigurations regulation = current.mRegulation;
+        ValidationConfigurations validation = current.mValidation;
+
+        for (Map.Entry<String, String> entry : configJsonsMap.entrySet()) {
+            String version = changedIds.contains(entry.getKey()) ?
+                    new JSONObject(entry.getValue()).optString(VERSION_KEY, null) :
+                    current.mConfigVersionsMap.get(entry.getKey());
+            if (version != null) {
+                configVersionsMap.put(entry.getKey(), version);
+            }
+        }
+
+        if (changedIds.contains(BaseConfigurations.ID)) {
+            String json = configJsonsMap.get(BaseConfigurations.ID);
+            base = json != null ? BaseConfigurations.parseFromJson(json) : null;
+        }
+        if (changedIds.contains(ApplicationMessagesConfigurations.ID)) {
+            String json = configJsonsMap.get(ApplicationMessagesConfigurations.ID);
+            applicationMessages = json != null ? ApplicationMessagesConfigurations.parseFromJson(json) : null;
+        }
+        if (changedIds.contains(RegulationConfigurations.ID)) {
+            String json = configJsonsMap.get(RegulationConfigurations.ID);
+            regulation = json != null ? RegulationConfigurations.parseFromJson(json) : null;
+        }
+        if (changedIds.contains(ValidationConfigurations.ID)) {
+            String json = configJsonsMap.get(ValidationConfigurations.ID);
+            validation = json != null ? ValidationConfigurations.parseFromJson(json) : null;
+        }
+
+        Snapshot snapshot = new Snapshot(Collections.unmodifiableMap(configJsonsMap),
+                Collections.unmodifiableMap(configVersionsMap), base, applicationMessages, regulation, validation,
+                true);
+        sSnapshot = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * An immutable version of all configurations.
+     */
+    public static final class Snapshot {
+        private final Map<String, String> mConfigJsonsMap;
+        private final Map<String, String> mConfigVersionsMap;
+        private final BaseConfigurations mBase;
+        private final ApplicationMessagesConfigurations mApplicationMessages;
+        private final RegulationConfigurations mRegulation;
+        private final ValidationConfigurations mValidation;
+        private final boolean mDidInitializationRun;
+
+        private Snapshot(Map<String, String> configJsonsMap, Map<String, String> configVersionsMap,
+                         BaseConfigurations base, ApplicationMessagesConfigurations applicationMessages,
+                         RegulationConfigurations regulation, ValidationConfigurations validation,
+                         boolean didInitializationRun) {
+            mConfigJsonsMap = configJsonsMap;
+            mConfigVersionsMap = configVersionsMap;
+            mBase = base;
+            mApplicationMessages = applicationMessages;
+            mRegulation = regulation;
+            mValidation = validation;
+            mDidInitializationRun = didInitializationRun;
+        }
+
+        /**
+         * @return Null if the base configurations are not initialized
+         */
+        public BaseConfigurations getBase() { return mBase; }
+
+        /**
+         * @return Null if the application messages configurations are not initialized
+         */
+        public ApplicationMessagesConfigurations getApplicationMessages() { return mApplicationMessages; }
+
+        /**
+         * @return Null if the regulation configurations are not initialized
+         */
+        public RegulationConfigurations getRegulation() { return mRegulation; }
+
+        /**
+         * @return Null if the validation configurations are not initialized
+         */
+        public ValidationConfigurations getValidation() { return mValidation; }
+
+        /**
+         * Get the JSON of a configuration entity.
+         * @return Null if there is no entity with the ID
+         */
+        public String getConfigurationsJson(String id) { return mConfigJsonsMap.get(id); }
+
+        /**
+         * Get the version of a configuration entity.
+         * @return Null if there is no entity with the ID or it has no version
+         */
+        public String getVersion(String id) { return mConfigVersionsMap.get(id); }
+
+        public boolean didInitializationRun() { return mDidInitializationRun; }
+
+        public boolean didAllConfigurationsSuccessfullyInitialize() {
+            return mBase != null && mApplicationMessages != null && mRegulation != null && mValidation != null;
+        }
     }
 
 }
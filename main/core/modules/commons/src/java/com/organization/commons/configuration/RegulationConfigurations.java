@@ -0,0 +1,135 @@
+package com.organization.commons.configuration;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Rules and limits for application use. Instances are immutable; the current instance is part of the
+ * {@link ConfigurationsManager#getSnapshot() configurations snapshot}. Read several values from one instance (see
+ * {@link #current()}) so that they are consistent.
+ */
+public final class RegulationConfigurations {
+    private static final RegulationConfigurations EMPTY = new RegulationConfigurations("", "", 0, 0, 0, 0, 0);
+    protected static final String ID = "Regulation";
+
+    private final String mPrimaryUnallowedWords;
+    private final String mSecondaryUnallowedWords;
+    private final long mUserTokenLifetime;
+    private final int mWgs84QueryMaximumDegrees;
+    private final long mChangeUserNameInterval;
+    private final long mMaximumMessagesBreakInterval;
+    private final int mMaximumMessagesWithinBreakInterval;
+
+    private RegulationConfigurations(String primaryUnallowedWords, String secondaryUnallowedWords,
+                                     long userTokenLifetime, int wgs84QueryMaximumDegrees, long changeUserNameInterval,
+                                     long maximumMessagesBreakInterval, int maximumMessagesWithinBreakInterval) {
+        mPrimaryUnallowedWords = primaryUnallowedWords;
+        mSecondaryUnallowedWords = secondaryUnallowedWords;
+        mUserTokenLifetime = userTokenLifetime;
+        mWgs84QueryMaximumDegrees = wgs84QueryMaximumDegrees;
+        mChangeUserNameInterval = changeUserNameInterval;
+        mMaximumMessagesBreakInterval = maximumMessagesBreakInterval;
+        mMaximumMessagesWithinBreakInterval = maximumMessagesWithinBreakInterval;
+    }
+
+    /**
+     * Get the regulation configurations of the current snapshot.
+     * @return Null if they are not initialized
+     */
+    public static RegulationConfigurations current() {
+        return ConfigurationsManager.getSnapshot().getRegulation();
+    }
+
+    /**
+     * @return Comma-separated words not allowed in user names; empty if there are none
+     */
+    public String getPrimaryUnallowedWords() { return mPrimaryUnallowedWords; }
+
+    /**
+     * @return Comma-separated words not allowed in user names; empty if there are none
+     */
+    public String getSecondaryUnallowedWords() { return mSecondaryUnallowedWords; }
+
+    public long getUserTokenLifetime() { return mUserTokenLifetime; }
+    public int getWgs84QueryMaximumDegrees() { return mWgs84QueryMaximumDegrees; }
+    public long getChangeUserNameInterval() { return mChangeUserNameInterval; }
+    public long getMaximumMessagesBreakInterval() { return mMaximumMessagesBreakInterval; }
+    public int getMaximumMessagesWithinBreakInterval() { return mMaximumMessagesWithinBreakInterval; }
+
+    public static final class Global {
+        public static String primaryUnallowedWords() { return currentOrEmpty().mPrimaryUnallowedWords; }
+        public static String secondaryUnallowedWords() { return currentOrEmpty().mSecondaryUnallowedWords; }
+    }
+
+    public static final class Internal {
+
+        public static final class Authentication {
+            public static long userTokenLifetime() { return currentOrEmpty().mUserTokenLifetime; }
+        }
+
+        public static final class DataMovement {
+            public static int wgs84QueryMaximumDegrees() { return currentOrEmpty().mWgs84QueryMaximumDegrees; }
+        }
+
+    }
+
+    public static final class UserAccount {
+        public static long changeUserNameInterval() { return currentOrEmpty().mChangeUserNameInterval; }
+    }
+
+    public static final class Messaging {
+        public static long maximumMessagesBreakInterval() { return currentOrEmpty().mMaximumMessagesBreakInterval; }
+        public static int maximumMessagesWithinBreakInterval() {
+            return currentOrEmpty().mMaximumMessagesWithinBreakInterval;
+        }
+    }
+
+    /**
+     * @return Null if the JSON could not be parsed
+     */
+    protected static RegulationConfigurations parseFromJson(String json) {
+        try {
+            JSONObject root = new JSONObject(json);
+
+            // Optional, as not every deployment restricts words
+            JSONObject l1 = root.optJSONObject("global");
+            String primaryUnallowedWords = l1 != null ? l1.optString("primaryUnallowedWords", "") : "";
+            String secondaryUnallowedWords = l1 != null ? l1.optString("secondaryUnallowedWords", "") : "";
+
+            l1 = root.getJSONObject("internal");
+            JSONObject l2 = l1.getJSONObject("authentication");
+            long userTokenLifetime = l2.getLong("userTokenLifetime");
+            l2 = l1.getJSONObject("dataMovement");
+            int wgs84QueryMaximumDegrees = l2.getInt("wgs84QueryMaximumDegrees");
+
+            l1 = root.getJSONObject("userAccount");
+            long changeUserNameInterval = l1.getLong("changeUserNameInterval");
+
+            l1 = root.getJSONObject("messaging");
+            long maximumMessagesBreakInterval = l1.getLong("maximumMessagesBreakInterval");
+            int maximumMessagesWithinBreakInterval = l1.getInt("maximumMessagesWithinBreakInterval");
+
+            return new RegulationConfigurations(primaryUnallowedWords, secondaryUnallowedWords, userTokenLifetime,
+                    wgs84QueryMaximumDegrees, changeUserNameInterval, maximumMessagesBreakInterval,
+                    maximumMessagesWithinBreakInterval);
+        } catch (NullPointerException e) {
+            ConfigurationsUtils.logParseNullPointerException(ID);
+        } catch (JSONException e) {
+            ConfigurationsUtils.logParseJSONException(ID, e);
+        }
+        return null;
+    }
+
+    /**
+     * Get the current instance, or an instance of zero values (as before initialization) for the static accessors.
+     */
+    private static RegulationConfigurations currentOrEmpty() {
+        RegulationConfigurations configurations = current();
+        return configurations != null ? configurations : EMPTY;
+    }
+
+    public static boolean areInitialized() {
+        return current() != null;
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.organization.commons.configuration;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Rules for validating resources. Instances are immutable; the current instance is part of the
+ * {@link ConfigurationsManager#getSnapshot() configurations snapshot}. Read several values from one instance (see
+ * {@link #current()}) so that they are consistent.
+ */
+public final class ValidationConfigurations {
+    private static final ValidationConfigurations EMPTY = new ValidationConfigurations(null, 0, 0, null, 0, 0);
+    protected static final String ID = "Validation";
+
+    private final String mUserNameRegex;
+    private final int mUserNameMinimumLength;
+    private final int mUserNameMaximumLength;
+    private final String mUserPasswordRegex;
+    private final int mUserPasswordMinimumLength;
+    private final int mUserPasswordMaximumLength;
+
+    private ValidationConfigurations(String userNameRegex, int userNameMinimumLength, int userNameMaximumLength,
+                                     String userPasswordRegex, int userPasswordMinimumLength,
+                                     int userPasswordMaximumLength) {
+        mUserNameRegex = userNameRegex;
+        mUserNameMinimumLength = userNameMinimumLength;
+        mUserNameMaximumLength = userNameMaximumLength;
+        mUserPasswordRegex = userPasswordRegex;
+        mUserPasswordMinimumLength = userPasswordMinimumLength;
+        mUserPasswordMaximumLength = userPasswordMaximumLength;
+    }
+
+    /**
+     * Get the validation configurations of the current snapshot.
+     * @return Null if they are not initialized
+     */
+    public static ValidationConfigurations current() {
+        return ConfigurationsManager.getSnapshot().getValidation();
+    }
+
+    public String getUserNameRegex() { return mUserNameRegex; }
+    public int getUserNameMinimumLength() { return mUserNameMinimumLength; }
+    public int getUserNameMaximumLength() { return mUserNameMaximumLength; }
+    public String getUserPasswordRegex() { return mUserPasswordRegex; }
+    public int getUserPasswordMinimumLength() { return mUserPasswordMinimumLength; }
+    public int getUserPasswordMaximumLength() { return mUserPasswordMaximumLength; }
+
+    public static final class User {
+        public static String nameRegex() { return currentOrEmpty().mUserNameRegex; }
+        public static int nameMinimumLength() { return currentOrEmpty().mUserNameMinimumLength; }
+        public static int nameMaximumLength() { return currentOrEmpty().mUserNameMaximumLength; }
+        public static String passwordRegex() { return currentOrEmpty().mUserPasswordRegex; }
+        public static int passwordMinimumLength() { return currentOrEmpty().mUserPasswordMinimumLength; }
+        public static int passwordMaximumLength() { return currentOrEmpty().mUserPasswordMaximumLength; }
+    }
+
+    /**
+     * @return Null if the JSON could not be parsed
+     */
+    protected static ValidationConfigurations parseFromJson(String json) {
+        try {
+            JSONObject root = new JSONObject(json);
+
+            JSONObject l1 = root.getJSONObject("user");
+            String userNameRegex = l1.getString("nameRegex");
+            int userNameMinimumLength = l1.getInt("nameMinimumLength");
+            int userNameMaximumLength = l1.getInt("nameMaximumLength");
+            String userPasswordRegex = l1.getString("passwordRegex");
+            int userPasswordMinimumLength = l1.getInt("passwordMinimumLength");
+            int userPasswordMaximumLength = l1.getInt("passwordMaximumLength");
+
+            return new ValidationConfigurations(userNameRegex, userNameMinimumLength, userNameMaximumLength,
+                    userPasswordRegex, userPasswordMinimumLength, userPasswordMaximumLength);
+        } catch (NullPointerException e) {
+            ConfigurationsUtils.logParseNullPointerException(ID);
+        } catch (JSONException e) {
+            ConfigurationsUtils.logParseJSONException(ID, e);
+        }
+        return null;
+    }
+
+    /**
+     * Get the current instance, or an instance of null values (as before initialization) for the static accessors.
+     */
+    private static ValidationConfigurations currentOrEmpty() {
+        ValidationConfigurations configurations = current();
+        return configurations != null ? configurations : EMPTY;
+    }
+
+    public static boolean areInitialized() {
+        return current() != null;
+    }
+
+}
@@ -1,8 +1,11 @@
 package com.organization.commons.model;
 
+import com.organization.commons.codec.JsonCodec;
+
 /**
- * User
+ * User; see {@link UserCodec} to encode and decode it.
  */
+@JsonCodec
 public class User {
 
     private long mId;
@@ -48,6 +51,7 @@ public class User {
     public void setId(long id) { mId = id; }
     public String getName() { return mName; }
     public void setName(String name) { mName = name; }
+    @JsonCodec.WriteOnly
     public String getPassword() { return mPassword; }
     public void setPassword(String password) { mPassword = password; }
     public int getCountryCode() { return mCountryCode; }
@@ -1,10 +1,12 @@
 package com.organization.commons.rest;
 
+import com.organization.commons.codec.JsonCodec;
 import org.json.JSONObject;
 
 /**
  * Client input response (requested by the server).
  */
+@JsonCodec(root = "inputResponse")
 public class InputResponse {
 
     public enum TextInputType {
@@ -48,11 +50,14 @@ public class InputResponse {
     }
 
     public String toJson() {
-        JSONObject jsonObje = new JSONObject();
+        return InputResponseCodec.toJson(this);
+    }
 
-        jsonObje.put("type", mTextInputType.getCode());
-        jsonObje.put("message", mMessage);
-        return new JSONObject().put("inputResponse", jsonObje).toString();
+    /**
+     * @throws IllegalArgumentException If the JSON is not valid
+     */
+    public static InputResponse fromJson(String jsonStr) {
+        return InputResponseCodec.fromJson(jsonStr);
     }
 
     public static InputResponse fromJson(JSONObject jsonObject) {
@@ -60,6 +65,7 @@ public class InputResponse {
         return new InputResponse(inptRespJson.getInt("type"), inptRespJson.getString("message"));
     }
 
+    @JsonCodec.EnumCode
     public TextInputType getType() {
         return mTextInputType;
     }
@@ -1,10 +1,12 @@
 package com.organization.commons.rest;
 
+import com.organization.commons.codec.JsonCodec;
 import org.json.JSONObject;
 
 /**
  * Client insert request.
  */
+@JsonCodec(root = "insert")
 public class InsertRequest {
     private String mEntityType;
     private String mMessage;
@@ -46,15 +48,15 @@ public class InsertRequest {
         return new InsertRequest(entyType, mssg, value);
     }
 
-    public String toJson() {
-        JSONObject jsonObj = new JSONObject();
-        jsonObj.put("entityType", mEntityType);
-        jsonObj.put("message", mMessage);
-        jsonObj.put("data", mData);
+    /**
+     * @throws IllegalArgumentException If the JSON is not valid
+     */
+    public static InsertRequest fromJson(String jsonStr) {
+        return InsertRequestCodec.fromJson(jsonStr);
+    }
 
-        JSONObject rootJsonObj = new JSONObject();
-        rootJsonObj.put("insert", jsonObj);
-        return rootJsonObj.toString();
+    public String toJson() {
+        return InsertRequestCodec.toJson(this);
     }
 
     public String getEntityType() {
@@ -1,10 +1,12 @@
 package com.organization.commons.rest;
 
+import com.organization.commons.codec.JsonCodec;
 import org.json.JSONObject;
 
 /**
  * A general error caused by the client
  */
+@JsonCodec
 public class ServerResponseGeneralError implements EndpointsBaseError {
 
     public enum TYPE implements EndpointsBaseErrorType {
@@ -34,7 +36,7 @@ public class ServerResponseGeneralError implements EndpointsBaseError {
     }
 
     @Override
-    public EndpointsBaseErrorType getType() {
+    public TYPE getType() {
         return mType;
     }
 
@@ -56,4 +58,15 @@ public class ServerResponseGeneralError implements EndpointsBaseError {
         String message = jsonObject.getString("message");
         return new ServerResponseGeneralError(type, message);
     }
+
+    /**
+     * @throws IllegalArgumentException If the JSON is not valid
+     */
+    public static ServerResponseGeneralError fromJson(String jsonStr) {
+        return ServerResponseGeneralErrorCodec.fromJson(jsonStr);
+    }
+
+    public String toJsonString() {
+        return ServerResponseGeneralErrorCodec.toJson(this);
+    }
 }
@@ -1,10 +1,12 @@
 package com.organization.commons.rest;
 
+import com.organization.commons.codec.JsonCodec;
 import org.json.JSONObject;
 
 /**
  * Client update request.
  */
+@JsonCodec(root = "updateRequest")
 public class UpdateRequest {
     private String mType;
     private String mValue;
@@ -26,12 +28,14 @@ public class UpdateRequest {
     }
 
     public String toJson() {
-        JSONObject jsonObje = new JSONObject();
+        return UpdateRequestCodec.toJson(this);
+    }
 
-        jsonObje.put("type", mType);
-        jsonObje.put("value", mValue);
-        jsonObje.put("value2", mValue2);
-        return new JSONObject().put("updateRequest", jsonObje).toString();
+    /**
+     * @throws IllegalArgumentException If the JSON is not valid
+     */
+    public static UpdateRequest fromJson(String jsonStr) {
+        return UpdateRequestCodec.fromJson(jsonStr);
     }
 
     public static UpdateRequest fromJson(JSONObject jsonObject) {
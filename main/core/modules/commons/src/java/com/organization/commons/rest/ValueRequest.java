@@ -1,10 +1,12 @@
 package com.organization.commons.rest;
 
+import com.organization.commons.codec.JsonCodec;
 import org.json.JSONObject;
 
 /**
  * A value request
  */
+@JsonCodec(root = "valueRequest")
 public class ValueRequest {
     private String mValue;
 
@@ -13,7 +15,14 @@ public class ValueRequest {
     }
 
     public String toJson() {
-        return new JSONObject().put("valueRequest", new JSONObject().put("value", mValue)).toString();
+        return ValueRequestCodec.toJson(this);
+    }
+
+    /**
+     * @throws IllegalArgumentException If the JSON is not valid
+     */
+    public static ValueRequest fromJson(String jsonStr) {
+        return ValueRequestCodec.fromJson(jsonStr);
     }
 
     public static ValueRequest fromJson(JSONObject jsonObject) {
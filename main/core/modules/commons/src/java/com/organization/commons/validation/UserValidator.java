@@ -1,5 +1,6 @@
 package com.organization.commons.validation;
 
+import com.organization.commons.configuration.ConfigurationsManager;
 import com.organization.commons.configuration.RegulationConfigurations;
 import com.organization.commons.configuration.ValidationConfigurations;
 import com.organization.commons.model.User;
@@ -127,17 +128,25 @@ public class UserValidator {
         if (name == null || name.equals("")) {
             errs.add(new Error(Error.TYPE.NAME_NULL_OR_EMPTY));
         } else {
-            if (name.length() < ValidationConfigurations.User.nameMinimumLength()) {
-                errs.add(new Error(Error.TYPE.NAME_TOO_SHORT, String.valueOf(ValidationConfigurations.User
-                        .nameMinimumLength())));
-            } else if (name.length() > ValidationConfigurations.User.nameMaximumLength()) {
-                errs.add(new Error(Error.TYPE.NAME_TOO_LONG, String.valueOf(ValidationConfigurations.User
-                        .nameMaximumLength())));
+            // One snapshot each, so a reload cannot mix old and new rules within a validation
+            ConfigurationsManager.Snapshot snapshot = ConfigurationsManager.getSnapshot();
+            ValidationConfigurations validation = snapshot.getValidation();
+            RegulationConfigurations regulation = snapshot.getRegulation();
+            if (validation == null || regulation == null) {
+                throw new IllegalStateException("Validation or regulation configurations not initialized");
+            }
+
+            if (name.length() < validation.getUserNameMinimumLength()) {
+                errs.add(new Error(Error.TYPE.NAME_TOO_SHORT, String.valueOf(validation
+                        .getUserNameMinimumLength())));
+            } else if (name.length() > validation.getUserNameMaximumLength()) {
+                errs.add(new Error(Error.TYPE.NAME_TOO_LONG, String.valueOf(validation
+                        .getUserNameMaximumLength())));
             }
 
             if (name.matches(".*[A-Z].*")) {
                 errs.add(new Error(Error.TYPE.NAME_CONTAINS_UPPERCASE_CHARACTERS));
-            } else if (!name.matches(ValidationConfigurations.User.nameRegex())) {
+            } else if (!name.matches(validation.getUserNameRegex())) {
                 errs.add(new Error(Error.TYPE.NAME_CONTAINS_INVALID_CHARACTERS));
             }
 
@@ -145,11 +154,9 @@ public class UserValidator {
                 errs.add(new Error(Error.TYPE.NAME_DOES_NOT_BEGIN_WITH_AN_ALPHA_CHARACTER));
             }
 
-            if (org.apache.commons.lang3.StringUtils.indexOfAny(name.toLowerCase(), RegulationConfigurations.Global
-                    .primaryUnallowedWords().split(",")) != -1) {
+            if (containsAnyWord(name.toLowerCase(), regulation.getPrimaryUnallowedWords())) {
                 errs.add(new Error(Error.TYPE.NAME_CONTAINS_UNALLOWED_WORDS));
-            } else if (org.apache.commons.lang3.StringUtils.indexOfAny(name.toLowerCase(), RegulationConfigurations
-                    .Global.secondaryUnallowedWords().split(",")) != -1) {
+            } else if (containsAnyWord(name.toLowerCase(), regulation.getSecondaryUnallowedWords())) {
                 errs.add(new Error(Error.TYPE.NAME_CONTAINS_UNALLOWED_WORDS));
             }
         }
@@ -165,15 +172,20 @@ public class UserValidator {
         if (password == null || password.equals("")) {
             errs.add(new Error(Error.TYPE.PASSWORD_NULL_OR_EMPTY));
         } else {
-            if (password.length() < ValidationConfigurations.User.passwordMinimumLength()) {
+            ValidationConfigurations validation = ValidationConfigurations.current();
+            if (validation == null) {
+                throw new IllegalStateException("Validation configurations not initialized");
+            }
+
+            if (password.length() < validation.getUserPasswordMinimumLength()) {
                 errs.add(new Error(Error.TYPE.PASSWORD_TOO_SHORT, String.valueOf(
-                        ValidationConfigurations.User.passwordMinimumLength())));
-            } else if (password.length() > ValidationConfigurations.User.passwordMaximumLength()) {
-                errs.add(new Error(Error.TYPE.PASSWORD_TOO_LONG, String.valueOf(ValidationConfigurations.User
-                        .passwordMaximumLength())));
+                        validation.getUserPasswordMinimumLength())));
+            } else if (password.length() > validation.getUserPasswordMaximumLength()) {
+                errs.add(new Error(Error.TYPE.PASSWORD_TOO_LONG, String.valueOf(validation
+                        .getUserPasswordMaximumLength())));
             }
 
-            if (!password.matches(ValidationConfigurations.User.passwordRegex())) {
+            if (!password.matches(validation.getUserPasswordRegex())) {
                 errs.add(new Error(Error.TYPE.PASSWORD_CONTAINS_INVALID_CHARACTERS));
             }
         }
@@ -253,4 +265,16 @@ public class UserValidator {
         return errs;
     }
     
+    /**
+     * Determine if a string contains any of comma-separated words; empty words are ignored.
+     */
+    private static boolean containsAnyWord(String str, String words) {
+        for (String word : words.split(",")) {
+            if (!word.isEmpty() && str.contains(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 }
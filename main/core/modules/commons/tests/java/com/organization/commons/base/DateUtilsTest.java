@@ -0,0 +1,146 @@
+package com.organization.commons.base;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class DateUtilsTest {
+    // 0000-01-01 to 9999-12-31
+    private static final long MIN_MILLIS = -62167219200000L;
+    private static final long MAX_MILLIS = 253402300799999L;
+
+    @Test
+    public void shouldFormatIso8601() {
+        Assert.assertEquals("1970-01-01T00:00:00.000Z", DateUtils.toIso8601(new Date(0)));
+        Assert.assertEquals("2016-02-29T23:59:59.999Z", DateUtils.toIso8601(new Date(1456790399999L)));
+        Assert.assertEquals("1969-12-31T23:59:59.999Z", DateUtils.toIso8601(new Date(-1)));
+        Assert.assertEquals("2016-02-29T23:59:59Z", DateUtils.toIso8601NoMillis(new Date(1456790399999L)));
+    }
+
+    @Test
+    public void shouldFormatIso8601IntoBuffer() {
+        char[] buffer = new char[2 + DateUtils.ISO8601_LENGTH];
+        int end = DateUtils.formatIso8601(0, true, buffer, 2);
+
+        Assert.assertEquals(buffer.length, end);
+        Assert.assertEquals("1970-01-01T00:00:00.000Z", new String(buffer, 2, end - 2));
+    }
+
+    @Test
+    public void shouldFormatAsSimpleDateFormat() {
+        DateFormat format = createUtcFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        Random random = new Random(0);
+
+        // SimpleDateFormat uses the Julian calendar before 1582
+        long min = -12219292800000L;
+        for (int i = 0; i < 100000; i++) {
+            Date date = new Date(min + (long) (random.nextDouble() * (MAX_MILLIS - min)));
+            Assert.assertEquals(format.format(date), DateUtils.toIso8601(date));
+        }
+    }
+
+    @Test
+    public void shouldFormatYearsOutside0To9999AsSimpleDateFormat() {
+        DateFormat format = createUtcFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        DateFormat noMillisFormat = createUtcFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+
+        for (long millis : new long[] {MIN_MILLIS - 1, MAX_MILLIS + 1, Long.MIN_VALUE, Long.MAX_VALUE}) {
+            Date date = new Date(millis);
+            Assert.assertEquals(format.format(date), DateUtils.toIso8601(date));
+            Assert.assertEquals(noMillisFormat.format(date), DateUtils.toIso8601NoMillis(date));
+        }
+        Assert.assertEquals("10000-01-01T00:00:00.000Z", DateUtils.toIso8601(new Date(MAX_MILLIS + 1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void formatIso8601IntoBufferShouldThrowAfter9999() {
+        DateUtils.formatIso8601(MAX_MILLIS + 1, true, new char[DateUtils.ISO8601_LENGTH], 0);
+    }
+
+    @Test
+    public void shouldParseIso8601Variants() {
+        Assert.assertEquals(1456790399999L, DateUtils.parseIso8601("2016-02-29T23:59:59.999Z"));
+        Assert.assertEquals(1456790399000L, DateUtils.parseIso8601("2016-02-29T23:59:59Z"));
+        Assert.assertEquals(1456790399000L, DateUtils.parseIso8601("2016-02-29T23:59:59"));
+        Assert.assertEquals(1456790399500L, DateUtils.parseIso8601("2016-02-29 23:59:59.5"));
+        Assert.assertEquals(1456790399123L, DateUtils.parseIso8601("2016-02-29 23:59:59.123456"));
+        Assert.assertEquals(1456790399000L, DateUtils.parseIso8601("2016-03-01T01:59:59+02:00"));
+        Assert.assertEquals(1456790399000L, DateUtils.parseIso8601("2016-02-29T21:59:59-0200"));
+        Assert.assertEquals(1456790399000L, DateUtils.parseIso8601("2016-03-01T01:59:59+02"));
+    }
+
+    @Test
+    public void shouldReturnNullForInvalidIso8601() {
+        Assert.assertNull(DateUtils.fromIso8601(""));
+        Assert.assertNull(DateUtils.fromIso8601("2016-02-29"));
+        Assert.assertNull(DateUtils.fromIso8601("2015-02-29T00:00:00Z"));
+        Assert.assertNull(DateUtils.fromIso8601("2016-13-01T00:00:00Z"));
+        Assert.assertNull(DateUtils.fromIso8601("2016-01-01T24:00:00Z"));
+        Assert.assertNull(DateUtils.fromIso8601("2016-01-01T00:00:00.Z"));
+        Assert.assertNull(DateUtils.fromIso8601("2016-01-01T00:00:00Zx"));
+        Assert.assertNull(DateUtils.fromIso8601("2016/01/01T00:00:00Z"));
+    }
+
+    @Test
+    public void shouldRoundTripIso8601() {
+        Random random = new Random(0);
+
+        for (int i = 0; i < 100000; i++) {
+            long millis = MIN_MILLIS + (long) (random.nextDouble() * (MAX_MILLIS - MIN_MILLIS));
+            Assert.assertEquals(millis, DateUtils.fromIso8601(DateUtils.toIso8601(new Date(millis))).getTime());
+        }
+    }
+
+    @Test
+    public void shouldFormatAndParseConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Void>> futures = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < 8; t++) {
+                final long seed = t;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        DateFormat format = createUtcFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+                        Random random = new Random(seed);
+
+                        for (int i = 0; i < 50000; i++) {
+                            Date date = new Date((random.nextLong() >>> 1) % MAX_MILLIS);
+                            String iso8601 = DateUtils.toIso8601(date);
+                            Assert.assertEquals(format.format(date), iso8601);
+                            Assert.assertEquals(date, DateUtils.fromIso8601(iso8601));
+                            Assert.assertEquals("UTC", DateUtils.getUtcCalendar().getTimeZone().getID());
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static DateFormat createUtcFormat(String pattern) {
+        DateFormat format = new SimpleDateFormat(pattern, Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+
+}
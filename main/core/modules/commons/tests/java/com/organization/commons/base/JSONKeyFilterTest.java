@@ -0,0 +1,52 @@
+package com.organization.commons.base;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JSONKeyFilterTest {
+    private static final JSONKeyFilter FILTER = new JSONKeyFilter("_description", "_note*");
+
+    @Test
+    public void shouldRemoveKeysAtAnyDepth() {
+        String json = "{\"_description\":\"a\",\"user\":{\"_description\":\"b\",\"nameMinimumLength\":5," +
+                "\"limits\":[{\"_description\":\"c\",\"max\":3}]}}";
+        Assert.assertEquals("{\"user\":{\"nameMinimumLength\":5,\"limits\":[{\"max\":3}]}}", FILTER.filter(json));
+    }
+
+    @Test
+    public void shouldRemoveKeysMatchingPrefix() {
+        String json = "{\"_note\":1,\"_noteLong\":{\"a\":[1,2]},\"note\":2}";
+        Assert.assertEquals("{\"note\":2}", FILTER.filter(json));
+    }
+
+    @Test
+    public void shouldKeepValuesContainingSeparators() {
+        String json = "{\"_description\":\"a, b} c]\",\"regex\":\"[a-z]{1,2},\\\"x\\\"\",\"last\":true}";
+        Assert.assertEquals("{\"regex\":\"[a-z]{1,2},\\\"x\\\"\",\"last\":true}", FILTER.filter(json));
+    }
+
+    @Test
+    public void shouldKeepNumberText() {
+        String json = "{\"a\":1.10,\"b\":5184000000,\"c\":-1e3}";
+        Assert.assertEquals(json, FILTER.filter(json));
+    }
+
+    @Test
+    public void shouldAcceptTrailingCommas() {
+        Assert.assertEquals("{\"a\":{\"b\":1}}", FILTER.filter("{\"a\":{\"b\":1,},\"_description\":\"x\",}"));
+    }
+
+    @Test
+    public void shouldRemoveKeysAndChangeKeptKeysToCamelCase() {
+        JSONKeyFilter filter = new JSONKeyFilter("passw_hash", "created_at").withCamelCaseKeys();
+        String json = "{\"id\":1,\"passw_hash\":\"x\",\"country_code\":1,\"phone_number\":\"555\"," +
+                "\"created_at\":\"2017-01-01T00:00:00\"}";
+        Assert.assertEquals("{\"id\":1,\"countryCode\":1,\"phoneNumber\":\"555\"}", filter.filter(json));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidJsonShouldThrow() {
+        FILTER.filter("{\"a\":");
+    }
+
+}
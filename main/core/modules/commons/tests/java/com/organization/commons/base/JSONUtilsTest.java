@@ -0,0 +1,33 @@
+package com.organization.commons.base;
+
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JSONUtilsTest {
+
+    @Test
+    public void shouldChangeKeysToCamelCase() {
+        Assert.assertEquals("timesLoggedIn", JSONUtils.toCamelCase("times_logged_in"));
+        Assert.assertEquals("id", JSONUtils.toCamelCase("_id"));
+        Assert.assertEquals("userId", JSONUtils.toCamelCase("user__id"));
+        Assert.assertEquals("name", JSONUtils.toCamelCase("name"));
+    }
+
+    @Test
+    public void shouldChangeKeysToCamelCaseInPlace() {
+        JSONObject json = new JSONObject("{\"user_id\":1,\"user_log\":{\"logged_in_at\":2},\"name\":\"a\"}");
+        JSONUtils.formatKeysToCamelCase(json);
+        Assert.assertTrue(new JSONObject("{\"userId\":1,\"userLog\":{\"loggedInAt\":2},\"name\":\"a\"}")
+                .similar(json));
+    }
+
+    @Test
+    public void shouldChangeKeysToCamelCaseWhileCopying() {
+        String json = "{\"user\":{\"country_code\":1},\"user_activity\":[{\"times_logged_in\":3}]," +
+                "\"logged_out_at\":null}";
+        Assert.assertEquals("{\"user\":{\"countryCode\":1},\"userActivity\":[{\"timesLoggedIn\":3}]," +
+                "\"loggedOutAt\":null}", JSONUtils.formatKeysToCamelCase(json));
+    }
+
+}
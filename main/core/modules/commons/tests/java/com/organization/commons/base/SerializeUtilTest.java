@@ -0,0 +1,54 @@
+package com.organization.commons.base;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class SerializeUtilTest {
+
+    public enum Color { RED, GREEN }
+
+    public static class Item {
+        public String name;
+        public Color color;
+    }
+
+    @Test
+    public void shouldDeserializeLowercaseEnumsAndIgnoreUnknownProperties() throws IOException {
+        Item item = SerializeUtil.deserialize("{\"name\":\"a\",\"color\":\"green\",\"unknown\":1}", Item.class);
+        Assert.assertEquals("a", item.name);
+        Assert.assertEquals(Color.GREEN, item.color);
+    }
+
+    @Test
+    public void shouldOmitNullProperties() {
+        Item item = new Item();
+        item.color = Color.RED;
+        Assert.assertEquals("{\"color\":\"RED\"}", SerializeUtil.serialize(item));
+    }
+
+    @Test
+    public void restMapperShouldWriteNullsAndRejectUnknownProperties() throws IOException {
+        Item item = new Item();
+        item.color = Color.RED;
+        Assert.assertEquals("{\"name\":null,\"color\":\"RED\"}",
+                SerializeUtil.getRestObjectMapper().writeValueAsString(item));
+        Assert.assertEquals(Color.GREEN, SerializeUtil.getRestObjectMapper().readValue("{\"color\":\"green\"}",
+                Item.class).color);
+
+        try {
+            SerializeUtil.getRestObjectMapper().readValue("{\"unknown\":1}", Item.class);
+            Assert.fail("Unknown property accepted");
+        } catch (JsonMappingException expected) {
+        }
+    }
+
+    @Test
+    public void shouldCacheReadersAndWriters() {
+        Assert.assertSame(SerializeUtil.getReader(Item.class), SerializeUtil.getReader(Item.class));
+        Assert.assertSame(SerializeUtil.getWriter(Item.class), SerializeUtil.getWriter(Item.class));
+    }
+
+}
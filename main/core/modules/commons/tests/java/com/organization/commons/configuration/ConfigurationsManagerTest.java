@@ -70,6 +70,50 @@ public class ConfigurationsManagerTest {
         }
     }
 
+    /**
+     * Changes one value of the base configurations and applies only that entity as a change; a snapshot held from
+     * before keeps the old value.
+     */
+    @Test
+    public void shouldApplyChangedEntityInPlace() {
+        if (mConfigurationsJsonArrayString != null) {
+            ConfigurationsManager.initializeConfigurations(mConfigurationsJsonArrayString);
+            String applicationMessageOnStart = ApplicationMessagesConfigurations.Application.onStart();
+
+            JSONObject baseJsonObj = null;
+            JSONArray configsJsonArr = new JSONArray(mConfigurationsJsonArrayString);
+            for (int i = 0; i < configsJsonArr.length(); i++) {
+                if (configsJsonArr.getJSONObject(i).getString("_id").equals(BaseConfigurations.ID)) {
+                    baseJsonObj = configsJsonArr.getJSONObject(i);
+                }
+            }
+            Assert.assertNotNull(baseJsonObj);
+
+            baseJsonObj.getJSONObject("servers").getJSONObject("mqtt").put("userName", "changedUserName");
+            baseJsonObj.put(ConfigurationsManager.VERSION_KEY, "changedVersion");
+            JSONObject changesJsonObj = new JSONObject().put("configurations", new JSONArray().put(baseJsonObj));
+
+            ConfigurationsManager.Snapshot heldSnapshot = ConfigurationsManager.getSnapshot();
+            String heldUserName = heldSnapshot.getBase().getMqttUserName();
+
+            int result = ConfigurationsManager.applyConfigurationsChanges(changesJsonObj.toString());
+            Assert.assertEquals(0, result);
+            Assert.assertEquals("changedUserName", BaseConfigurations.Servers.Mqtt.userName());
+            Assert.assertEquals(heldUserName, heldSnapshot.getBase().getMqttUserName());
+            Assert.assertEquals(applicationMessageOnStart, ApplicationMessagesConfigurations.Application.onStart());
+            Assert.assertEquals("changedVersion", ConfigurationsManager.getVersionsJson()
+                    .getString(BaseConfigurations.ID));
+        }
+    }
+
+    @Test
+    public void invalidChangesShouldReturnNegativeOne() {
+        if (mConfigurationsJsonArrayString != null) {
+            int result = ConfigurationsManager.applyConfigurationsChanges("{\"configurations\": [{}]}");
+            Assert.assertEquals(-1, result);
+        }
+    }
+
     @Test
     public void nullListShouldReturnNegativeTwo() {
         if (mConfigurationsJsonArrayString != null) {
@@ -0,0 +1,85 @@
+package com.organization.commons.rest;
+
+import com.organization.commons.model.User;
+import com.organization.commons.model.UserCodec;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonCodecsTest {
+
+    @Test
+    public void shouldOmitNullProperties() {
+        Assert.assertEquals("{\"insert\":{\"entityType\":\"section vote\"}}",
+                new InsertRequest("section vote").toJson());
+        Assert.assertEquals("{\"updateRequest\":{\"type\":\"user name\",\"value\":\"a\"}}",
+                new UpdateRequest("user name", "a").toJson());
+    }
+
+    @Test
+    public void shouldReadInsertRequestWithData() {
+        InsertRequest insertRequest = InsertRequest.fromJson("{\"insert\":{\"entityType\":\"a\",\"message\":null," +
+                "\"data\":{\"b\":[1,{\"c\":2}]}}}");
+        Assert.assertEquals("a", insertRequest.getEntityType());
+        Assert.assertNull(insertRequest.getMessage());
+        Assert.assertTrue(new JSONObject("{\"b\":[1,{\"c\":2}]}").similar(insertRequest.getData()));
+    }
+
+    @Test
+    public void shouldSkipOtherKeys() {
+        ValueRequest valueRequest = ValueRequest.fromJson("{\"a\":{\"b\":1},\"valueRequest\":{\"c\":[2]," +
+                "\"value\":\"d\"}}");
+        Assert.assertEquals("d", valueRequest.getValue());
+    }
+
+    @Test
+    public void shouldEncodeEnumsByCodeOrName() {
+        InputResponse inputResponse = new InputResponse(InputResponse.TextInputType.DUAL_TEXT_INPUT, "a");
+        Assert.assertEquals("{\"inputResponse\":{\"type\":2,\"message\":\"a\"}}", inputResponse.toJson());
+        Assert.assertEquals(InputResponse.TextInputType.DUAL_TEXT_INPUT,
+                InputResponse.fromJson(inputResponse.toJson()).getType());
+
+        ServerResponseGeneralError error = ServerResponseGeneralError.fromJson("{\"type\":\"not_allowed\"," +
+                "\"message\":\"a\"}");
+        Assert.assertEquals(ServerResponseGeneralError.TYPE.NOT_ALLOWED, error.getType());
+    }
+
+    @Test
+    public void shouldRoundTripUser() {
+        User user = new User("a", "b", 1, "5551234567", "a@b.c", "D", "E");
+        user.setId(12);
+        User decoded = UserCodec.fromJson(UserCodec.toJson(user));
+        Assert.assertEquals(12, decoded.getId());
+        Assert.assertEquals("5551234567", decoded.getPhoneNumber());
+        Assert.assertEquals("E", decoded.getLastName());
+    }
+
+    @Test
+    public void shouldOnlyWriteUserPasswordWhenIncluded() {
+        User user = new User("a", "b");
+        Assert.assertFalse(UserCodec.toJson(user).contains("password"));
+        Assert.assertTrue(UserCodec.toJson(user, true).contains("\"password\":\"b\""));
+        Assert.assertEquals("b", UserCodec.fromJson("{\"name\":\"a\",\"password\":\"b\"}").getPassword());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void objectStringValueShouldThrow() {
+        ValueRequest.fromJson("{\"valueRequest\":{\"value\":{\"x\":\"y\",\"value\":\"z\"}}}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void arrayStringValueShouldThrow() {
+        InsertRequest.fromJson("{\"insert\":{\"entityType\":[\"a\",\"b\"],\"message\":\"m\"}}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void objectNumberValueShouldThrow() {
+        UserCodec.fromJson("{\"id\":{\"id\":1}}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownEnumValueShouldThrow() {
+        InputResponse.fromJson("{\"inputResponse\":{\"type\":9,\"message\":\"a\"}}");
+    }
+
+}